@@ -1,6 +1,7 @@
 package fr.traqueur.commands.annotations;
 
 import fr.traqueur.commands.api.CommandManager;
+import fr.traqueur.commands.api.arguments.ArgumentKey;
 import fr.traqueur.commands.api.arguments.Arguments;
 import fr.traqueur.commands.api.arguments.TabCompleter;
 import fr.traqueur.commands.api.models.Command;
@@ -121,10 +122,9 @@ public class AnnotationCommandProcessor<T, S> {
     private List<Command<T, S>> registerRootCommands(Set<String> rootCommands, Map<String, Command<T, S>> builtCommands) {
         List<Command<T, S>> registeredCommands = new ArrayList<>();
         for (String rootPath : rootCommands) {
-            Command<T, S> command = builtCommands.get(rootPath);
-            manager.registerCommand(command);
-            registeredCommands.add(command);
+            registeredCommands.add(builtCommands.get(rootPath));
         }
+        manager.registerAll(registeredCommands);
         return registeredCommands;
     }
 
@@ -160,7 +160,7 @@ public class AnnotationCommandProcessor<T, S> {
             builder.aliases(aliasAnnotation.value());
         }
 
-        processParameters(builder, method, fullPath);
+        ArgumentKey<?>[] keys = processParameters(builder, method, fullPath);
 
         Parameter[] params = method.getParameters();
         if (params.length > 0) {
@@ -175,7 +175,7 @@ public class AnnotationCommandProcessor<T, S> {
         }
 
         method.setAccessible(true);
-        builder.executor((sender, args) -> invokeMethod(handler, method, sender, args));
+        builder.executor((sender, args) -> invokeMethod(handler, method, params, keys, sender, args));
 
         return builder.build();
     }
@@ -188,8 +188,14 @@ public class AnnotationCommandProcessor<T, S> {
         tabCompleters.put(key, new TabCompleterMethod(handler, method));
     }
 
-    private void processParameters(CommandBuilder<T, S> builder, Method method, String commandPath) {
+    /**
+     * Register the arguments of the method's parameters.
+     *
+     * @return the key of each parameter, null for the sender
+     */
+    private ArgumentKey<?>[] processParameters(CommandBuilder<T, S> builder, Method method, String commandPath) {
         Parameter[] params = method.getParameters();
+        ArgumentKey<?>[] keys = new ArgumentKey<?>[params.length];
 
         for (int i = 0; i < params.length; i++) {
             Parameter param = params[i];
@@ -198,8 +204,9 @@ public class AnnotationCommandProcessor<T, S> {
                 continue;
             }
 
-            registerArgument(builder, param, commandPath);
+            keys[i] = registerArgument(builder, param, commandPath);
         }
+        return keys;
     }
 
     private boolean isSenderParameter(Parameter param) {
@@ -208,7 +215,7 @@ public class AnnotationCommandProcessor<T, S> {
         return senderResolver.canResolve(senderType);
     }
 
-    private void registerArgument(CommandBuilder<T, S> builder, Parameter param, String commandPath) {
+    private ArgumentKey<?> registerArgument(CommandBuilder<T, S> builder, Parameter param, String commandPath) {
         String argName = getArgumentName(param);
         Class<?> argType = resolveArgumentType(param);
         boolean isOptional = param.getType() == Optional.class;
@@ -219,6 +226,9 @@ public class AnnotationCommandProcessor<T, S> {
         } else {
             builder.arg(argName, argType, completer);
         }
+        // infinite arguments are read as a String
+        Class<?> valueType = argType == fr.traqueur.commands.api.arguments.Infinite.class ? String.class : argType;
+        return builder.key(argName, valueType);
     }
 
     private String getArgumentName(Parameter param) {
@@ -287,17 +297,17 @@ public class AnnotationCommandProcessor<T, S> {
         return tcMethod.method.invoke(tcMethod.handler, resolvedSender, current);
     }
 
-    private void invokeMethod(Object handler, Method method, S sender, Arguments args) {
+    private void invokeMethod(Object handler, Method method, Parameter[] params, ArgumentKey<?>[] keys,
+                              S sender, Arguments args) {
         try {
-            Parameter[] params = method.getParameters();
-            Object[] invokeArgs = buildInvokeArgs(params, sender, args);
+            Object[] invokeArgs = buildInvokeArgs(params, keys, sender, args);
             method.invoke(handler, invokeArgs);
         } catch (Exception e) {
             throw new RuntimeException("Failed to invoke command method: " + method.getName(), e);
         }
     }
 
-    private Object[] buildInvokeArgs(Parameter[] params, S sender, Arguments args) {
+    private Object[] buildInvokeArgs(Parameter[] params, ArgumentKey<?>[] keys, S sender, Arguments args) {
         Object[] invokeArgs = new Object[params.length];
 
         for (int i = 0; i < params.length; i++) {
@@ -306,7 +316,7 @@ public class AnnotationCommandProcessor<T, S> {
             if (i == 0 && isSenderParameter(param)) {
                 invokeArgs[i] = resolveSender(param, sender);
             } else {
-                invokeArgs[i] = resolveArgument(param, args);
+                invokeArgs[i] = resolveArgument(param, keys[i], args);
             }
         }
         return invokeArgs;
@@ -320,10 +330,9 @@ public class AnnotationCommandProcessor<T, S> {
         return isOptional ? Optional.ofNullable(resolved) : resolved;
     }
 
-    private Object resolveArgument(Parameter param, Arguments args) {
-        String argName = getArgumentName(param);
+    private Object resolveArgument(Parameter param, ArgumentKey<?> key, Arguments args) {
         boolean isOptional = param.getType() == Optional.class;
-        return isOptional ? args.getOptional(argName) : args.get(argName);
+        return isOptional ? args.getOptional(key) : args.get(key);
     }
 
     private record CommandMethodInfo(Object handler, Method method, String name) {}
@@ -0,0 +1,90 @@
+package fr.traqueur.commands;
+
+import fr.traqueur.commands.api.arguments.ArgumentConverter;
+import fr.traqueur.commands.api.arguments.Arguments;
+import fr.traqueur.commands.api.arguments.Infinite;
+import fr.traqueur.commands.api.models.Command;
+import fr.traqueur.commands.api.parsing.CommandLine;
+import fr.traqueur.commands.api.parsing.ParseResult;
+import fr.traqueur.commands.impl.arguments.DoubleArgument;
+import fr.traqueur.commands.impl.arguments.IntArgument;
+import fr.traqueur.commands.impl.logging.InternalLogger;
+import fr.traqueur.commands.impl.parsing.DefaultArgumentParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ArgumentParseBenchmark {
+
+    private DefaultArgumentParser<Object, Object> parser;
+    private DummyCommand teleport;
+    private DummyCommand message;
+    private String[] teleportArgs;
+    private String[] messageArgs;
+    private String[] invalidTeleportArgs;
+    private CommandLine messageLine;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<Class<?>, ArgumentConverter.Wrapper<?>> converters = new HashMap<>();
+        converters.put(String.class, new ArgumentConverter.Wrapper<>(String.class, s -> s));
+        // same converters as the ones CommandManager registers
+        converters.put(Integer.class, new ArgumentConverter.Wrapper<>(Integer.class, new IntArgument()));
+        converters.put(Double.class, new ArgumentConverter.Wrapper<>(Double.class, new DoubleArgument()));
+        parser = new DefaultArgumentParser<>(converters,
+                new InternalLogger(java.util.logging.Logger.getLogger("ArgumentParseBenchmark")));
+
+        // "tp <x> <y> <z> <yaw>"
+        teleport = new DummyCommand("tp");
+        teleport.addArgs("x", Integer.class, "y", Integer.class, "z", Integer.class);
+        teleport.addOptionalArg("yaw", Double.class);
+        teleportArgs = new String[]{"120", "64", "-3512", "90.5"};
+        // a typo in the last coordinate, as sent over and over by a spamming player
+        invalidTeleportArgs = new String[]{"120", "64", "-35l2", "90.5"};
+
+        // "msg <player> <message...>"
+        message = new DummyCommand("msg");
+        message.addArg("player", String.class);
+        message.addArg("message", Infinite.class);
+        messageArgs = new String[]{"Notch", "hello", "there,", "how", "are", "you", "?"};
+        messageLine = CommandLine.tokenize(String.join(" ", messageArgs));
+    }
+
+    @Benchmark
+    public ParseResult parseCoordinates() {
+        return parser.parse(teleport, teleportArgs, 0);
+    }
+
+    @Benchmark
+    public ParseResult parseInvalid() {
+        return parser.parse(teleport, invalidTeleportArgs, 0);
+    }
+
+    @Benchmark
+    public ParseResult parseGreedy() {
+        return parser.parse(message, messageArgs, 0);
+    }
+
+    @Benchmark
+    public ParseResult parseGreedyLine() {
+        return parser.parse(message, messageLine, 0);
+    }
+
+    public static class DummyCommand extends Command<Object, Object> {
+        public DummyCommand(String name) {
+            super(null, name);
+        }
+
+        @Override
+        public void execute(Object s, Arguments a) {
+        }
+    }
+}
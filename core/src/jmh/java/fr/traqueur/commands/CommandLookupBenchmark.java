@@ -2,6 +2,7 @@ package fr.traqueur.commands;
 
 import fr.traqueur.commands.api.models.Command;
 import fr.traqueur.commands.api.models.collections.CommandTree;
+import fr.traqueur.commands.api.parsing.CommandLine;
 import org.openjdk.jmh.annotations.*;
 
 import java.util.Arrays;
@@ -26,14 +27,30 @@ public class CommandLookupBenchmark {
 
     private Map<String, DummyCommand> flatMap;
     private CommandTree<DummyCommand, Object> tree;
+    private CommandTree<DummyCommand, Object> frozenTree;
+    private CommandTree<DummyCommand, Object> deepTree;
+    private CommandTree<DummyCommand, Object> frozenDeepTree;
+    private String[] deepBases;
+    private String[][] deepArgs;
     private String[] rawLabels;
+    private String[] bases;
+    private String[][] subArgs;
+    private String[] mixedBases;
+    private String[][] mixedSubArgs;
+    private String[] rawLines;
 
     @Setup(Level.Trial)
     public void setup() {
         flatMap = new HashMap<>(N);
         tree = new CommandTree<>();
+        frozenTree = new CommandTree<>();
 
         rawLabels = new String[N];
+        bases = new String[N];
+        subArgs = new String[N][];
+        mixedBases = new String[N];
+        mixedSubArgs = new String[N][];
+        rawLines = new String[N];
         ThreadLocalRandom rnd = ThreadLocalRandom.current();
 
         for (int i = 0; i < N; i++) {
@@ -45,11 +62,49 @@ public class CommandLookupBenchmark {
             }
             String label = sb.toString();
             rawLabels[i] = label;
+            String[] parts = label.split("\\.");
+            bases[i] = parts[0];
+            subArgs[i] = Arrays.copyOfRange(parts, 1, parts.length);
+            // what a proxy hands over after the label: subcommands then arguments
+            rawLines[i] = String.join(" ", subArgs[i]) + " target some message";
+            mixedBases[i] = mixCase(bases[i], rnd);
+            mixedSubArgs[i] = new String[subArgs[i].length];
+            for (int s = 0; s < subArgs[i].length; s++) {
+                mixedSubArgs[i][s] = mixCase(subArgs[i][s], rnd);
+            }
 
             DummyCommand cmd = new DummyCommand(label);
             flatMap.put(label, cmd);
             tree.addCommand(label, cmd);
+            frozenTree.addCommand(label, cmd);
+        }
+        frozenTree.freeze();
+
+        // plugin suites shaped like "suite.user.permission.group.<op>": single-child chains above each leaf set
+        deepTree = new CommandTree<>();
+        frozenDeepTree = new CommandTree<>();
+        deepBases = new String[N];
+        deepArgs = new String[N][];
+        for (int i = 0; i < N; i++) {
+            String base = "suite" + (i / 5);
+            String op = "op" + (i % 5);
+            DummyCommand cmd = new DummyCommand(op);
+            deepTree.addCommand(base + ".user.permission.group." + op, cmd);
+            frozenDeepTree.addCommand(base + ".user.permission.group." + op, cmd);
+            deepBases[i] = base;
+            deepArgs[i] = new String[]{"user", "permission", "group", op, "target"};
+        }
+        frozenDeepTree.freeze();
+    }
+
+    private static String mixCase(String segment, ThreadLocalRandom rnd) {
+        char[] chars = segment.toCharArray();
+        for (int c = 0; c < chars.length; c++) {
+            if (rnd.nextBoolean()) {
+                chars[c] = Character.toUpperCase(chars[c]);
+            }
         }
+        return new String(chars);
     }
 
     @Benchmark
@@ -75,6 +130,63 @@ public class CommandLookupBenchmark {
         return tree.findNode(base, sub).orElse(null);
     }
 
+    @Benchmark
+    public CommandTree.MatchResult<DummyCommand, Object> treeFindNode() {
+        int i = ThreadLocalRandom.current().nextInt(N);
+        return tree.findNode(bases[i], subArgs[i]).orElse(null);
+    }
+
+    @Benchmark
+    public CommandTree.CommandNode<DummyCommand, Object> treeResolve() {
+        int i = ThreadLocalRandom.current().nextInt(N);
+        return tree.resolve(bases[i], subArgs[i]);
+    }
+
+    @Benchmark
+    public CommandTree.CommandNode<DummyCommand, Object> treeResolveMixedCase() {
+        int i = ThreadLocalRandom.current().nextInt(N);
+        return tree.resolve(mixedBases[i], mixedSubArgs[i]);
+    }
+
+    @Benchmark
+    public CommandTree.MatchResult<DummyCommand, Object> frozenTreeLookup() {
+        String raw = rawLabels[ThreadLocalRandom.current().nextInt(N)];
+        String[] parts = raw.split("\\.");
+        String base = parts[0];
+        String[] sub = Arrays.copyOfRange(parts, 1, parts.length);
+        return frozenTree.findNode(base, sub).orElse(null);
+    }
+
+    @Benchmark
+    public CommandTree.CommandNode<DummyCommand, Object> frozenTreeResolve() {
+        int i = ThreadLocalRandom.current().nextInt(N);
+        return frozenTree.resolve(bases[i], subArgs[i]);
+    }
+
+    @Benchmark
+    public CommandTree.CommandNode<DummyCommand, Object> rawLineSplitResolve() {
+        int i = ThreadLocalRandom.current().nextInt(N);
+        return tree.resolve(bases[i], rawLines[i].split(" "));
+    }
+
+    @Benchmark
+    public CommandTree.CommandNode<DummyCommand, Object> rawLineTokenizeResolve() {
+        int i = ThreadLocalRandom.current().nextInt(N);
+        return tree.resolve(bases[i], CommandLine.tokenize(rawLines[i]));
+    }
+
+    @Benchmark
+    public CommandTree.CommandNode<DummyCommand, Object> deepTreeResolve() {
+        int i = ThreadLocalRandom.current().nextInt(N);
+        return deepTree.resolve(deepBases[i], deepArgs[i]);
+    }
+
+    @Benchmark
+    public CommandTree.CommandNode<DummyCommand, Object> frozenDeepTreeResolve() {
+        int i = ThreadLocalRandom.current().nextInt(N);
+        return frozenDeepTree.resolve(deepBases[i], deepArgs[i]);
+    }
+
     public static class DummyCommand extends Command<DummyCommand, Object> {
         public DummyCommand(String name) {
             super(null, name);
@@ -0,0 +1,122 @@
+package fr.traqueur.commands;
+
+import fr.traqueur.commands.api.CommandManager;
+import fr.traqueur.commands.api.arguments.Arguments;
+import fr.traqueur.commands.api.arguments.Infinite;
+import fr.traqueur.commands.api.models.Command;
+import fr.traqueur.commands.api.models.CommandPlatform;
+import fr.traqueur.commands.api.parsing.CommandLine;
+import fr.traqueur.commands.api.resolver.SenderResolver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Full text dispatch (lookup, checks, parsing, execution) of "give &lt;player&gt; &lt;amount&gt; &lt;reason...&gt;",
+ * with fresh and with pooled arguments. Run with {@code -prof gc}: at 10k commands per second,
+ * the allocation rate is {@code gc.alloc.rate.norm} x 10 000 bytes per second.
+ */
+@State(Scope.Thread)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DispatchBenchmark {
+
+    private CommandManager<Object, Object> manager;
+    private String[] args;
+    private String line;
+    private Blackhole blackhole;
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        manager = new CommandManager<>(new NoopPlatform()) {
+        };
+        manager.registerCommand(new GiveCommand("give", false));
+        manager.registerCommand(new GiveCommand("pgive", true));
+        args = new String[]{"Notch", "64", "for", "the", "event"};
+        line = "Notch 64 for the event";
+    }
+
+    @Benchmark
+    public boolean invokeFresh() {
+        return manager.getInvoker().invoke(null, "give", args);
+    }
+
+    @Benchmark
+    public boolean invokePooled() {
+        return manager.getInvoker().invoke(null, "pgive", args);
+    }
+
+    @Benchmark
+    public boolean invokeLineFresh() {
+        return manager.getInvoker().invoke(null, "give", CommandLine.tokenize(line));
+    }
+
+    @Benchmark
+    public boolean invokeLinePooled() {
+        return manager.getInvoker().invoke(null, "pgive", CommandLine.tokenize(line));
+    }
+
+    private class GiveCommand extends Command<Object, Object> {
+        GiveCommand(String name, boolean pooled) {
+            super(null, name);
+            addArgs("player", String.class, "amount", Integer.class, "reason", Infinite.class);
+            setPooledArguments(pooled);
+        }
+
+        @Override
+        public void execute(Object sender, Arguments arguments) {
+            blackhole.consume(arguments.<String>get("player"));
+            blackhole.consume(arguments.getInt("amount"));
+            blackhole.consume(arguments.getText("reason"));
+        }
+    }
+
+    private static class NoopPlatform implements CommandPlatform<Object, Object> {
+        @Override
+        public Object getPlugin() {
+            return null;
+        }
+
+        @Override
+        public void injectManager(CommandManager<Object, Object> commandManager) {
+        }
+
+        @Override
+        public Logger getLogger() {
+            return Logger.getLogger("DispatchBenchmark");
+        }
+
+        @Override
+        public boolean hasPermission(Object sender, String permission) {
+            return true;
+        }
+
+        @Override
+        public boolean isPlayer(Object sender) {
+            return true;
+        }
+
+        @Override
+        public void sendMessage(Object sender, String message) {
+        }
+
+        @Override
+        public void addCommand(Command<Object, Object> command, String label) {
+        }
+
+        @Override
+        public void removeCommand(String label, boolean subcommand) {
+        }
+
+        @Override
+        public SenderResolver<Object> getSenderResolver() {
+            return null;
+        }
+    }
+}
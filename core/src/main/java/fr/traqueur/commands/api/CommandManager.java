@@ -3,28 +3,53 @@ package fr.traqueur.commands.api;
 import fr.traqueur.commands.api.arguments.Argument;
 import fr.traqueur.commands.api.arguments.ArgumentConverter;
 import fr.traqueur.commands.api.arguments.Arguments;
+import fr.traqueur.commands.api.arguments.CachingConverter;
+import fr.traqueur.commands.api.arguments.DoubleConverter;
+import fr.traqueur.commands.api.arguments.IntConverter;
+import fr.traqueur.commands.api.arguments.LongConverter;
 import fr.traqueur.commands.api.arguments.TabCompleter;
 import fr.traqueur.commands.api.exceptions.ArgumentIncorrectException;
 import fr.traqueur.commands.api.exceptions.TypeArgumentNotExistException;
 import fr.traqueur.commands.api.logging.Logger;
 import fr.traqueur.commands.api.logging.MessageHandler;
+import fr.traqueur.commands.api.metrics.CommandMetrics;
+import fr.traqueur.commands.api.metrics.LatencySnapshot;
+import fr.traqueur.commands.api.metrics.Stage;
 import fr.traqueur.commands.api.models.Command;
 import fr.traqueur.commands.api.models.CommandBuilder;
 import fr.traqueur.commands.api.models.CommandInvoker;
 import fr.traqueur.commands.api.models.CommandPlatform;
+import fr.traqueur.commands.api.models.CommandWatchdog;
+import fr.traqueur.commands.api.models.ExecutionMode;
 import fr.traqueur.commands.api.models.collections.CommandTree;
-import fr.traqueur.commands.api.parsing.ArgumentParser;
+import fr.traqueur.commands.api.parsing.CommandLine;
 import fr.traqueur.commands.api.parsing.ParseError;
+import fr.traqueur.commands.api.parsing.ParsePlan;
 import fr.traqueur.commands.api.parsing.ParseResult;
+import fr.traqueur.commands.api.permissions.PermissionCache;
+import fr.traqueur.commands.api.ratelimit.RateLimit;
+import fr.traqueur.commands.api.ratelimit.RateLimiter;
+import fr.traqueur.commands.api.requirements.CachedRequirement;
+import fr.traqueur.commands.api.requirements.Requirement;
 import fr.traqueur.commands.api.updater.Updater;
+import fr.traqueur.commands.api.utils.Numbers;
 import fr.traqueur.commands.api.utils.Patterns;
 import fr.traqueur.commands.impl.arguments.BooleanArgument;
+import fr.traqueur.commands.impl.arguments.DoubleArgument;
+import fr.traqueur.commands.impl.arguments.IntArgument;
+import fr.traqueur.commands.impl.arguments.LongArgument;
 import fr.traqueur.commands.impl.arguments.NumberArgument;
 import fr.traqueur.commands.impl.logging.InternalLogger;
 import fr.traqueur.commands.impl.logging.InternalMessageHandler;
+import fr.traqueur.commands.impl.parsing.ArgumentsPool;
 import fr.traqueur.commands.impl.parsing.DefaultArgumentParser;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * This class is the command manager.
@@ -37,7 +62,8 @@ import java.util.*;
 public abstract class CommandManager<T, S> {
 
 
-    private final ArgumentParser<T, S, String[]> parser;
+    private final DefaultArgumentParser<T, S> parser;
+    private final ArgumentsPool argumentsPool;
     private final CommandPlatform<T, S> platform;
 
     /**
@@ -73,6 +99,35 @@ public abstract class CommandManager<T, S> {
      */
     private boolean debug;
 
+    /**
+     * The rate limiter shared by every command, null if commands are not rate limited.
+     */
+    private volatile RateLimiter rateLimiter;
+
+    /**
+     * The executor of asynchronous commands.
+     */
+    private volatile Executor asyncExecutor;
+
+    /**
+     * The cached requirements of the registered commands, for invalidation.
+     */
+    private final Set<CachedRequirement<S>> cachedRequirements;
+
+    /**
+     * The cache of permission decisions, null (the default) if permissions are always asked to the platform.
+     */
+    private volatile PermissionCache permissionCache;
+
+    /**
+     * The watchdog reporting slow invocations, null if it is disabled.
+     */
+    private volatile CommandWatchdog watchdog;
+
+    /**
+     * The latency histograms of the invocations, null if metrics are disabled.
+     */
+    private volatile CommandMetrics metrics;
 
     /**
      * Create a new command manager.
@@ -91,6 +146,9 @@ public abstract class CommandManager<T, S> {
         this.completers = new HashMap<>();
         this.invoker = new CommandInvoker<>(this);
         this.parser = new DefaultArgumentParser<>(this.typeConverters, this.logger);
+        this.argumentsPool = new ArgumentsPool(this.logger);
+        this.asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.cachedRequirements = ConcurrentHashMap.newKeySet();
         this.registerInternalConverters();
     }
 
@@ -136,9 +194,59 @@ public abstract class CommandManager<T, S> {
      * @param command The command to register.
      */
     public void registerCommand(Command<T, S> command) {
-        for (String label : command.getAllLabels()) {
-            this.addCommand(command, label);
-            this.registerSubCommands(label, command.getSubcommands());
+        this.registerAll(List.of(command));
+    }
+
+    /**
+     * Register several commands at once.
+     * <p>The labels of every command and subcommand are collected first, committed to the
+     * platform with their aliases in a single {@link CommandPlatform#addCommands(Map, List)}
+     * call, then added to the command tree as one new version of it.</p>
+     *
+     * @param commands The commands to register.
+     */
+    public void registerAll(Collection<? extends Command<T, S>> commands) {
+        Map<String, Command<T, S>> labels = new LinkedHashMap<>();
+        List<AliasRegistration<T, S>> aliases = new ArrayList<>();
+        for (Command<T, S> command : commands) {
+            this.collect(null, command, labels, aliases);
+        }
+
+        this.commands.batch(() -> this.commit(labels, aliases));
+    }
+
+    /**
+     * Commit collected labels and aliases to the platform in one call, then add them to the tree.
+     * Aliases that cannot be linked to their command are registered as copies of it, added to
+     * the same call.
+     *
+     * @param labels  The labels to register, in registration order.
+     * @param aliases The aliases to link once the labels are registered.
+     */
+    private void commit(Map<String, Command<T, S>> labels, List<AliasRegistration<T, S>> aliases) {
+        List<AliasRegistration<T, S>> links = new ArrayList<>();
+        List<CommandPlatform.Alias<T, S>> platformAliases = new ArrayList<>();
+        // copies append the aliases of their subcommands while the list is walked
+        for (int i = 0; i < aliases.size(); i++) {
+            AliasRegistration<T, S> alias = aliases.get(i);
+            String aliasLabel = this.childLabel(alias.parentLabel(), alias.alias());
+            if (alias.alias().indexOf('.') < 0 && !labels.containsKey(aliasLabel)
+                    && this.commands.canAlias(aliasLabel)) {
+                links.add(alias);
+                platformAliases.add(new CommandPlatform.Alias<>(alias.command(), aliasLabel, alias.target()));
+                continue;
+            }
+            // the alias is nested deeper than its command or its label is taken: register a copy
+            labels.put(aliasLabel, alias.command());
+            for (Command<T, S> subcommand : alias.command().getSubcommands()) {
+                this.collect(aliasLabel, subcommand, labels, aliases);
+            }
+        }
+        labels.values().forEach(command -> command.setManager(this));
+        this.platform.addCommands(labels, platformAliases);
+        labels.forEach((label, command) -> this.addToTree(command, label));
+        for (AliasRegistration<T, S> alias : links) {
+            this.addAlias(alias);
         }
     }
 
@@ -191,6 +299,34 @@ public abstract class CommandManager<T, S> {
                 this.unregisterSubCommands(label, command.getSubcommands());
             }
         }
+        this.releaseCachedRequirements();
+    }
+
+    /**
+     * Forget the cached requirements no registered command uses anymore.
+     */
+    private void releaseCachedRequirements() {
+        Set<CachedRequirement<S>> used = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<CommandTree.CommandNode<T, S>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<CommandTree.CommandNode<T, S>> pending = new ArrayDeque<>();
+        pending.push(this.commands.getRoot());
+        while (!pending.isEmpty()) {
+            CommandTree.CommandNode<T, S> node = pending.pop();
+            // aliases share nodes
+            if (!visited.add(node)) {
+                continue;
+            }
+            Command<T, S> command = node.command();
+            if (command != null) {
+                for (Requirement<S> requirement : command.getRequirements()) {
+                    if (requirement instanceof CachedRequirement<S> cached) {
+                        used.add(cached);
+                    }
+                }
+            }
+            pending.addAll(node.getChildren().values());
+        }
+        this.cachedRequirements.retainAll(used);
     }
 
     /**
@@ -202,6 +338,17 @@ public abstract class CommandManager<T, S> {
      */
     public <C> void registerConverter(Class<C> typeClass, ArgumentConverter<C> converter) {
         this.typeConverters.put(typeClass, new ArgumentConverter.Wrapper<>(typeClass, converter));
+        this.parser.invalidatePlans();
+    }
+
+    /**
+     * Get the parse plan of a command, compiled against the converters registered so far.
+     *
+     * @param command The command.
+     * @return The parse plan of the command.
+     */
+    public ParsePlan<S> getParsePlan(Command<T, S> command) {
+        return this.parser.plan(command);
     }
 
     /**
@@ -214,7 +361,319 @@ public abstract class CommandManager<T, S> {
      * @throws ArgumentIncorrectException    If the argument is incorrect.
      */
     public Arguments parse(Command<T, S> command, String[] args) throws TypeArgumentNotExistException, ArgumentIncorrectException {
-        ParseResult result = parser.parse(command, args);
+        return this.parse(command, args, 0);
+    }
+
+    /**
+     * Parse the arguments of the command, starting at the given offset of the array.
+     *
+     * @param command The command to parse.
+     * @param args    The raw arguments.
+     * @param offset  The index of the first argument belonging to the command.
+     * @return The arguments parsed.
+     * @throws TypeArgumentNotExistException If the type of the argument does not exist.
+     * @throws ArgumentIncorrectException    If the argument is incorrect.
+     */
+    public Arguments parse(Command<T, S> command, String[] args, int offset) throws TypeArgumentNotExistException, ArgumentIncorrectException {
+        return unwrap(parser.parse(command, args, offset));
+    }
+
+    /**
+     * Parse the arguments of the command from a tokenized command line, starting at the given token.
+     *
+     * @param command The command to parse.
+     * @param line    The tokenized command line.
+     * @param offset  The index of the first token belonging to the command.
+     * @return The arguments parsed.
+     * @throws TypeArgumentNotExistException If the type of the argument does not exist.
+     * @throws ArgumentIncorrectException    If the argument is incorrect.
+     */
+    public Arguments parse(Command<T, S> command, CommandLine line, int offset) throws TypeArgumentNotExistException, ArgumentIncorrectException {
+        return unwrap(parser.parse(command, line, offset));
+    }
+
+    /**
+     * Parse the arguments of the command, starting at the given offset of the array,
+     * reporting a failure in the result instead of throwing.
+     *
+     * @param command The command to parse.
+     * @param args    The raw arguments.
+     * @param offset  The index of the first argument belonging to the command.
+     * @return The parse result, holding either the arguments or the error.
+     */
+    public ParseResult tryParse(Command<T, S> command, String[] args, int offset) {
+        return parser.parse(command, args, offset);
+    }
+
+    /**
+     * Parse the arguments of the command from a tokenized command line, starting at the given token,
+     * reporting a failure in the result instead of throwing.
+     *
+     * @param command The command to parse.
+     * @param line    The tokenized command line.
+     * @param offset  The index of the first token belonging to the command.
+     * @return The parse result, holding either the arguments or the error.
+     */
+    public ParseResult tryParse(Command<T, S> command, CommandLine line, int offset) {
+        return parser.parse(command, line, offset);
+    }
+
+    /**
+     * Parse the arguments of the command, starting at the given offset of the array, converting
+     * the arguments of {@link fr.traqueur.commands.api.arguments.AsyncArgumentConverter}s concurrently.
+     *
+     * @param command The command to parse.
+     * @param args    The raw arguments.
+     * @param offset  The index of the first argument belonging to the command.
+     * @return The future parse result; conversions running past the timeout fail it with a
+     * {@link ParseError.Type#TIMEOUT} error.
+     */
+    public CompletableFuture<ParseResult> tryParseAsync(Command<T, S> command, String[] args, int offset) {
+        return parser.parseAsync(command, args, offset);
+    }
+
+    /**
+     * Parse the arguments of the command from a tokenized command line, starting at the given token,
+     * converting the arguments of {@link fr.traqueur.commands.api.arguments.AsyncArgumentConverter}s concurrently.
+     *
+     * @param command The command to parse.
+     * @param line    The tokenized command line.
+     * @param offset  The index of the first token belonging to the command.
+     * @return The future parse result; conversions running past the timeout fail it with a
+     * {@link ParseError.Type#TIMEOUT} error.
+     */
+    public CompletableFuture<ParseResult> tryParseAsync(Command<T, S> command, CommandLine line, int offset) {
+        return parser.parseAsync(command, line, offset);
+    }
+
+    /**
+     * Parse the arguments of the command, starting at the given offset of the array, into existing arguments.
+     *
+     * @param command The command to parse.
+     * @param args    The raw arguments.
+     * @param offset  The index of the first argument belonging to the command.
+     * @param target  The arguments to fill.
+     * @return The parse error, or null if the arguments were parsed.
+     */
+    public ParseError parseInto(Command<T, S> command, String[] args, int offset, Arguments target) {
+        return parser.parseInto(command, args, offset, target);
+    }
+
+    /**
+     * Parse the arguments of the command from a tokenized command line, starting at the given token,
+     * into existing arguments.
+     *
+     * @param command The command to parse.
+     * @param line    The tokenized command line.
+     * @param offset  The index of the first token belonging to the command.
+     * @param target  The arguments to fill.
+     * @return The parse error, or null if the arguments were parsed.
+     */
+    public ParseError parseInto(Command<T, S> command, CommandLine line, int offset, Arguments target) {
+        return parser.parseInto(command, line, offset, target);
+    }
+
+    /**
+     * Get the per-thread arguments reused by commands with pooled arguments.
+     *
+     * @return The arguments pool.
+     */
+    public ArgumentsPool getArgumentsPool() {
+        return this.argumentsPool;
+    }
+
+    /**
+     * Check a permission of a sender, through the permission cache if there is one.
+     *
+     * @param sender     The sender.
+     * @param permission The permission.
+     * @return true if the sender has the permission.
+     */
+    public boolean hasPermission(S sender, String permission) {
+        PermissionCache cache = this.permissionCache;
+        return cache == null
+                ? this.platform.hasPermission(sender, permission)
+                : cache.hasPermission(this.platform, sender, permission);
+    }
+
+    /**
+     * Get the cache of permission decisions.
+     *
+     * @return The permission cache, or null if it is disabled.
+     */
+    public PermissionCache getPermissionCache() {
+        return this.permissionCache;
+    }
+
+    /**
+     * Set the cache of permission decisions. Disabled by default: a permission granted or
+     * revoked by a permission plugin is only seen once the platform invalidates the sender or
+     * its decisions expire, so only enable it if that delay is acceptable.
+     *
+     * @param permissionCache The permission cache, or null to always ask the platform.
+     */
+    public void setPermissionCache(PermissionCache permissionCache) {
+        this.permissionCache = permissionCache;
+    }
+
+    /**
+     * Forget the cached permission decisions of a sender, for platforms to call when its permissions change.
+     *
+     * @param sender The sender.
+     */
+    public void invalidatePermissions(S sender) {
+        PermissionCache cache = this.permissionCache;
+        Object key = this.platform.getPermissionKey(sender);
+        if (cache != null && key != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Forget the cached requirement results of a sender, in every {@link CachedRequirement}
+     * of the registered commands, e.g. once the sender changed region or rank.
+     *
+     * @param sender The sender.
+     */
+    public void invalidateRequirements(S sender) {
+        for (CachedRequirement<S> requirement : this.cachedRequirements) {
+            requirement.invalidate(sender);
+        }
+    }
+
+    /**
+     * Forget every cached requirement result of the registered commands.
+     */
+    public void invalidateRequirements() {
+        for (CachedRequirement<S> requirement : this.cachedRequirements) {
+            requirement.invalidateAll();
+        }
+    }
+
+    /**
+     * Get the executor of the commands with {@link ExecutionMode#ASYNC}.
+     *
+     * @return The asynchronous executor.
+     */
+    public Executor getAsyncExecutor() {
+        return this.asyncExecutor;
+    }
+
+    /**
+     * Set the executor of the commands with {@link ExecutionMode#ASYNC} (one virtual thread per command by default).
+     *
+     * @param executor The asynchronous executor.
+     */
+    public void setAsyncExecutor(Executor executor) {
+        this.asyncExecutor = Objects.requireNonNull(executor, "Executor cannot be null");
+    }
+
+    /**
+     * Get the watchdog reporting slow invocations.
+     *
+     * @return The watchdog, or null if it is disabled.
+     */
+    public CommandWatchdog getWatchdog() {
+        return this.watchdog;
+    }
+
+    /**
+     * Report every invocation running for longer than a threshold to the error log, with the
+     * stack of the thread running it, its label, sender and arguments. Disabled by default.
+     *
+     * @param threshold The duration over which an invocation is reported, or null to disable the watchdog.
+     */
+    public void setWatchdogThreshold(Duration threshold) {
+        CommandWatchdog previous = this.watchdog;
+        this.watchdog = threshold == null ? null : new CommandWatchdog(threshold, message -> this.logger.error(message));
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Get the latency histograms of the invocations.
+     *
+     * @return The metrics, or null if they are disabled.
+     */
+    public CommandMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Enable or disable the latency histograms of the invocations, per label and {@link Stage}.
+     * Disabled by default. Disabling them drops the recorded latencies.
+     *
+     * @param enabled Whether invocations are timed.
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (!enabled) {
+            this.metrics = null;
+        } else if (this.metrics == null) {
+            this.metrics = new CommandMetrics();
+        }
+    }
+
+    /**
+     * Get the latencies of a stage of the invocations of a label.
+     *
+     * @param label The full label of the command, with dots between the parts.
+     * @param stage The stage.
+     * @return The count, mean, p50, p99 and max in nanoseconds, empty if metrics are disabled or the label was not invoked.
+     */
+    public LatencySnapshot getLatency(String label, Stage stage) {
+        CommandMetrics current = this.metrics;
+        return current == null ? LatencySnapshot.EMPTY : current.snapshot(label, stage);
+    }
+
+    /**
+     * Forget the latencies recorded so far.
+     */
+    public void resetMetrics() {
+        CommandMetrics current = this.metrics;
+        if (current != null) {
+            current.reset();
+        }
+    }
+
+    /**
+     * Get the rate limiter shared by every command.
+     *
+     * @return The rate limiter, or null if commands are not rate limited.
+     */
+    public RateLimiter getRateLimiter() {
+        return this.rateLimiter;
+    }
+
+    /**
+     * Limit how often each sender may run any command, on top of the rate limit of each command.
+     * Rate limited invocations are rejected before the command is even looked up.
+     *
+     * @param rateLimit The rate limit, or null to remove it.
+     */
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimiter = rateLimit == null ? null : new RateLimiter(rateLimit);
+    }
+
+    /**
+     * Get how long the asynchronous arguments of a command are waited for.
+     *
+     * @return The timeout.
+     */
+    public Duration getAsyncTimeout() {
+        return this.parser.getAsyncTimeout();
+    }
+
+    /**
+     * Set how long the asynchronous arguments of a command are waited for (5 seconds by default).
+     *
+     * @param timeout The timeout.
+     */
+    public void setAsyncTimeout(Duration timeout) {
+        this.parser.setAsyncTimeout(timeout);
+    }
+
+    private Arguments unwrap(ParseResult result) throws TypeArgumentNotExistException, ArgumentIncorrectException {
         if (!result.isSuccess()) {
             ParseError error = result.error();
             switch (error.type()) {
@@ -251,8 +710,7 @@ public abstract class CommandManager<T, S> {
      * @return true if a TabCompleter is registered for this type.
      */
     public boolean hasTabCompleterForType(Class<?> type) {
-        ArgumentConverter.Wrapper<?> wrapper = this.typeConverters.get(type);
-        return wrapper != null && wrapper.converter() instanceof TabCompleter;
+        return completerOf(this.typeConverters.get(type)) != null;
     }
 
     /**
@@ -261,13 +719,26 @@ public abstract class CommandManager<T, S> {
      * @param type The type to get the TabCompleter for.
      * @return The TabCompleter for this type, or null if none exists.
      */
-    @SuppressWarnings("unchecked")
     public TabCompleter<S> getTabCompleterForType(Class<?> type) {
-        ArgumentConverter.Wrapper<?> wrapper = this.typeConverters.get(type);
-        if (wrapper != null && wrapper.converter() instanceof TabCompleter) {
-            return (TabCompleter<S>) wrapper.converter();
+        return completerOf(this.typeConverters.get(type));
+    }
+
+    /**
+     * Get the tab completer of a registered converter, looking through a {@link CachingConverter}.
+     *
+     * @param wrapper The registered converter, may be null.
+     * @return The converter as a TabCompleter, or null if it is not one.
+     */
+    @SuppressWarnings("unchecked")
+    private TabCompleter<S> completerOf(ArgumentConverter.Wrapper<?> wrapper) {
+        if (wrapper == null) {
+            return null;
+        }
+        ArgumentConverter<?> converter = wrapper.converter();
+        if (converter instanceof CachingConverter<?> caching) {
+            converter = caching.delegate();
         }
-        return null;
+        return converter instanceof TabCompleter ? (TabCompleter<S>) converter : null;
     }
 
     /**
@@ -298,24 +769,46 @@ public abstract class CommandManager<T, S> {
     }
 
     /**
-     * Register a list of subcommands in the command manager.
+     * Collect the labels of a command and its subcommands, and its aliases, under a parent label.
      *
-     * @param parentLabel The parent label of the commands.
-     * @param subcommands The list of subcommands to register.
+     * @param parentLabel The parent label, or null for a root command.
+     * @param command     The command to collect.
+     * @param labels      The labels to register, in registration order.
+     * @param aliases     The aliases to link once the labels are registered.
+     */
+    private void collect(String parentLabel, Command<T, S> command, Map<String, Command<T, S>> labels,
+                         List<AliasRegistration<T, S>> aliases) {
+        String label = this.childLabel(parentLabel, command.getName());
+        labels.put(label, command);
+        for (Command<T, S> subcommand : command.getSubcommands()) {
+            this.collect(label, subcommand, labels, aliases);
+        }
+        for (String alias : command.getAliases()) {
+            aliases.add(new AliasRegistration<>(command, parentLabel, alias, label));
+        }
+    }
+
+    /**
+     * Link an alias to its command in the tree, the platform having already been given it.
+     *
+     * @param registration The alias.
      */
-    private void registerSubCommands(String parentLabel, List<Command<T, S>> subcommands) {
-        if (subcommands == null || subcommands.isEmpty()) {
-            return;
+    private void addAlias(AliasRegistration<T, S> registration) {
+        String aliasLabel = this.childLabel(registration.parentLabel(), registration.alias());
+        if (this.isDebug()) {
+            this.logger.info("Register alias " + aliasLabel + " of " + registration.target());
         }
-        for (Command<T, S> subcommand : subcommands) {
-            List<String> aliasesSub = new ArrayList<>(subcommand.getAllLabels());
-            for (String aliasSub : aliasesSub) {
-                this.addCommand(subcommand, parentLabel + "." + aliasSub);
-                this.registerSubCommands(parentLabel + "." + aliasSub, subcommand.getSubcommands());
-            }
+        if (this.commands.addAlias(aliasLabel, registration.target())) {
+            this.addCompletionsForLabel(Patterns.DOT.split(aliasLabel));
+        } else {
+            this.logger.error("Unable to add alias " + aliasLabel + " of " + registration.target());
         }
     }
 
+    private String childLabel(String parentLabel, String name) {
+        return parentLabel == null ? name : parentLabel + "." + name;
+    }
+
     /**
      * Unregister the subcommands of a command.
      *
@@ -359,12 +852,12 @@ public abstract class CommandManager<T, S> {
     }
 
     /**
-     * Register a command in the command manager.
+     * Add a command, already known by the platform, to the command tree and register its completions.
      *
-     * @param command The command to register.
+     * @param command The command to add.
      * @param label   The label of the command.
      */
-    private void addCommand(Command<T, S> command, String label) {
+    private void addToTree(Command<T, S> command, String label) {
         if (this.isDebug()) {
             this.logger.info("Register command " + label);
         }
@@ -373,8 +866,13 @@ public abstract class CommandManager<T, S> {
         String[] labelParts = Patterns.DOT.split(label);
         int labelSize = labelParts.length;
 
-        command.setManager(this);
-        this.platform.addCommand(command, label);
+        this.parser.plan(command);
+        command.prepareUsage(label);
+        for (Requirement<S> requirement : command.getRequirements()) {
+            if (requirement instanceof CachedRequirement<S> cached && this.cachedRequirements.add(cached)) {
+                cached.bind(this.platform);
+            }
+        }
         commands.addCommand(label, command);
 
         this.addCompletionsForLabel(labelParts);
@@ -406,17 +904,16 @@ public abstract class CommandManager<T, S> {
      * @param commandSize The size of the command.
      * @param args        The arguments to register.
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
     private void addCompletionForArgs(String label, int commandSize, List<Argument<S>> args) {
         for (int i = 0; i < args.size(); i++) {
             Argument<S> arg = args.get(i);
             Class<?> type = arg.type().key();
-            ArgumentConverter.Wrapper<?> entry = this.typeConverters.get(type);
             TabCompleter<S> argConverter = arg.tabCompleter();
+            TabCompleter<S> completer = completerOf(this.typeConverters.get(type));
             if (argConverter != null) {
                 this.addCompletion(label, commandSize + i, argConverter);
-            } else if (entry != null && entry.converter() instanceof TabCompleter completer) {
-                this.addCompletion(label, commandSize + i, (TabCompleter<S>) completer);
+            } else if (completer != null) {
+                this.addCompletion(label, commandSize + i, completer);
             } else {
                 this.addCompletion(label, commandSize + i, (s, argsInner) -> new ArrayList<>());
             }
@@ -459,6 +956,17 @@ public abstract class CommandManager<T, S> {
         return invoker;
     }
 
+    /**
+     * An alias waiting to be linked to its command.
+     *
+     * @param command     The aliased command.
+     * @param parentLabel The parent label, or null for a root command.
+     * @param alias       The alias, relative to the parent label.
+     * @param target      The full label of the command.
+     */
+    private record AliasRegistration<T, S>(Command<T, S> command, String parentLabel, String alias, String target) {
+    }
+
     /**
      * Register the internal converters of the command manager.
      */
@@ -471,15 +979,20 @@ public abstract class CommandManager<T, S> {
         // Primitive types (int.class, long.class, etc.) are registered to support primitive method parameters.
         this.registerConverter(Boolean.class, new BooleanArgument<>());
         this.registerConverter(boolean.class, new BooleanArgument<>());
-        this.registerConverter(Integer.class, new NumberArgument<>(Integer::valueOf));
-        this.registerConverter(int.class, new NumberArgument<>(Integer::valueOf));
-        this.registerConverter(Double.class, new NumberArgument<>(Double::valueOf));
-        this.registerConverter(double.class, new NumberArgument<>(Double::valueOf));
-        this.registerConverter(Long.class, new NumberArgument<>(Long::valueOf));
-        this.registerConverter(long.class, new NumberArgument<>(Long::valueOf));
-        this.registerConverter(Float.class, new NumberArgument<>(Float::valueOf));
-        this.registerConverter(float.class, new NumberArgument<>(Float::valueOf));
-        this.registerConverter(Byte.class, new NumberArgument<>(Byte::valueOf));
-        this.registerConverter(byte.class, new NumberArgument<>(Byte::valueOf));
+        // int, long and double are parsed and stored unboxed (see Arguments#getInt and friends).
+        // Numeric converters validate their input first, so invalid input never throws.
+        IntConverter ints = new IntArgument();
+        LongConverter longs = new LongArgument();
+        DoubleConverter doubles = new DoubleArgument();
+        this.registerConverter(Integer.class, ints);
+        this.registerConverter(int.class, ints);
+        this.registerConverter(Double.class, doubles);
+        this.registerConverter(double.class, doubles);
+        this.registerConverter(Long.class, longs);
+        this.registerConverter(long.class, longs);
+        this.registerConverter(Float.class, new NumberArgument<>(Numbers::isDecimal, Float::valueOf));
+        this.registerConverter(float.class, new NumberArgument<>(Numbers::isDecimal, Float::valueOf));
+        this.registerConverter(Byte.class, new NumberArgument<>(Numbers::isByte, Byte::valueOf));
+        this.registerConverter(byte.class, new NumberArgument<>(Numbers::isByte, Byte::valueOf));
     }
 }
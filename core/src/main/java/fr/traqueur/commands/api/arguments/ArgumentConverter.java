@@ -31,7 +31,7 @@ public interface ArgumentConverter<T> extends Function<String, T> {
          * @return the wrapper type if input was primitive, otherwise the input type unchanged
          */
         @SuppressWarnings("unchecked")
-        private static <T> Class<T> toWrapperType(Class<T> type) {
+        static <T> Class<T> toWrapperType(Class<T> type) {
             if (!type.isPrimitive()) {
                 return type;
             }
@@ -50,7 +50,18 @@ public interface ArgumentConverter<T> extends Function<String, T> {
         }
 
         public boolean convertAndApply(String input, String name, Arguments arguments) {
-            T result = converter.apply(input);
+            return store(converter.apply(input), name, arguments);
+        }
+
+        /**
+         * Store an already converted value, e.g. the result of an {@link AsyncArgumentConverter}.
+         *
+         * @param result    the converted value, null if the conversion failed
+         * @param name      the argument name
+         * @param arguments the arguments to fill
+         * @return true if the value was stored
+         */
+        public boolean store(T result, String name, Arguments arguments) {
             if (result == null) {
                 return false;
             }
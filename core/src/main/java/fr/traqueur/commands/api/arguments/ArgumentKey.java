@@ -0,0 +1,56 @@
+package fr.traqueur.commands.api.arguments;
+
+import java.util.Objects;
+
+/**
+ * The record ArgumentKey.
+ * <p> A typed handle on an argument of a command, read with {@link Arguments#get(ArgumentKey)}.
+ * Parsed arguments are stored in declaration order (required arguments first), so the key
+ * remembers the slot of its argument and a read is an array access instead of a lookup
+ * by name. If the slot does not hold the argument (e.g. a required argument was declared
+ * after the key was taken), reads fall back to the name. </p>
+ * <p> Keys taken from a command with {@link #of(Argument, Class, int)} are checked against the
+ * declared type of their argument, so a wrong type fails when the key is created rather than
+ * when a value is read. </p>
+ *
+ * @param name  The argument name.
+ * @param type  The type of the parsed value.
+ * @param index The slot of the argument in the parsed {@link Arguments}.
+ * @param <T>   The type of the parsed value.
+ */
+public record ArgumentKey<T>(String name, Class<T> type, int index) {
+
+    /**
+     * Constructor for ArgumentKey.
+     *
+     * @param name  The argument name.
+     * @param type  The type of the parsed value.
+     * @param index The slot of the argument in the parsed {@link Arguments}.
+     */
+    public ArgumentKey {
+        Objects.requireNonNull(name, "Argument name cannot be null");
+        Objects.requireNonNull(type, "Argument type cannot be null");
+    }
+
+    /**
+     * Create the key of a declared argument. Primitive and wrapper types are interchangeable,
+     * and an infinite argument is read as a String.
+     *
+     * @param argument The argument.
+     * @param type     The type of the parsed value, the declared type or one of its supertypes.
+     * @param index    The slot of the argument in the parsed {@link Arguments}.
+     * @param <T>      The type of the parsed value.
+     * @return The key of the argument.
+     * @throws IllegalArgumentException If the values of the argument are not of this type.
+     */
+    public static <T> ArgumentKey<T> of(Argument<?> argument, Class<T> type, int index) {
+        Objects.requireNonNull(type, "Argument type cannot be null");
+        Class<?> declared = argument.type().isInfinite() ? String.class : argument.type().key();
+        Class<?> wrapped = ArgumentConverter.Wrapper.toWrapperType(declared);
+        if (!ArgumentConverter.Wrapper.toWrapperType(type).isAssignableFrom(wrapped)) {
+            throw new IllegalArgumentException("Argument " + argument.name() + " is a "
+                    + wrapped.getSimpleName() + ", not a " + type.getSimpleName());
+        }
+        return new ArgumentKey<>(argument.name(), type, index);
+    }
+}
@@ -9,26 +9,68 @@ import java.util.function.BiConsumer;
 
 /**
  * This class is used to store arguments.
+ * <p>
+ * Arguments are kept in flat arrays, in insertion order: a command rarely has more than a
+ * handful of them, so a linear scan over the names beats hashing and no entry object is
+ * created per argument. Values produced by an {@link IntConverter}, {@link LongConverter}
+ * or {@link DoubleConverter} are stored unboxed and can be read back without boxing with
+ * {@link #getInt(String)}, {@link #getLong(String)} and {@link #getDouble(String)}.
+ * </p>
+ * <p>
+ * Parsed arguments sit at the slot of their declaration (required arguments first), so an
+ * {@link ArgumentKey} reads its value with an array access; the name based methods are
+ * the same reads behind a scan over the names.
+ * </p>
+ * <p>
+ * Greedy arguments may be stored as a {@link CharSequence} view of the raw command line
+ * (see {@link #addText(String, CharSequence)}): {@link #getText(String)} hands the view out
+ * as is, and the String is only built the first time the argument is read as one.
+ * </p>
  */
 public class Arguments {
 
+    private static final int DEFAULT_CAPACITY = 4;
+
     /**
-     * The map of the arguments.
+     * Marks a slot whose value lives in {@link #primitives}.
      */
-    protected final Map<String, ArgumentValue> arguments;
+    private static final Object PRIMITIVE = new Object();
 
     /**
      * The logger of the class.
      */
     protected final Logger logger;
 
+    /**
+     * {@code (name, type, value)} of each argument, flattened.
+     */
+    private Object[] slots;
+
+    /**
+     * Unboxed values, indexed like the arguments; doubles are stored as their raw bits.
+     * Allocated on the first primitive value.
+     */
+    private long[] primitives;
+
+    private int size;
+
     /**
      * Constructor of the class.
      *
      * @param logger The logger of the class.
      */
     public Arguments(Logger logger) {
-        this.arguments = new HashMap<>();
+        this(logger, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor of the class, sized for the expected number of arguments.
+     *
+     * @param logger   The logger of the class.
+     * @param capacity The expected number of arguments.
+     */
+    public Arguments(Logger logger, int capacity) {
+        this.slots = new Object[Math.max(capacity, 1) * 3];
         this.logger = logger;
     }
 
@@ -39,17 +81,33 @@ public class Arguments {
      */
     public Map<String, Object> toMap() {
         Map<String, Object> result = new HashMap<>();
-        arguments.forEach((k, v) -> result.put(k, v.value()));
+        this.forEach(result::put);
         return result;
     }
 
+    /**
+     * Get a snapshot of the names and values of the arguments, in order, that is equal to the
+     * snapshot of any other arguments holding equal values under the same names. Unlike the
+     * arguments themselves, which are mutable (and may be pooled), it can be used as a map key.
+     *
+     * @return an unmodifiable list alternating argument names and values
+     */
+    public List<Object> contentKey() {
+        Object[] content = new Object[size * 2];
+        for (int i = 0; i < size; i++) {
+            content[i * 2] = name(i);
+            content[i * 2 + 1] = value(i);
+        }
+        return Collections.unmodifiableList(Arrays.asList(content));
+    }
+
     /**
      * Get the number of arguments stored.
      *
      * @return the number of arguments
      */
     public int size() {
-        return arguments.size();
+        return size;
     }
 
     /**
@@ -58,7 +116,7 @@ public class Arguments {
      * @return true if there are no arguments, false otherwise
      */
     public boolean isEmpty() {
-        return arguments.isEmpty();
+        return size == 0;
     }
 
     /**
@@ -67,7 +125,11 @@ public class Arguments {
      * @return an unmodifiable set of argument names
      */
     public Set<String> getKeys() {
-        return Collections.unmodifiableSet(arguments.keySet());
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            keys.add(name(i));
+        }
+        return Collections.unmodifiableSet(keys);
     }
 
     /**
@@ -76,7 +138,9 @@ public class Arguments {
      * @param action the action to apply to each argument (key, value)
      */
     public void forEach(BiConsumer<String, Object> action) {
-        arguments.forEach((k, v) -> action.accept(k, v.value()));
+        for (int i = 0; i < size; i++) {
+            action.accept(name(i), value(i));
+        }
     }
 
     /**
@@ -98,21 +162,15 @@ public class Arguments {
      * @param <T>      The type of the argument.
      * @return The argument.
      */
-     @SuppressWarnings("unchecked")
+    @SuppressWarnings("unchecked")
     public <T> Optional<T> getOptional(String argument) {
-        if (this.isEmpty()) {
-            return Optional.empty();
-        }
-
-        ArgumentValue argumentValue = this.arguments.getOrDefault(argument, null);
-
-        if (argumentValue == null) {
+        int index = this.indexOf(argument);
+        if (index < 0) {
             return Optional.empty();
         }
 
-        Class<?> type = argumentValue.type();
-        Object value = argumentValue.value();
-        Class<T> goodType = (Class<T>) type;
+        Class<T> goodType = (Class<T>) type(index);
+        Object value = value(index);
 
         try {
             if (!goodType.isInstance(value)) {
@@ -126,6 +184,179 @@ public class Arguments {
         return Optional.ofNullable(goodType.cast(value));
     }
 
+    /**
+     * Get an argument by its typed key. When the key's slot holds the argument,
+     * this is a plain array read.
+     *
+     * @param key The key of the argument.
+     * @param <T> The type of the argument.
+     * @return The argument.
+     * @throws ArgumentNotExistException If the argument does not exist.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ArgumentKey<T> key) {
+        return (T) this.value(this.require(key));
+    }
+
+    /**
+     * Get an argument by its typed key as optional.
+     *
+     * @param key The key of the argument.
+     * @param <T> The type of the argument.
+     * @return The argument, or empty if it was not given.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> getOptional(ArgumentKey<T> key) {
+        int index = this.indexOf(key);
+        return index < 0 ? Optional.empty() : Optional.ofNullable((T) this.value(index));
+    }
+
+    /**
+     * Check if an argument exists.
+     *
+     * @param key The key of the argument.
+     * @return true if the argument exists, false otherwise.
+     */
+    public boolean has(ArgumentKey<?> key) {
+        return this.indexOf(key) >= 0;
+    }
+
+    /**
+     * Get an int argument without boxing.
+     *
+     * @param argument The key of the argument.
+     * @return The argument.
+     * @throws ArgumentNotExistException If the argument does not exist.
+     * @throws ClassCastException        If the argument is not an int.
+     */
+    public int getInt(String argument) {
+        return this.intAt(this.require(argument), argument);
+    }
+
+    /**
+     * Get an int argument without boxing.
+     *
+     * @param key The key of the argument.
+     * @return The argument.
+     * @throws ArgumentNotExistException If the argument does not exist.
+     * @throws ClassCastException        If the argument is not an int.
+     */
+    public int getInt(ArgumentKey<Integer> key) {
+        return this.intAt(this.require(key), key.name());
+    }
+
+    private int intAt(int index, String argument) {
+        if (slots[index * 3 + 2] == PRIMITIVE && type(index) == Integer.class) {
+            return (int) primitives[index];
+        }
+        return this.boxed(argument, index, Integer.class);
+    }
+
+    /**
+     * Get a long argument without boxing.
+     *
+     * @param argument The key of the argument.
+     * @return The argument.
+     * @throws ArgumentNotExistException If the argument does not exist.
+     * @throws ClassCastException        If the argument is not a long.
+     */
+    public long getLong(String argument) {
+        return this.longAt(this.require(argument), argument);
+    }
+
+    /**
+     * Get a long argument without boxing.
+     *
+     * @param key The key of the argument.
+     * @return The argument.
+     * @throws ArgumentNotExistException If the argument does not exist.
+     * @throws ClassCastException        If the argument is not a long.
+     */
+    public long getLong(ArgumentKey<Long> key) {
+        return this.longAt(this.require(key), key.name());
+    }
+
+    private long longAt(int index, String argument) {
+        if (slots[index * 3 + 2] == PRIMITIVE && type(index) == Long.class) {
+            return primitives[index];
+        }
+        return this.boxed(argument, index, Long.class);
+    }
+
+    /**
+     * Get a double argument without boxing.
+     *
+     * @param argument The key of the argument.
+     * @return The argument.
+     * @throws ArgumentNotExistException If the argument does not exist.
+     * @throws ClassCastException        If the argument is not a double.
+     */
+    public double getDouble(String argument) {
+        return this.doubleAt(this.require(argument), argument);
+    }
+
+    /**
+     * Get a double argument without boxing.
+     *
+     * @param key The key of the argument.
+     * @return The argument.
+     * @throws ArgumentNotExistException If the argument does not exist.
+     * @throws ClassCastException        If the argument is not a double.
+     */
+    public double getDouble(ArgumentKey<Double> key) {
+        return this.doubleAt(this.require(key), key.name());
+    }
+
+    private double doubleAt(int index, String argument) {
+        if (slots[index * 3 + 2] == PRIMITIVE && type(index) == Double.class) {
+            return Double.longBitsToDouble(primitives[index]);
+        }
+        return this.boxed(argument, index, Double.class);
+    }
+
+    /**
+     * Get a text argument as a {@link CharSequence}, without copying it if it is still a view
+     * of the raw command line. Meant for commands that only forward the text.
+     *
+     * @param argument The key of the argument.
+     * @return The argument.
+     * @throws ArgumentNotExistException If the argument does not exist.
+     * @throws ClassCastException        If the argument is not a text.
+     */
+    public CharSequence getText(String argument) {
+        return this.textAt(this.require(argument), argument);
+    }
+
+    /**
+     * Get a text argument as a {@link CharSequence}, without copying it if it is still a view
+     * of the raw command line. Meant for commands that only forward the text.
+     *
+     * @param key The key of the argument.
+     * @return The argument.
+     * @throws ArgumentNotExistException If the argument does not exist.
+     * @throws ClassCastException        If the argument is not a text.
+     */
+    public CharSequence getText(ArgumentKey<String> key) {
+        return this.textAt(this.require(key), key.name());
+    }
+
+    private CharSequence textAt(int index, String argument) {
+        return this.boxed(argument, index, CharSequence.class);
+    }
+
+    /**
+     * Add a text argument, read as a {@link String}. The text is kept as given and only
+     * converted to a String when it is first read as one.
+     *
+     * @param key  The key of the argument.
+     * @param text The text of the argument.
+     */
+    public void addText(String key, CharSequence text) {
+        int index = this.slotFor(key);
+        slots[index * 3 + 1] = String.class;
+        slots[index * 3 + 2] = text;
+    }
+
     /**
      * Add an argument to the map.
      *
@@ -134,8 +365,47 @@ public class Arguments {
      * @param object The object of the argument.
      */
     public <T> void add(String key, Class<T> type, T object) {
-        ArgumentValue argumentValue = new ArgumentValue(type, object);
-        this.arguments.put(key, argumentValue);
+        int index = this.slotFor(key);
+        slots[index * 3 + 1] = type;
+        slots[index * 3 + 2] = object;
+    }
+
+    /**
+     * Add an int argument without boxing it.
+     *
+     * @param key   The key of the argument.
+     * @param value The value of the argument.
+     */
+    public void addInt(String key, int value) {
+        this.addPrimitive(key, Integer.class, value);
+    }
+
+    /**
+     * Add a long argument without boxing it.
+     *
+     * @param key   The key of the argument.
+     * @param value The value of the argument.
+     */
+    public void addLong(String key, long value) {
+        this.addPrimitive(key, Long.class, value);
+    }
+
+    /**
+     * Add a double argument without boxing it.
+     *
+     * @param key   The key of the argument.
+     * @param value The value of the argument.
+     */
+    public void addDouble(String key, double value) {
+        this.addPrimitive(key, Double.class, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Remove every argument, keeping the storage for reuse.
+     */
+    public void clear() {
+        Arrays.fill(slots, 0, size * 3, null);
+        size = 0;
     }
 
     /**
@@ -145,7 +415,111 @@ public class Arguments {
      * @return true if the argument exists, false otherwise.
      */
     public boolean has(String key) {
-        return this.arguments.containsKey(key);
+        return this.indexOf(key) >= 0;
+    }
+
+    private void addPrimitive(String key, Class<?> type, long bits) {
+        int index = this.slotFor(key);
+        if (primitives == null) {
+            primitives = new long[slots.length / 3];
+        }
+        primitives[index] = bits;
+        slots[index * 3 + 1] = type;
+        slots[index * 3 + 2] = PRIMITIVE;
+    }
+
+    private int indexOf(String key) {
+        for (int i = 0; i < size; i++) {
+            Object name = slots[i * 3];
+            if (name == key || name.equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOf(ArgumentKey<?> key) {
+        int index = key.index();
+        // names of parsed arguments and keys both come from the command's Argument
+        if (index < size && slots[index * 3] == key.name()) {
+            return index;
+        }
+        return this.indexOf(key.name());
+    }
+
+    private int require(ArgumentKey<?> key) {
+        int index = this.indexOf(key);
+        if (index < 0) {
+            throw new ArgumentNotExistException();
+        }
+        return index;
+    }
+
+    private int require(String key) {
+        int index = this.indexOf(key);
+        if (index < 0) {
+            throw new ArgumentNotExistException();
+        }
+        return index;
+    }
+
+    /**
+     * Get the index of an argument, appending a new slot if it is absent.
+     */
+    private int slotFor(String key) {
+        int index = this.indexOf(key);
+        if (index >= 0) {
+            return index;
+        }
+        if (size * 3 == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+            if (primitives != null) {
+                primitives = Arrays.copyOf(primitives, primitives.length * 2);
+            }
+        }
+        slots[size * 3] = key;
+        return size++;
+    }
+
+    private String name(int index) {
+        return (String) slots[index * 3];
+    }
+
+    private Class<?> type(int index) {
+        return (Class<?>) slots[index * 3 + 1];
+    }
+
+    /**
+     * Get the value of an argument, boxing it if it is stored unboxed and building
+     * the String of a text.
+     */
+    private Object value(int index) {
+        Object value = slots[index * 3 + 2];
+        if (value != PRIMITIVE) {
+            if (type(index) == String.class && value != null && !(value instanceof String)) {
+                // a text added through addText, built once and kept
+                value = value.toString();
+                slots[index * 3 + 2] = value;
+            }
+            return value;
+        }
+        long bits = primitives[index];
+        Class<?> type = type(index);
+        if (type == Integer.class) return (int) bits;
+        if (type == Long.class) return bits;
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Read a primitive argument that was stored boxed, e.g. through {@link #add(String, Class, Object)}.
+     */
+    private <T> T boxed(String argument, int index, Class<T> type) {
+        Object value = slots[index * 3 + 2];
+        if (!type.isInstance(value)) {
+            logger.error("The argument " + argument + " is not the good type.");
+            throw new ClassCastException("Argument " + argument + " is not a " + type.getSimpleName());
+        }
+        return type.cast(value);
     }
 
     /**
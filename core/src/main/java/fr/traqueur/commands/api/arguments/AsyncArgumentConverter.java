@@ -0,0 +1,77 @@
+package fr.traqueur.commands.api.arguments;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The interface AsyncArgumentConverter.
+ * <p> An {@link ArgumentConverter} whose conversion completes later, for converters that need I/O
+ * (an economy account, a guild or a clan looked up by name...). When a command has such arguments,
+ * the invoker starts all their conversions at once, waits for them off the calling thread, and only
+ * then executes the command (see {@link fr.traqueur.commands.api.models.CommandPlatform#runSync(Runnable)}). </p>
+ *
+ * @param <T> The type of the object.
+ */
+@FunctionalInterface
+public interface AsyncArgumentConverter<T> extends ArgumentConverter<T> {
+
+    /**
+     * Wrap a blocking converter so that it runs on the given executor.
+     *
+     * @param converter The blocking converter.
+     * @param executor  The executor running the conversions.
+     * @param <T>       The type of the object.
+     * @return The asynchronous converter.
+     */
+    static <T> AsyncArgumentConverter<T> of(ArgumentConverter<T> converter, Executor executor) {
+        return s -> CompletableFuture.supplyAsync(() -> converter.apply(s), executor);
+    }
+
+    /**
+     * Start the conversion.
+     *
+     * @param s The string to convert.
+     * @return The future object, completed with null if the string cannot be converted.
+     */
+    CompletableFuture<T> applyAsync(String s);
+
+    /**
+     * How long {@link #apply(String)} waits for a conversion, the default async timeout of the parser.
+     */
+    Duration SYNC_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * Convert and wait for the result, at most {@link #SYNC_TIMEOUT}; the conversion is
+     * cancelled if it takes longer. The parser never calls it: it waits for asynchronous
+     * converters with its own timeout (see {@link fr.traqueur.commands.api.CommandManager#setAsyncTimeout(Duration)}).
+     * Only used by callers outside the parser that need the value synchronously, e.g. a
+     * {@link CachingConverter} wrapping this converter.
+     *
+     * @param s The string to convert.
+     * @return The object, or null if the conversion failed or timed out.
+     */
+    @Override
+    default T apply(String s) {
+        if (s == null) {
+            return null;
+        }
+        CompletableFuture<T> future = applyAsync(s);
+        try {
+            return future.get(SYNC_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return null;
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        }
+    }
+}
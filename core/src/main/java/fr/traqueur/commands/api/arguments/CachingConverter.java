@@ -0,0 +1,277 @@
+package fr.traqueur.commands.api.arguments;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * The class CachingConverter.
+ * <p> An {@link ArgumentConverter} remembering the results of another one, for converters that
+ * are expensive to call (a database query, a blocking profile lookup...). Tab completion and
+ * execution often convert the same input a few seconds apart; with this wrapper only the first
+ * conversion reaches the delegate. </p>
+ * <p> The cache holds at most {@code maximumSize} inputs and evicts the least recently used one
+ * beyond that. Entries expire {@code expireAfterWrite} after being stored, and inputs the
+ * delegate could not convert are only remembered if {@code cacheMisses} is set. The cache is
+ * safe to use from several threads; the delegate is never called while the cache is locked, so
+ * two threads converting the same new input at once may both call it. </p>
+ *
+ * <pre>{@code
+ * manager.registerConverter(OfflinePlayer.class, CachingConverter.of(new OfflinePlayerArgument())
+ *         .maximumSize(512)
+ *         .expireAfterWrite(Duration.ofSeconds(30))
+ *         .build());
+ * }</pre>
+ *
+ * @param <T> The type of the object.
+ */
+public final class CachingConverter<T> implements ArgumentConverter<T> {
+
+    /**
+     * Value stored for an input the delegate could not convert.
+     */
+    private static final Object MISSING = new Object();
+
+    private final ArgumentConverter<T> delegate;
+    private final long ttlNanos;
+    private final long missTtlNanos;
+    private final LongSupplier ticker;
+    private final Map<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private CachingConverter(Builder<T> builder) {
+        this.delegate = builder.delegate;
+        this.ttlNanos = builder.ttlNanos;
+        this.missTtlNanos = builder.missTtlNanos;
+        this.ticker = builder.ticker;
+        int maximumSize = builder.maximumSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Start building a cache in front of a converter.
+     *
+     * @param delegate The converter to cache.
+     * @param <T>      The type of the object.
+     * @return The builder.
+     */
+    public static <T> Builder<T> of(ArgumentConverter<T> delegate) {
+        return new Builder<>(delegate);
+    }
+
+    /**
+     * Convert the input, from the cache if it holds a live entry for it.
+     *
+     * @param s The string to convert.
+     * @return The object, or null if the delegate could not convert it.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T apply(String s) {
+        if (s == null) {
+            return null;
+        }
+        long now = ticker.getAsLong();
+        Object cached = lookup(s, now);
+        if (cached != null) {
+            hits.increment();
+            return cached == MISSING ? null : (T) cached;
+        }
+
+        misses.increment();
+        T value = delegate.apply(s);
+        if (value != null) {
+            store(s, value, now + ttlNanos);
+        } else if (missTtlNanos > 0) {
+            store(s, MISSING, now + missTtlNanos);
+        }
+        return value;
+    }
+
+    private Object lookup(String input, long now) {
+        synchronized (entries) {
+            Entry entry = entries.get(input);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.expiresAt >= 0) {
+                entries.remove(input);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    private void store(String input, Object value, long expiresAt) {
+        synchronized (entries) {
+            entries.put(input, new Entry(value, expiresAt));
+        }
+    }
+
+    /**
+     * Get the converter behind the cache.
+     *
+     * @return The delegate converter.
+     */
+    public ArgumentConverter<T> delegate() {
+        return delegate;
+    }
+
+    /**
+     * Forget the cached result of an input.
+     *
+     * @param input The input to forget.
+     */
+    public void invalidate(String input) {
+        synchronized (entries) {
+            entries.remove(input);
+        }
+    }
+
+    /**
+     * Forget every cached result.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Get the number of cached inputs, expired ones included until they are looked up again.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Get the number of conversions answered from the cache.
+     *
+     * @return The hit count.
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of conversions that had to call the delegate.
+     *
+     * @return The miss count.
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of entries evicted because the cache was full.
+     *
+     * @return The eviction count.
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+
+    /**
+     * Builder of a {@link CachingConverter}.
+     *
+     * @param <T> The type of the object.
+     */
+    public static final class Builder<T> {
+
+        private final ArgumentConverter<T> delegate;
+        private int maximumSize = 256;
+        private long ttlNanos = Duration.ofMinutes(1).toNanos();
+        private long missTtlNanos = 0;
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder(ArgumentConverter<T> delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "Converter cannot be null");
+        }
+
+        /**
+         * Set the maximum number of cached inputs (256 by default).
+         *
+         * @param maximumSize The maximum number of entries.
+         * @return The builder.
+         */
+        public Builder<T> maximumSize(int maximumSize) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("Maximum size must be positive");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Set how long a converted value is kept (one minute by default).
+         *
+         * @param ttl The time to live of an entry.
+         * @return The builder.
+         */
+        public Builder<T> expireAfterWrite(Duration ttl) {
+            this.ttlNanos = positive(ttl);
+            return this;
+        }
+
+        /**
+         * Remember inputs the delegate could not convert, so repeated bad input does not reach
+         * it either. Misses are not cached by default.
+         *
+         * @param ttl The time to live of a miss.
+         * @return The builder.
+         */
+        public Builder<T> cacheMisses(Duration ttl) {
+            this.missTtlNanos = positive(ttl);
+            return this;
+        }
+
+        /**
+         * Set the clock of the cache, in nanoseconds. Meant for tests.
+         *
+         * @param ticker The clock.
+         * @return The builder.
+         */
+        Builder<T> ticker(LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Build the caching converter.
+         *
+         * @return The caching converter.
+         */
+        public CachingConverter<T> build() {
+            return new CachingConverter<>(this);
+        }
+
+        private static long positive(Duration duration) {
+            if (duration == null || duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Duration must be positive");
+            }
+            return duration.toNanos();
+        }
+    }
+}
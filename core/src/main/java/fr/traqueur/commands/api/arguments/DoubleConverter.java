@@ -0,0 +1,49 @@
+package fr.traqueur.commands.api.arguments;
+
+/**
+ * The interface DoubleConverter.
+ * <p> An {@link ArgumentConverter} producing a primitive {@code double}. Arguments parsed with it
+ * are stored unboxed and can be read with {@link Arguments#getDouble(String)}. </p>
+ */
+@FunctionalInterface
+public interface DoubleConverter extends ArgumentConverter<Double> {
+
+    /**
+     * Convert the input to a {@code double}.
+     *
+     * @param s The string to convert.
+     * @return The converted value.
+     * @throws IllegalArgumentException If the string is not a valid value (e.g. {@link NumberFormatException}).
+     */
+    double applyAsDouble(String s);
+
+    /**
+     * Check whether the input can be converted, without converting it. Implementations
+     * that can validate the input cheaply should override this, so that invalid input is
+     * rejected before {@link #applyAsDouble(String)} has to throw.
+     *
+     * @param s The string to check.
+     * @return false if the conversion would fail, true if it may succeed.
+     */
+    default boolean accepts(String s) {
+        return true;
+    }
+
+    /**
+     * Apply the conversion, boxing the result.
+     *
+     * @param s The string to convert.
+     * @return The converted value, or null if the string is not a valid value.
+     */
+    @Override
+    default Double apply(String s) {
+        if (s == null || !accepts(s)) {
+            return null;
+        }
+        try {
+            return applyAsDouble(s);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package fr.traqueur.commands.api.arguments;
+
+/**
+ * The interface IntConverter.
+ * <p> An {@link ArgumentConverter} producing a primitive {@code int}. Arguments parsed with it
+ * are stored unboxed and can be read with {@link Arguments#getInt(String)}. </p>
+ */
+@FunctionalInterface
+public interface IntConverter extends ArgumentConverter<Integer> {
+
+    /**
+     * Convert the input to an {@code int}.
+     *
+     * @param s The string to convert.
+     * @return The converted value.
+     * @throws IllegalArgumentException If the string is not a valid value (e.g. {@link NumberFormatException}).
+     */
+    int applyAsInt(String s);
+
+    /**
+     * Check whether the input can be converted, without converting it. Implementations
+     * that can validate the input cheaply should override this, so that invalid input is
+     * rejected before {@link #applyAsInt(String)} has to throw.
+     *
+     * @param s The string to check.
+     * @return false if the conversion would fail, true if it may succeed.
+     */
+    default boolean accepts(String s) {
+        return true;
+    }
+
+    /**
+     * Apply the conversion, boxing the result.
+     *
+     * @param s The string to convert.
+     * @return The converted value, or null if the string is not a valid value.
+     */
+    @Override
+    default Integer apply(String s) {
+        if (s == null || !accepts(s)) {
+            return null;
+        }
+        try {
+            return applyAsInt(s);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
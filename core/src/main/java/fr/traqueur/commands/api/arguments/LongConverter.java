@@ -0,0 +1,49 @@
+package fr.traqueur.commands.api.arguments;
+
+/**
+ * The interface LongConverter.
+ * <p> An {@link ArgumentConverter} producing a primitive {@code long}. Arguments parsed with it
+ * are stored unboxed and can be read with {@link Arguments#getLong(String)}. </p>
+ */
+@FunctionalInterface
+public interface LongConverter extends ArgumentConverter<Long> {
+
+    /**
+     * Convert the input to a {@code long}.
+     *
+     * @param s The string to convert.
+     * @return The converted value.
+     * @throws IllegalArgumentException If the string is not a valid value (e.g. {@link NumberFormatException}).
+     */
+    long applyAsLong(String s);
+
+    /**
+     * Check whether the input can be converted, without converting it. Implementations
+     * that can validate the input cheaply should override this, so that invalid input is
+     * rejected before {@link #applyAsLong(String)} has to throw.
+     *
+     * @param s The string to check.
+     * @return false if the conversion would fail, true if it may succeed.
+     */
+    default boolean accepts(String s) {
+        return true;
+    }
+
+    /**
+     * Apply the conversion, boxing the result.
+     *
+     * @param s The string to convert.
+     * @return The converted value, or null if the string is not a valid value.
+     */
+    @Override
+    default Long apply(String s) {
+        if (s == null || !accepts(s)) {
+            return null;
+        }
+        try {
+            return applyAsLong(s);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package fr.traqueur.commands.api.logging;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
 /**
  * Represents a logger.
  */
@@ -12,6 +15,18 @@ public interface Logger {
      */
     void error(String message);
 
+    /**
+     * Logs an error message with the throwable that caused it, stack trace included.
+     *
+     * @param message   The message to log.
+     * @param throwable The cause of the error.
+     */
+    default void error(String message, Throwable throwable) {
+        StringWriter trace = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(trace));
+        this.error(message + System.lineSeparator() + trace);
+    }
+
     /**
      * Logs an information message.
      *
@@ -56,4 +56,33 @@ public interface MessageHandler {
      * @return The invalid format message.
      */
     String getInvalidFormatMessage();
+
+    /**
+     * This method is used to get the message sent when a sender is rate limited,
+     * where {@code %time%} is the number of seconds to wait.
+     *
+     * @return The rate limited message.
+     */
+    default String getRateLimitedMessage() {
+        return "&cYou are using commands too fast, try again in &e%time%s&c.";
+    }
+
+    /**
+     * This method is used to get the message sent when an asynchronous command fails.
+     *
+     * @return The command failed message.
+     */
+    default String getCommandFailedMessage() {
+        return "&cAn error occurred while executing this command.";
+    }
+
+    /**
+     * This method is used to get the message sent when an asynchronous argument is not
+     * converted in time, where {@code %arg%} is the input of the argument.
+     *
+     * @return The argument timeout message.
+     */
+    default String getArgumentTimeoutMessage() {
+        return "&cArgument &e%arg% &ctook too long to resolve, try again.";
+    }
 }
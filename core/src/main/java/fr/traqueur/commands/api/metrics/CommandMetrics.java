@@ -0,0 +1,107 @@
+package fr.traqueur.commands.api.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The class CommandMetrics.
+ * <p> Latency histograms of command invocations, one per command label and {@link Stage}.
+ * The histograms of a label are created the first time it is invoked and never removed, so
+ * the memory used is bounded by the number of registered labels. Labels are full labels,
+ * with dots between the parts (e.g. {@code "clan.invite"}). </p>
+ * <p> Enabled with {@link fr.traqueur.commands.api.CommandManager#setMetricsEnabled(boolean)};
+ * when disabled the invoker does not read the clock at all. </p>
+ */
+public final class CommandMetrics {
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final Map<String, Timings> timings = new ConcurrentHashMap<>();
+
+    /**
+     * Get the timings of a label, creating them if needed.
+     *
+     * @param label The full label of the command.
+     * @return The timings of the label.
+     */
+    public Timings timings(String label) {
+        Timings existing = timings.get(label);
+        return existing != null ? existing : timings.computeIfAbsent(label, ignored -> new Timings());
+    }
+
+    /**
+     * Get the latencies of a stage of a label.
+     *
+     * @param label The full label of the command.
+     * @param stage The stage.
+     * @return The snapshot, {@link LatencySnapshot#EMPTY} if the label was never invoked.
+     */
+    public LatencySnapshot snapshot(String label, Stage stage) {
+        Timings existing = timings.get(label);
+        return existing == null ? LatencySnapshot.EMPTY : existing.histogram(stage).snapshot();
+    }
+
+    /**
+     * Get the labels invoked since the metrics were enabled.
+     *
+     * @return The labels, as an unmodifiable view.
+     */
+    public Set<String> labels() {
+        return Collections.unmodifiableSet(timings.keySet());
+    }
+
+    /**
+     * Forget every recorded latency.
+     */
+    public void reset() {
+        for (Timings value : timings.values()) {
+            value.reset();
+        }
+    }
+
+    /**
+     * The histograms of the stages of one label.
+     */
+    public static final class Timings {
+
+        private final LatencyHistogram[] histograms;
+
+        private Timings() {
+            this.histograms = new LatencyHistogram[STAGES.length];
+            for (int i = 0; i < STAGES.length; i++) {
+                this.histograms[i] = new LatencyHistogram();
+            }
+        }
+
+        /**
+         * Record the time spent in a stage since a timestamp.
+         *
+         * @param stage The stage.
+         * @param since The {@link System#nanoTime()} at which the stage started.
+         * @return The current {@link System#nanoTime()}, at which the next stage starts.
+         */
+        public long record(Stage stage, long since) {
+            long now = System.nanoTime();
+            histograms[stage.ordinal()].record(now - since);
+            return now;
+        }
+
+        /**
+         * Get the histogram of a stage.
+         *
+         * @param stage The stage.
+         * @return The histogram.
+         */
+        public LatencyHistogram histogram(Stage stage) {
+            return histograms[stage.ordinal()];
+        }
+
+        private void reset() {
+            for (LatencyHistogram histogram : histograms) {
+                histogram.reset();
+            }
+        }
+    }
+}
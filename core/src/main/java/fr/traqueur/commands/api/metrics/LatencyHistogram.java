@@ -0,0 +1,127 @@
+package fr.traqueur.commands.api.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class LatencyHistogram.
+ * <p> A fixed-size, lock-free histogram of latencies in nanoseconds. Values are counted in
+ * log-linear buckets: every power of two is split in 8 buckets, so a bucket is at most 12.5%
+ * wide and the whole range of a long fits in 488 counters. Recording a value is a few
+ * arithmetic operations and atomic increments, without allocating or locking. </p>
+ * <p> Snapshots and resets read and clear the counters one by one while values are being
+ * recorded, so they may miss or include the latencies recorded meanwhile. </p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Get the bucket of a value. Values below 8 have a bucket each; above, the bucket is the
+     * position of the highest bit and the 3 bits after it.
+     *
+     * @param value The value, not negative.
+     * @return The bucket index.
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Get the highest value counted in a bucket.
+     *
+     * @param bucket The bucket index.
+     * @return The upper bound of the bucket, inclusive.
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Record a latency. Negative latencies, from a clock going backwards, are counted as 0.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        buckets.incrementAndGet(bucket(value));
+        total.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Get the number of recorded latencies.
+     *
+     * @return The count.
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Get the count, mean, median, 99th percentile and maximum of the recorded latencies.
+     *
+     * @return The snapshot, {@link LatencySnapshot#EMPTY} if nothing was recorded.
+     */
+    public LatencySnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        if (count == 0) {
+            return LatencySnapshot.EMPTY;
+        }
+        long max = this.max.get();
+        return new LatencySnapshot(count, total.sum() / count,
+                percentile(counts, count, 0.50, max), percentile(counts, count, 0.99, max), max);
+    }
+
+    private static long percentile(long[] counts, long count, double quantile, long max) {
+        long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Forget every recorded latency.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0L);
+        }
+        total.reset();
+        max.set(0L);
+    }
+}
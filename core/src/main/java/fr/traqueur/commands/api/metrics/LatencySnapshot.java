@@ -0,0 +1,20 @@
+package fr.traqueur.commands.api.metrics;
+
+/**
+ * The record LatencySnapshot.
+ * <p> The latencies recorded by a {@link LatencyHistogram}, in nanoseconds. Percentiles are
+ * the upper bound of the bucket they fall in, within 12.5% of the exact value. </p>
+ *
+ * @param count The number of recorded latencies.
+ * @param mean  The mean latency.
+ * @param p50   The median latency.
+ * @param p99   The 99th percentile latency.
+ * @param max   The highest latency.
+ */
+public record LatencySnapshot(long count, long mean, long p50, long p99, long max) {
+
+    /**
+     * A snapshot of a histogram that recorded nothing.
+     */
+    public static final LatencySnapshot EMPTY = new LatencySnapshot(0, 0, 0, 0, 0);
+}
@@ -0,0 +1,31 @@
+package fr.traqueur.commands.api.metrics;
+
+/**
+ * The enum Stage.
+ * <p> The stages of a command invocation timed by {@link CommandMetrics}. </p>
+ */
+public enum Stage {
+
+    /**
+     * Finding the command in the command tree.
+     */
+    LOOKUP,
+
+    /**
+     * Checking the rate limit, whether the command is enabled and in-game only, the
+     * permission, the requirements and the argument count.
+     */
+    VALIDATION,
+
+    /**
+     * Converting the arguments, up to the completion of asynchronous converters.
+     */
+    PARSING,
+
+    /**
+     * Running the command, or reporting parse errors. Asynchronous commands are timed until
+     * they return on their executor, and coalescing commands until their shared computation
+     * completes; the wait for the command thread is not included.
+     */
+    EXECUTION
+}
@@ -0,0 +1,124 @@
+package fr.traqueur.commands.api.models;
+
+import fr.traqueur.commands.api.arguments.Arguments;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A command whose work is split into a computation, shared by identical invocations, and
+ * a reply to each sender.
+ * <p>
+ * Leaderboards and statistics are expensive to compute and often asked for by many senders
+ * with the same arguments at once. While the computation of some arguments is running on the
+ * asynchronous executor of the manager, invocations with equal arguments (see
+ * {@link Arguments#contentKey()}) wait for it instead of starting their own. Each invocation
+ * then gets its own {@link #reply(Object, Arguments, Object)}, on the platform's command
+ * thread unless the command is {@link ExecutionMode#ASYNC}. A computation is forgotten as soon
+ * as it completes, so later invocations compute fresh results.
+ * </p>
+ *
+ * @param <T> The plugin that owns the command.
+ * @param <S> The type of the sender who use the command.
+ * @param <R> The type of the computed result.
+ */
+public abstract class CoalescingCommand<T, S, R> extends Command<T, S> {
+
+    private final Map<List<Object>, CompletableFuture<R>> inFlight;
+    private final LongAdder coalesced;
+
+    /**
+     * The constructor of the command.
+     *
+     * @param plugin The plugin that owns the command.
+     * @param name   The name of the command.
+     */
+    public CoalescingCommand(T plugin, String name) {
+        super(plugin, name);
+        this.inFlight = new ConcurrentHashMap<>();
+        this.coalesced = new LongAdder();
+    }
+
+    /**
+     * Compute the result for some arguments. Called once for every group of identical
+     * invocations, off the platform's command thread.
+     *
+     * @param arguments The arguments of the first invocation of the group.
+     * @return The result.
+     */
+    public abstract R compute(Arguments arguments);
+
+    /**
+     * Reply to one invocation.
+     *
+     * @param sender    The sender of the invocation.
+     * @param arguments The arguments of the invocation.
+     * @param result    The shared result.
+     */
+    public abstract void reply(S sender, Arguments arguments, R result);
+
+    /**
+     * Compute and reply right away, for callers that do not go through the command invoker.
+     *
+     * @param sender    The sender of the command.
+     * @param arguments The arguments of the command.
+     */
+    @Override
+    public void execute(S sender, Arguments arguments) {
+        this.reply(sender, arguments, this.compute(arguments));
+    }
+
+    /**
+     * Get the computation of some arguments, starting it on the executor unless one is
+     * already running for equal arguments.
+     *
+     * @param arguments The arguments, which must not be reused until the result is complete.
+     * @param executor  The executor to compute on.
+     * @return The future result.
+     */
+    public final CompletableFuture<R> submit(Arguments arguments, Executor executor) {
+        List<Object> key = arguments.contentKey();
+        CompletableFuture<R> created = new CompletableFuture<>();
+        CompletableFuture<R> running = this.inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            this.coalesced.increment();
+            return running;
+        }
+        created.whenComplete((result, failure) -> this.inFlight.remove(key, created));
+        try {
+            executor.execute(() -> {
+                try {
+                    created.complete(this.compute(arguments));
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    /**
+     * Get the number of computations running.
+     *
+     * @return The number of distinct arguments being computed.
+     */
+    public final int getInFlightCount() {
+        return this.inFlight.size();
+    }
+
+    /**
+     * Get the number of invocations that joined a running computation instead of starting one.
+     *
+     * @return The number of coalesced invocations.
+     */
+    public final long getCoalescedCount() {
+        return this.coalesced.sum();
+    }
+}
@@ -2,17 +2,22 @@ package fr.traqueur.commands.api.models;
 
 import fr.traqueur.commands.api.CommandManager;
 import fr.traqueur.commands.api.arguments.Argument;
+import fr.traqueur.commands.api.arguments.ArgumentKey;
 import fr.traqueur.commands.api.arguments.ArgumentType;
 import fr.traqueur.commands.api.arguments.Arguments;
 import fr.traqueur.commands.api.arguments.TabCompleter;
+import fr.traqueur.commands.api.parsing.ParsePlan;
+import fr.traqueur.commands.api.ratelimit.RateLimit;
+import fr.traqueur.commands.api.ratelimit.RateLimiter;
 import fr.traqueur.commands.api.requirements.Requirement;
-import fr.traqueur.commands.api.utils.Patterns;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class is the base class for all commands.
@@ -84,6 +89,36 @@ public abstract class Command<T, S> {
      */
     private boolean subcommand;
 
+    /**
+     * If the arguments given to the command are pooled and reused once it returns.
+     */
+    private boolean pooledArguments;
+
+    /**
+     * Where the command is executed.
+     */
+    private ExecutionMode executionMode;
+
+    /**
+     * The rate limiter of the command, null if the command is not rate limited.
+     */
+    private volatile RateLimiter rateLimiter;
+
+    /**
+     * The arguments compiled for parsing, reset whenever an argument is added.
+     */
+    private volatile ParsePlan<S> parsePlan;
+
+    /**
+     * The default usage templates of the command, by label, cleared whenever the usage changes.
+     */
+    private final Map<String, UsageTemplate<S>> usageTemplates;
+
+    /**
+     * The command this one is a subcommand of, told when its permission changes.
+     */
+    private Command<T, S> parent;
+
     /**
      * The constructor of the command.
      *
@@ -104,6 +139,8 @@ public abstract class Command<T, S> {
         this.requirements = new ArrayList<>();
         this.subcommand = false;
         this.enable = true;
+        this.executionMode = ExecutionMode.SYNC;
+        this.usageTemplates = new ConcurrentHashMap<>();
     }
 
     /**
@@ -115,6 +152,24 @@ public abstract class Command<T, S> {
         this.manager = manager;
     }
 
+    /**
+     * Get the parse plan compiled for the arguments of this command.
+     *
+     * @return the plan, or null if it was never compiled or an argument was added since
+     */
+    public final ParsePlan<S> getParsePlan() {
+        return parsePlan;
+    }
+
+    /**
+     * This method is called to cache the parse plan compiled for this command.
+     *
+     * @param parsePlan The compiled plan.
+     */
+    public final void setParsePlan(ParsePlan<S> parsePlan) {
+        this.parsePlan = parsePlan;
+    }
+
     /**
      * This method is called when the command is executed.
      *
@@ -185,6 +240,9 @@ public abstract class Command<T, S> {
      */
     public final void setPermission(String permission) {
         this.permission = permission;
+        if (this.parent != null) {
+            this.parent.invalidateUsage();
+        }
     }
 
     /**
@@ -250,6 +308,31 @@ public abstract class Command<T, S> {
         return optionalArgs;
     }
 
+    /**
+     * This method is called to get a typed key reading an argument of the command
+     * from its parsed {@link Arguments}.
+     *
+     * @param name The name of the argument.
+     * @param type The type of the parsed value (String for an infinite argument).
+     * @param <A>  The type of the parsed value.
+     * @return The key of the argument.
+     * @throws IllegalArgumentException If the command has no argument with this name, or its
+     *                                  values are not of this type.
+     */
+    public final <A> ArgumentKey<A> getArgumentKey(String name, Class<A> type) {
+        for (int i = 0; i < this.args.size(); i++) {
+            if (this.args.get(i).name().equals(name)) {
+                return ArgumentKey.of(this.args.get(i), type, i);
+            }
+        }
+        for (int i = 0; i < this.optionalArgs.size(); i++) {
+            if (this.optionalArgs.get(i).name().equals(name)) {
+                return ArgumentKey.of(this.optionalArgs.get(i), type, this.args.size() + i);
+            }
+        }
+        throw new IllegalArgumentException("Command " + this.name + " has no argument named " + name);
+    }
+
     /**
      * This method is called to check if the command is only to use in game.
      *
@@ -286,6 +369,68 @@ public abstract class Command<T, S> {
         this.gameOnly = gameOnly;
     }
 
+    /**
+     * This method is called to check if the arguments given to the command are pooled.
+     *
+     * @return If the arguments are reused once {@link #execute(Object, Arguments)} returns.
+     */
+    public final boolean isPooledArguments() {
+        return pooledArguments;
+    }
+
+    /**
+     * This method is called to set if the arguments given to the command are pooled.
+     * <p>Pooled arguments are reused by the next command executed on the same thread, so this is
+     * only for commands that do not keep the {@link Arguments} (or hand them to another thread)
+     * after {@link #execute(Object, Arguments)} returns. Commands with asynchronous arguments or
+     * executed asynchronously are never pooled.</p>
+     *
+     * @param pooledArguments If the arguments should be pooled.
+     */
+    public final void setPooledArguments(boolean pooledArguments) {
+        this.pooledArguments = pooledArguments;
+    }
+
+    /**
+     * This method is called to get where the command is executed.
+     *
+     * @return The execution mode of the command.
+     */
+    public final ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * This method is called to set where the command is executed.
+     * <p>{@link ExecutionMode#ASYNC} commands are executed on {@link CommandManager#getAsyncExecutor()},
+     * so {@link #execute(Object, Arguments)} must not touch state owned by the platform thread.</p>
+     *
+     * @param executionMode The execution mode of the command.
+     */
+    public final void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = Objects.requireNonNull(executionMode, "Execution mode cannot be null");
+    }
+
+    /**
+     * This method is called to get the rate limiter of the command.
+     *
+     * @return The rate limiter, or null if the command is not rate limited.
+     */
+    public final RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * This method is called to limit how often each sender may run the command.
+     * <p>Rate limited invocations are rejected before their arguments are parsed or the
+     * requirements of the command are checked.</p>
+     *
+     * @param rateLimit The rate limit, or null to remove it.
+     */
+    public final void setRateLimit(RateLimit rateLimit) {
+        this.rateLimiter = rateLimit == null ? null : new RateLimiter(rateLimit);
+    }
+
     /**
      * This method is called to add aliases to the command.
      *
@@ -312,8 +457,9 @@ public abstract class Command<T, S> {
     @SafeVarargs
     public final void addSubCommand(Command<T, S>... commands) {
         List<Command<T, S>> commandsList = Arrays.asList(commands);
-        commandsList.forEach(Command::setSubcommand);
+        commandsList.forEach(command -> command.setSubcommand(this));
         this.subcommands.addAll(commandsList);
+        this.invalidateUsage();
     }
 
     /**
@@ -414,6 +560,8 @@ public abstract class Command<T, S> {
         } else {
             this.args.add(arg);
         }
+        this.parsePlan = null;
+        this.invalidateUsage();
     }
 
     /**
@@ -452,49 +600,26 @@ public abstract class Command<T, S> {
      * @return The default usage of the command.
      */
     public String generateDefaultUsage(S sender, String label) {
-        StringBuilder usage = new StringBuilder("/");
-
-        String[] parts = Patterns.DOT.split(label);
-        usage.append(String.join(" ", parts));
-
-        List<Command<T, S>> directSubs = this.getSubcommands().stream()
-                .filter(sub -> {
-                    String perm = sub.getPermission();
-                    return perm.isEmpty() || this.manager.getPlatform().hasPermission(sender, perm);
-                })
-                .toList();
-
-        if (!directSubs.isEmpty()) {
-            usage.append(" <");
-            String subs = directSubs.stream()
-                    .map(Command::getName)
-                    .map(str -> Patterns.DOT.split(str)[0])
-                    .collect(Collectors.joining("|"));
-            usage.append(subs).append(">");
-        }
+        UsageTemplate<S> template = this.usageTemplates.computeIfAbsent(label, l -> new UsageTemplate<>(l, this));
+        return template.render(sender, this.manager);
+    }
 
-        if (!this.getArgs().isEmpty() || !this.getOptionalArgs().isEmpty()) {
-            usage.append(!directSubs.isEmpty() ? "|" : " ");
-
-            // arguments obligatoires : <name:type>
-            String req = this.getArgs().stream()
-                    .map(arg -> "<" + arg.canonicalName() + ">")
-                    .collect(Collectors.joining(" "));
-            usage.append(req);
-
-            // arguments optionnels : [name:type]
-            if (!this.getOptionalArgs().isEmpty()) {
-                if (!req.isEmpty()) {
-                    usage.append(" ");
-                }
-                String opt = this.getOptionalArgs().stream()
-                        .map(arg -> "[" + arg.canonicalName() + "]")
-                        .collect(Collectors.joining(" "));
-                usage.append(opt);
-            }
-        }
+    /**
+     * Build the default usage template of the command for a label ahead of time,
+     * so that the first usage reply does not pay for it.
+     *
+     * @param label The label of the command.
+     */
+    public final void prepareUsage(String label) {
+        this.usageTemplates.computeIfAbsent(label, l -> new UsageTemplate<>(l, this));
+    }
 
-        return usage.toString();
+    /**
+     * Drop the default usages rendered so far, after a subcommand, an argument or the
+     * permission of a subcommand changed.
+     */
+    private void invalidateUsage() {
+        this.usageTemplates.clear();
     }
 
     /**
@@ -517,8 +642,11 @@ public abstract class Command<T, S> {
 
     /**
      * Set if the command is subcommand
+     *
+     * @param parent The command this one is a subcommand of.
      */
-    private void setSubcommand() {
+    private void setSubcommand(Command<T, S> parent) {
         this.subcommand = true;
+        this.parent = parent;
     }
 }
@@ -1,10 +1,13 @@
 package fr.traqueur.commands.api.models;
 
 import fr.traqueur.commands.api.CommandManager;
+import fr.traqueur.commands.api.arguments.ArgumentKey;
 import fr.traqueur.commands.api.arguments.Arguments;
 import fr.traqueur.commands.api.arguments.TabCompleter;
+import fr.traqueur.commands.api.ratelimit.RateLimit;
 import fr.traqueur.commands.api.requirements.Requirement;
 
+import java.time.Duration;
 import java.util.function.BiConsumer;
 
 /**
@@ -22,6 +25,9 @@ public class CommandBuilder<T, S> {
     private String usage = "";
     private String permission = "";
     private boolean gameOnly = false;
+    private boolean pooledArguments = false;
+    private RateLimit rateLimit;
+    private ExecutionMode executionMode = ExecutionMode.SYNC;
     private BiConsumer<S, Arguments> executor;
 
     /**
@@ -89,6 +95,61 @@ public class CommandBuilder<T, S> {
         return this;
     }
 
+    /**
+     * Reuse the arguments given to the executor for later commands (see {@link Command#setPooledArguments(boolean)}).
+     * Only for executors that do not keep the arguments after returning.
+     *
+     * @return this builder for chaining
+     */
+    public CommandBuilder<T, S> pooledArguments() {
+        this.pooledArguments = true;
+        return this;
+    }
+
+    /**
+     * Execute this command on the asynchronous executor of the manager (see {@link Command#setExecutionMode(ExecutionMode)}).
+     *
+     * @return this builder for chaining
+     */
+    public CommandBuilder<T, S> async() {
+        this.executionMode = ExecutionMode.ASYNC;
+        return this;
+    }
+
+    /**
+     * Set where this command is executed.
+     *
+     * @param executionMode the execution mode
+     * @return this builder for chaining
+     */
+    public CommandBuilder<T, S> executionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+        return this;
+    }
+
+    /**
+     * Limit how often each sender may run this command (see {@link Command#setRateLimit(RateLimit)}).
+     *
+     * @param permits the number of invocations allowed in a burst
+     * @param per     the time it takes to earn back every permit
+     * @return this builder for chaining
+     */
+    public CommandBuilder<T, S> rateLimit(int permits, Duration per) {
+        this.rateLimit = RateLimit.of(permits, per);
+        return this;
+    }
+
+    /**
+     * Make each sender wait between two invocations of this command.
+     *
+     * @param cooldown the time between two invocations
+     * @return this builder for chaining
+     */
+    public CommandBuilder<T, S> cooldown(Duration cooldown) {
+        this.rateLimit = RateLimit.cooldown(cooldown);
+        return this;
+    }
+
     /**
      * Add an alias for this command.
      *
@@ -161,6 +222,45 @@ public class CommandBuilder<T, S> {
         return this;
     }
 
+    /**
+     * Add a required argument to this command and get its typed key.
+     *
+     * @param name the argument name
+     * @param type the argument type class
+     * @param <A>  the argument type
+     * @return the key reading the argument from the parsed {@link Arguments}
+     */
+    public <A> ArgumentKey<A> argKey(String name, Class<A> type) {
+        this.command.addArg(name, type);
+        return this.key(name, type);
+    }
+
+    /**
+     * Add an optional argument to this command and get its typed key.
+     *
+     * @param name the argument name
+     * @param type the argument type class
+     * @param <A>  the argument type
+     * @return the key reading the argument from the parsed {@link Arguments}
+     */
+    public <A> ArgumentKey<A> optionalArgKey(String name, Class<A> type) {
+        this.command.addOptionalArg(name, type);
+        return this.key(name, type);
+    }
+
+    /**
+     * Get the typed key of an argument already added to this command,
+     * e.g. one with a tab completer or an infinite argument (read as a String).
+     *
+     * @param name the argument name
+     * @param type the type of the parsed value
+     * @param <A>  the type of the parsed value
+     * @return the key reading the argument from the parsed {@link Arguments}
+     */
+    public <A> ArgumentKey<A> key(String name, Class<A> type) {
+        return this.command.getArgumentKey(name, type);
+    }
+
     /**
      * Add a requirement that must be met to execute this command.
      *
@@ -233,6 +333,9 @@ public class CommandBuilder<T, S> {
         this.command.setUsage(this.usage);
         this.command.setPermission(this.permission);
         this.command.setGameOnly(this.gameOnly);
+        this.command.setPooledArguments(this.pooledArguments);
+        this.command.setRateLimit(this.rateLimit);
+        this.command.setExecutionMode(this.executionMode);
         this.command.setExecutor(this.executor);
 
         return this.command;
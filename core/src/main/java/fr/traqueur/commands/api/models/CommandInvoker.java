@@ -3,20 +3,26 @@ package fr.traqueur.commands.api.models;
 import fr.traqueur.commands.api.CommandManager;
 import fr.traqueur.commands.api.arguments.Arguments;
 import fr.traqueur.commands.api.arguments.TabCompleter;
-import fr.traqueur.commands.api.exceptions.ArgumentIncorrectException;
-import fr.traqueur.commands.api.exceptions.TypeArgumentNotExistException;
+import fr.traqueur.commands.api.metrics.CommandMetrics;
+import fr.traqueur.commands.api.metrics.Stage;
 import fr.traqueur.commands.api.models.collections.CommandTree;
-import fr.traqueur.commands.api.models.collections.CommandTree.MatchResult;
+import fr.traqueur.commands.api.parsing.CommandLine;
+import fr.traqueur.commands.api.parsing.ParseError;
+import fr.traqueur.commands.api.parsing.ParsePlan;
+import fr.traqueur.commands.api.parsing.ParseResult;
+import fr.traqueur.commands.api.ratelimit.RateLimiter;
 import fr.traqueur.commands.api.requirements.Requirement;
-import fr.traqueur.commands.api.utils.Patterns;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * CommandInvoker is responsible for invoking and suggesting commands.
- * It performs lookup, permission and requirement checks, usage display, parsing, and execution.
+ * It performs rate limiting, lookup, permission and requirement checks, usage display, parsing, and execution.
  *
  * @param manager the command manager to use for command handling
  * @param <T>     plugin type
@@ -33,61 +39,115 @@ public record CommandInvoker<T, S>(CommandManager<T, S> manager) {
      * @return true if a command handler was executed or a message sent; false if command not found
      */
     public boolean invoke(S source, String base, String[] rawArgs) {
-        Optional<CommandContext<T, S>> contextOpt = findCommandContext(base, rawArgs);
-        if (contextOpt.isEmpty()) {
-            return false;
+        if (!checkRateLimit(source, manager.getRateLimiter())) {
+            return true;
         }
+        CommandMetrics metrics = manager.getMetrics();
+        long start = metrics == null ? 0L : System.nanoTime();
+        CommandTree.CommandNode<T, S> node = manager.getCommands().resolve(base, rawArgs);
+        return invoke(source, base, node, new RawArguments(rawArgs), metrics, start);
+    }
 
-        CommandContext<T, S> context = contextOpt.get();
-
-        if (!validateCommandExecution(source, context)) {
+    /**
+     * Invokes a command from a raw command line. Subcommands are looked up and arguments
+     * parsed straight from the tokens of the line, without splitting it into a String[].
+     *
+     * @param source the command sender (e.g. a player or console)
+     * @param base   the base command label (e.g. "hello")
+     * @param line   the tokenized arguments of the command
+     * @return true if a command handler was executed or a message sent; false if command not found
+     */
+    public boolean invoke(S source, String base, CommandLine line) {
+        if (!checkRateLimit(source, manager.getRateLimiter())) {
             return true;
         }
-
-        return executeCommand(source, context);
+        CommandMetrics metrics = manager.getMetrics();
+        long start = metrics == null ? 0L : System.nanoTime();
+        CommandTree.CommandNode<T, S> node = manager.getCommands().resolve(base, line);
+        return invoke(source, base, node, new LineArguments(line), metrics, start);
     }
 
     /**
-     * Find and prepare command context.
+     * Validate, parse and execute a resolved command, timing each stage if metrics are enabled.
      *
+     * @param source  the command sender
      * @param base    the base command label
-     * @param rawArgs the raw arguments
-     * @return the command context if found
+     * @param node    the resolved node, null if nothing matched
+     * @param input   the arguments of the command
+     * @param metrics the metrics read when the lookup started, null if disabled then
+     * @param start   when the lookup started, if timed
+     * @return true if a command handler was executed or a message sent; false if command not found
      */
-    private Optional<CommandContext<T, S>> findCommandContext(String base, String[] rawArgs) {
-        Optional<MatchResult<T, S>> found = manager.getCommands().findNode(base, rawArgs);
-        if (found.isEmpty()) {
-            return Optional.empty();
+    private boolean invoke(S source, String base, CommandTree.CommandNode<T, S> node, Input input,
+                           CommandMetrics metrics, long start) {
+        if (node == null || node.command() == null) {
+            return false;
         }
 
-        MatchResult<T, S> result = found.get();
-        CommandTree.CommandNode<T, S> node = result.node();
-        Optional<Command<T, S>> cmdOpt = node.getCommand();
+        Command<T, S> command = node.command();
+        String label = node.getFullLabel() != null ? node.getFullLabel() : base;
+        int offset = node.getArgumentOffset();
+        CommandMetrics.Timings timings = metrics == null ? null : metrics.timings(label);
+        start = record(timings, Stage.LOOKUP, start);
 
-        if (cmdOpt.isEmpty()) {
-            return Optional.empty();
+        boolean valid = validateCommandExecution(source, command, label, input.size() - offset);
+        start = record(timings, Stage.VALIDATION, start);
+        if (!valid) {
+            return true;
         }
 
-        Command<T, S> command = cmdOpt.get();
-        String label = node.getFullLabel() != null ? node.getFullLabel() : base;
-        String[] args = result.args();
+        CommandWatchdog watchdog = manager.getWatchdog();
+        if (watchdog == null) {
+            return executeCommand(source, command, label, input, offset, timings, start);
+        }
+        CommandWatchdog.Execution execution = watchdog.enter(label, source);
+        try {
+            return executeCommand(source, command, label, input, offset, timings, start);
+        } finally {
+            watchdog.exit(execution);
+        }
+    }
 
-        return Optional.of(new CommandContext<>(command, label, args));
+    /**
+     * Validate command execution conditions (enabled, in-game, permissions, rate limit,
+     * requirements, usage). The rate limit comes after the cheap checks, so that rejected
+     * senders get their actual reason and do not spend permits, and before the requirements
+     * and parsing, which rate limited senders never reach.
+     *
+     * @param source   the command sender
+     * @param command  the resolved command
+     * @param label    the full label of the command
+     * @param argCount the number of arguments given to the command
+     * @return true if all validations passed, false otherwise (message already sent to user)
+     */
+    private boolean validateCommandExecution(S source, Command<T, S> command, String label, int argCount) {
+        return checkEnabled(source, command)
+                && checkInGameOnly(source, command)
+                && checkPermission(source, command)
+                && checkRateLimit(source, command.getRateLimiter())
+                && checkRequirements(source, command)
+                && checkUsage(source, command, label, argCount);
     }
 
     /**
-     * Validate command execution conditions (enabled, in-game, permissions, requirements, usage).
+     * Take a permit from a rate limiter for the sender.
      *
      * @param source  the command sender
-     * @param context the command context
-     * @return true if all validations passed, false otherwise (message already sent to user)
+     * @param limiter the rate limiter, or null if there is no limit
+     * @return true if the sender is not rate limited
      */
-    private boolean validateCommandExecution(S source, CommandContext<T, S> context) {
-        return checkEnabled(source, context.command)
-                && checkInGameOnly(source, context.command)
-                && checkPermission(source, context.command)
-                && checkRequirements(source, context.command)
-                && checkUsage(source, context);
+    private boolean checkRateLimit(S source, RateLimiter limiter) {
+        if (limiter == null) {
+            return true;
+        }
+        long wait = limiter.tryAcquire(manager.getPlatform().getSenderKey(source));
+        if (wait > 0) {
+            String seconds = String.valueOf(TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+            manager.getPlatform().sendMessage(source, manager.getMessageHandler().getRateLimitedMessage()
+                    .replace("%time%", seconds));
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -129,7 +189,7 @@ public record CommandInvoker<T, S>(CommandManager<T, S> manager) {
      */
     private boolean checkPermission(S source, Command<T, S> command) {
         String perm = command.getPermission();
-        if (!perm.isEmpty() && !manager.getPlatform().hasPermission(source, perm)) {
+        if (!perm.isEmpty() && !manager.hasPermission(source, perm)) {
             manager.getPlatform().sendMessage(source, manager.getMessageHandler().getNoPermissionMessage());
             return false;
         }
@@ -170,19 +230,19 @@ public record CommandInvoker<T, S>(CommandManager<T, S> manager) {
     /**
      * Check if argument count is valid.
      *
-     * @param source  the command sender
-     * @param context the command context
+     * @param source   the command sender
+     * @param command  the command to check
+     * @param label    the full label of the command
+     * @param argCount the number of arguments given to the command
      * @return true if usage is correct
      */
-    private boolean checkUsage(S source, CommandContext<T, S> context) {
-        Command<T, S> command = context.command;
-        String[] args = context.args;
-
-        int min = command.getArgs().size();
-        int max = command.isInfiniteArgs() ? Integer.MAX_VALUE : min + command.getOptionalArgs().size();
+    private boolean checkUsage(S source, Command<T, S> command, String label, int argCount) {
+        ParsePlan<S> plan = manager.getParsePlan(command);
+        int min = plan.minArgs();
+        int max = plan.maxArgs();
 
-        if (args.length < min || args.length > max) {
-            String usage = buildUsageMessage(source, context);
+        if (argCount < min || argCount > max) {
+            String usage = buildUsageMessage(source, command, label);
             manager.getPlatform().sendMessage(source, usage);
             return false;
         }
@@ -193,13 +253,11 @@ public record CommandInvoker<T, S>(CommandManager<T, S> manager) {
      * Build usage message for command.
      *
      * @param source  the command sender
-     * @param context the command context
+     * @param command the command
+     * @param label   the full label of the command
      * @return the usage message
      */
-    private String buildUsageMessage(S source, CommandContext<T, S> context) {
-        Command<T, S> command = context.command;
-        String label = context.label;
-
+    private String buildUsageMessage(S source, Command<T, S> command, String label) {
         return command.getUsage().isEmpty()
                 ? command.generateDefaultUsage(source, label)
                 : command.getUsage();
@@ -209,19 +267,260 @@ public record CommandInvoker<T, S>(CommandManager<T, S> manager) {
      * Execute the command with error handling.
      *
      * @param source  the command sender
-     * @param context the command context
+     * @param command the command to execute
+     * @param label   the full label of the command
+     * @param input   the arguments of the command
+     * @param offset  index of the first argument belonging to the command
+     * @param timings the timings of the label, null if metrics are disabled
+     * @param start   when validation ended, if timed
      * @return true if execution succeeded or error was handled, false for internal errors
      */
-    private boolean executeCommand(S source, CommandContext<T, S> context) {
+    private boolean executeCommand(S source, Command<T, S> command, String label, Input input, int offset,
+                                   CommandMetrics.Timings timings, long start) {
+        if (manager.getParsePlan(command).hasAsync()) {
+            return executeLater(source, command, label, input.parseAsync(manager, command, offset), timings, start);
+        }
+        if (isPooled(command)) {
+            Arguments arguments = manager.getArgumentsPool().acquire();
+            try {
+                ParseError error = input.parseInto(manager, command, offset, arguments);
+                long parsed = record(timings, Stage.PARSING, start);
+                return execute(source, command, arguments, error, timings, parsed);
+            } finally {
+                manager.getArgumentsPool().release(arguments);
+            }
+        }
+        ParseResult result = input.parse(manager, command, offset);
+        long parsed = record(timings, Stage.PARSING, start);
+        return execute(source, command, result, timings, parsed);
+    }
+
+    /**
+     * Record the time spent in a stage, if invocations are timed.
+     *
+     * @param timings the timings of the label, null if metrics are disabled
+     * @param stage   the stage that ended
+     * @param since   when the stage started
+     * @return when the next stage starts
+     */
+    private static long record(CommandMetrics.Timings timings, Stage stage, long since) {
+        return timings == null ? since : timings.record(stage, since);
+    }
+
+    /**
+     * Read the clock, if invocations are timed.
+     *
+     * @param timings the timings of the label, null if metrics are disabled
+     * @return the current {@link System#nanoTime()}, 0 if not timed
+     */
+    private static long now(CommandMetrics.Timings timings) {
+        return timings == null ? 0L : System.nanoTime();
+    }
+
+    /**
+     * Check whether the arguments of a command can be pooled, i.e. they are not used once
+     * the invoker returns.
+     *
+     * @param command the command
+     * @return true if the command asked for pooled arguments and runs synchronously
+     */
+    private boolean isPooled(Command<T, S> command) {
+        return command.isPooledArguments()
+                && command.getExecutionMode() == ExecutionMode.SYNC
+                && !(command instanceof CoalescingCommand);
+    }
+
+    /**
+     * Execute the command once its asynchronous arguments are converted, back on the
+     * platform's command thread unless the command is itself asynchronous. The caller does not wait.
+     *
+     * @param source  the command sender
+     * @param command the command to execute
+     * @param label   the full label of the command
+     * @param pending the future result of parsing the arguments
+     * @param timings the timings of the label, null if metrics are disabled
+     * @param start   when validation ended, if timed
+     * @return true, the result is handled when parsing completes
+     */
+    private boolean executeLater(S source, Command<T, S> command, String label, CompletableFuture<ParseResult> pending,
+                                 CommandMetrics.Timings timings, long start) {
+        if (pending.isDone() && !pending.isCompletedExceptionally()) {
+            ParseResult result = pending.join();
+            return execute(source, command, result, timings, record(timings, Stage.PARSING, start));
+        }
+        pending.whenComplete((result, failure) -> {
+            if (failure != null) {
+                handleAsyncFailure(source, command, failure);
+                return;
+            }
+            long parsed = record(timings, Stage.PARSING, start);
+            if (command.getExecutionMode() == ExecutionMode.ASYNC) {
+                execute(source, command, result, timings, parsed);
+            } else {
+                // the wait for the command thread is not part of the execution
+                manager.getPlatform().runSync(() -> executeWatched(source, command, label, result, timings));
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Execute a command deferred to the platform's command thread, tracked by the watchdog
+     * like a direct invocation, since the invocation that parsed it has already exited.
+     *
+     * @param source  the command sender
+     * @param command the command to execute
+     * @param label   the full label of the command
+     * @param result  the result of parsing the arguments
+     * @param timings the timings of the label, null if metrics are disabled
+     */
+    private void executeWatched(S source, Command<T, S> command, String label, ParseResult result,
+                                CommandMetrics.Timings timings) {
+        CommandWatchdog watchdog = manager.getWatchdog();
+        if (watchdog == null) {
+            execute(source, command, result, timings, now(timings));
+            return;
+        }
+        CommandWatchdog.Execution execution = watchdog.enter(label, source);
         try {
-            Arguments parsed = manager.parse(context.command, context.args);
-            context.command.execute(source, parsed);
+            execute(source, command, result, timings, now(timings));
+        } finally {
+            watchdog.exit(execution);
+        }
+    }
+
+    /**
+     * Execute the command with its parsed arguments, or report the parse error to the sender.
+     * Parse failures are plain results all the way to the message, nothing is thrown.
+     *
+     * @param source  the command sender
+     * @param command the command to execute
+     * @param result  the result of parsing the arguments
+     * @param timings the timings of the label, null if metrics are disabled
+     * @param start   when parsing ended, if timed
+     * @return true if execution succeeded or error was handled, false for internal errors
+     */
+    private boolean execute(S source, Command<T, S> command, ParseResult result,
+                            CommandMetrics.Timings timings, long start) {
+        return execute(source, command, result.arguments(), result.error(), timings, start);
+    }
+
+    /**
+     * Execute the command with its parsed arguments, or report the parse error to the sender.
+     * The execution stage is recorded once the command has run, asynchronous ones included.
+     *
+     * @param source    the command sender
+     * @param command   the command to execute
+     * @param arguments the parsed arguments
+     * @param error     the parse error, null if the arguments were parsed
+     * @param timings   the timings of the label, null if metrics are disabled
+     * @param start     when parsing ended, if timed
+     * @return true if execution succeeded or error was handled, false for internal errors
+     */
+    private boolean execute(S source, Command<T, S> command, Arguments arguments, ParseError error,
+                            CommandMetrics.Timings timings, long start) {
+        if (error == null) {
+            if (command instanceof CoalescingCommand<T, S, ?> coalescing) {
+                return coalesce(source, coalescing, arguments, timings, start);
+            }
+            if (command.getExecutionMode() == ExecutionMode.ASYNC) {
+                return dispatch(source, command, arguments, timings, start);
+            }
+            // pooled arguments go back to the pool while the watchdog may still read them
+            CommandWatchdog watchdog = manager.getWatchdog();
+            if (watchdog != null && !isPooled(command)) {
+                watchdog.attach(arguments);
+            }
+            try {
+                command.execute(source, arguments);
+            } finally {
+                record(timings, Stage.EXECUTION, start);
+            }
             return true;
-        } catch (TypeArgumentNotExistException e) {
-            return handleTypeArgumentError(source);
-        } catch (ArgumentIncorrectException e) {
-            return handleArgumentIncorrectError(source, e);
         }
+        boolean handled = error.type() == ParseError.Type.TYPE_NOT_FOUND
+                ? handleTypeArgumentError(source)
+                : handleArgumentIncorrectError(source, error);
+        record(timings, Stage.EXECUTION, start);
+        return handled;
+    }
+
+    /**
+     * Hand the execution of an asynchronous command to the executor of the manager.
+     * Failures are logged and reported to the sender from the platform's command thread.
+     *
+     * @param source    the command sender
+     * @param command   the command to execute
+     * @param arguments the parsed arguments, not pooled
+     * @param timings   the timings of the label, null if metrics are disabled
+     * @param start     when parsing ended, if timed
+     * @return true, the command runs on its own
+     */
+    private boolean dispatch(S source, Command<T, S> command, Arguments arguments,
+                             CommandMetrics.Timings timings, long start) {
+        try {
+            manager.getAsyncExecutor().execute(() -> {
+                try {
+                    command.execute(source, arguments);
+                } catch (Exception e) {
+                    handleAsyncFailure(source, command, e);
+                } finally {
+                    record(timings, Stage.EXECUTION, start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            handleAsyncFailure(source, command, e);
+        }
+        return true;
+    }
+
+    /**
+     * Join or start the computation of a coalescing command and reply to the sender once it completes.
+     *
+     * @param source    the command sender
+     * @param command   the command to execute
+     * @param arguments the parsed arguments, not pooled
+     * @param timings   the timings of the label, null if metrics are disabled
+     * @param start     when parsing ended, if timed
+     * @param <R>       type of the computed result
+     * @return true, the reply is sent when the computation completes
+     */
+    private <R> boolean coalesce(S source, CoalescingCommand<T, S, R> command, Arguments arguments,
+                                 CommandMetrics.Timings timings, long start) {
+        command.submit(arguments, manager.getAsyncExecutor()).whenComplete((result, failure) -> {
+            // the computation, shared with the other coalesced invocations, is the execution
+            record(timings, Stage.EXECUTION, start);
+            Runnable reply = () -> {
+                if (failure != null) {
+                    handleAsyncFailure(source, command, failure);
+                    return;
+                }
+                try {
+                    command.reply(source, arguments, result);
+                } catch (Exception e) {
+                    handleAsyncFailure(source, command, e);
+                }
+            };
+            if (command.getExecutionMode() == ExecutionMode.ASYNC) {
+                reply.run();
+            } else {
+                manager.getPlatform().runSync(reply);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Handle the failure of an asynchronous command.
+     *
+     * @param source  the command sender
+     * @param command the failed command
+     * @param failure the cause of the failure
+     */
+    private void handleAsyncFailure(S source, Command<T, S> command, Throwable failure) {
+        manager.getLogger().error("Error executing command " + command.getName(), failure);
+        String msg = manager.getMessageHandler().getCommandFailedMessage();
+        manager.getPlatform().runSync(() -> manager.getPlatform().sendMessage(source, msg));
     }
 
     /**
@@ -239,11 +538,15 @@ public record CommandInvoker<T, S>(CommandManager<T, S> manager) {
      * Handle incorrect argument error.
      *
      * @param source the command sender
-     * @param e      the exception
+     * @param error  the parse error
      * @return true to indicate error was handled
      */
-    private boolean handleArgumentIncorrectError(S source, ArgumentIncorrectException e) {
-        String msg = manager.getMessageHandler().getArgNotRecognized().replace("%arg%", e.getInput());
+    private boolean handleArgumentIncorrectError(S source, ParseError error) {
+        String input = error.input() != null ? error.input() : error.message();
+        String template = error.type() == ParseError.Type.TIMEOUT
+                ? manager.getMessageHandler().getArgumentTimeoutMessage()
+                : manager.getMessageHandler().getArgNotRecognized();
+        String msg = template.replace("%arg%", input);
         manager.getPlatform().sendMessage(source, msg);
         return true;
     }
@@ -258,57 +561,65 @@ public record CommandInvoker<T, S>(CommandManager<T, S> manager) {
      * @return the list of suggestion
      */
     public List<String> suggest(S source, String base, String[] args) {
-        Optional<MatchResult<T, S>> found = manager.getCommands().findNode(base, args);
+        CommandTree.CommandNode<T, S> node = manager.getCommands().resolve(base, args);
         String lastArg = args.length > 0 ? args[args.length - 1] : "";
-        if (found.isPresent()) {
-            MatchResult<T, S> result = found.get();
-            CommandTree.CommandNode<T, S> node = result.node();
-            String[] rawArgs = result.args();
+        if (node != null) {
             String label = Optional.ofNullable(node.getFullLabel()).orElse(base);
             Map<Integer, TabCompleter<S>> map = manager.getCompleters().get(label);
             if (map != null) {
                 TabCompleter<S> completer = map.get(args.length);
                 if (completer != null) {
-                    return completer.onCompletion(source, Arrays.asList(rawArgs)).stream()
-                            .filter(opt -> allowedSuggestion(source, label, opt))
+                    List<String> leftover = Arrays.asList(args).subList(node.getArgumentOffset(), args.length);
+                    return completer.onCompletion(source, leftover).stream()
+                            .filter(opt -> allowedSuggestion(source, node, opt))
                             .filter(opt -> matchesPrefix(opt, lastArg))
                             .collect(Collectors.toList());
                 }
             }
         }
 
-        CommandTree.CommandNode<T, S> current = manager.getCommands().getRoot().getChildren().get(base.toLowerCase());
-        if (current == null) return Collections.emptyList();
+        CommandTree.CommandNode<T, S> root = manager.getCommands().getRoot().getChild(base);
+        if (root == null) return Collections.emptyList();
 
-        current = traverseNode(current, args);
-        String parentLabel = current.getFullLabel();
+        CommandTree.CommandNode<T, S> current = traverseNode(root, args);
 
         Stream<String> children = current.getChildren().keySet().stream();
-        if (args.length > 0 && current.getChildren().containsKey(lastArg.toLowerCase())) {
+        if (args.length > 0 && current.getChild(lastArg) != null) {
             children = children.filter(opt -> matchesPrefix(opt, lastArg));
         }
 
         return children
-                .filter(opt -> allowedSuggestion(source, parentLabel, opt))
+                .filter(opt -> allowedSuggestion(source, current, opt))
                 .collect(Collectors.toList());
     }
 
-    private boolean allowedSuggestion(S src, String label, String opt) {
-        String full = label + "." + opt.toLowerCase();
-        Optional<Command<T, S>> copt = manager.getCommands()
-                .findNode(Patterns.DOT.split(full))
-                .flatMap(r -> r.node().getCommand());
-        if (copt.isEmpty()) return true;
-        Command<T, S> c = copt.get();
-        return c.getRequirements().stream().allMatch(r -> r.check(src))
-                && (c.getPermission().isEmpty() || manager.getPlatform().hasPermission(src, c.getPermission()));
+    /**
+     * Suggests command completions from a raw command line.
+     * A blank line or a trailing space means a new, still empty, argument is being completed.
+     *
+     * @param source the command sender (e.g. a player or console)
+     * @param base   the command label           (e.g. "hello")
+     * @param line   the tokenized arguments provided to the command
+     * @return the list of suggestion
+     */
+    public List<String> suggest(S source, String base, CommandLine line) {
+        return suggest(source, base, line.toCompletionArray());
+    }
+
+    private boolean allowedSuggestion(S src, CommandTree.CommandNode<T, S> parent, String opt) {
+        CommandTree.CommandNode<T, S> child = parent.getChild(opt);
+        Command<T, S> c = child == null ? null : child.command();
+        if (c == null) return true;
+        for (Requirement<S> requirement : c.getRequirements()) {
+            if (!requirement.check(src)) return false;
+        }
+        return c.getPermission().isEmpty() || manager.hasPermission(src, c.getPermission());
     }
 
     private CommandTree.CommandNode<T, S> traverseNode(CommandTree.CommandNode<T, S> node, String[] args) {
         int index = 0;
         while (index < args.length - 1) {
-            String arg = args[index].toLowerCase();
-            CommandTree.CommandNode<T, S> child = node.getChildren().get(arg);
+            CommandTree.CommandNode<T, S> child = node.getChild(args[index]);
             if (child != null) {
                 node = child;
                 index++;
@@ -320,13 +631,82 @@ public record CommandInvoker<T, S>(CommandManager<T, S> manager) {
     }
 
     private boolean matchesPrefix(String candidate, String current) {
-        String lower = current.toLowerCase();
-        return candidate.equalsIgnoreCase(current) || candidate.toLowerCase().startsWith(lower);
+        return candidate.regionMatches(true, 0, current, 0, current.length());
     }
 
     /**
-     * Internal context class to hold command execution data.
+     * The arguments of an invocation, either already split by the platform or a tokenized line.
      */
-    private record CommandContext<T, S>(Command<T, S> command, String label, String[] args) {
+    private sealed interface Input permits RawArguments, LineArguments {
+
+        /**
+         * Get the number of arguments, subcommand labels included.
+         *
+         * @return the argument count
+         */
+        int size();
+
+        /**
+         * Parse the arguments of a command, see {@link CommandManager#tryParse(Command, String[], int)}.
+         */
+        <T, S> ParseResult parse(CommandManager<T, S> manager, Command<T, S> command, int offset);
+
+        /**
+         * Parse the arguments of a command with asynchronous converters, see
+         * {@link CommandManager#tryParseAsync(Command, String[], int)}.
+         */
+        <T, S> CompletableFuture<ParseResult> parseAsync(CommandManager<T, S> manager, Command<T, S> command, int offset);
+
+        /**
+         * Parse the arguments of a command into pooled arguments, see
+         * {@link CommandManager#parseInto(Command, String[], int, Arguments)}.
+         */
+        <T, S> ParseError parseInto(CommandManager<T, S> manager, Command<T, S> command, int offset, Arguments target);
+    }
+
+    private record RawArguments(String[] args) implements Input {
+
+        @Override
+        public int size() {
+            return args.length;
+        }
+
+        @Override
+        public <T, S> ParseResult parse(CommandManager<T, S> manager, Command<T, S> command, int offset) {
+            return manager.tryParse(command, args, offset);
+        }
+
+        @Override
+        public <T, S> CompletableFuture<ParseResult> parseAsync(CommandManager<T, S> manager, Command<T, S> command, int offset) {
+            return manager.tryParseAsync(command, args, offset);
+        }
+
+        @Override
+        public <T, S> ParseError parseInto(CommandManager<T, S> manager, Command<T, S> command, int offset, Arguments target) {
+            return manager.parseInto(command, args, offset, target);
+        }
+    }
+
+    private record LineArguments(CommandLine line) implements Input {
+
+        @Override
+        public int size() {
+            return line.size();
+        }
+
+        @Override
+        public <T, S> ParseResult parse(CommandManager<T, S> manager, Command<T, S> command, int offset) {
+            return manager.tryParse(command, line, offset);
+        }
+
+        @Override
+        public <T, S> CompletableFuture<ParseResult> parseAsync(CommandManager<T, S> manager, Command<T, S> command, int offset) {
+            return manager.tryParseAsync(command, line, offset);
+        }
+
+        @Override
+        public <T, S> ParseError parseInto(CommandManager<T, S> manager, Command<T, S> command, int offset, Arguments target) {
+            return manager.parseInto(command, line, offset, target);
+        }
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,8 @@ package fr.traqueur.commands.api.models;
 import fr.traqueur.commands.api.CommandManager;
 import fr.traqueur.commands.api.resolver.SenderResolver;
 
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
@@ -52,8 +54,49 @@ public interface CommandPlatform<T, S> {
      */
     boolean isPlayer(S sender);
 
+    /**
+     * Gets the key identifying a sender across invocations, e.g. for rate limiting.
+     * Platforms creating a new sender object for every invocation should override it;
+     * by default the sender is its own key.
+     *
+     * @param sender The sender.
+     * @return The key of the sender.
+     */
+    default Object getSenderKey(S sender) {
+        return sender;
+    }
+
+    /**
+     * Gets the key under which the permission decisions of a sender are cached.
+     * Platforms where permissions depend on more than the sender (e.g. a guild) should
+     * override it; by default it is {@link #getSenderKey(Object)}. The key must be the same
+     * for every object representing a same sender.
+     *
+     * @param sender The sender.
+     * @return The key of the sender's permissions, or null to never cache them.
+     */
+    default Object getPermissionKey(S sender) {
+        return this.getSenderKey(sender);
+    }
+
+    /**
+     * Gets the key under which the results of a {@link fr.traqueur.commands.api.requirements.CachedRequirement}
+     * are cached for a sender. Platforms where the context of an invocation matters to
+     * requirements (e.g. a guild or a channel) should override it; by default it is
+     * {@link #getSenderKey(Object)}. The key must be the same for every object representing
+     * a same sender in a same context.
+     *
+     * @param sender The sender.
+     * @return The key of the sender's requirement results, or null to never cache them.
+     */
+    default Object getRequirementKey(S sender) {
+        return this.getSenderKey(sender);
+    }
+
     /**
      * Sends a message to the sender.
+     * <p>Asynchronous commands call it from their own thread; platforms whose senders may
+     * only be messaged from one thread should hand the message to {@link #runSync(Runnable)}.</p>
      *
      * @param sender  The sender to send the message to.
      * @param message The message to send.
@@ -68,6 +111,50 @@ public interface CommandPlatform<T, S> {
      */
     void addCommand(Command<T, S> command, String label);
 
+    /**
+     * Adds several commands to the platform at once.
+     * <p>Called by {@link CommandManager#registerAll(java.util.Collection)} with every label to
+     * register, parents before their subcommands, before they are added to the command tree.
+     * Platforms able to commit commands in bulk should override it; by default each label is
+     * added with {@link #addCommand(Command, String)}.</p>
+     *
+     * @param commands The commands to add, by label.
+     */
+    default void addCommands(Map<String, Command<T, S>> commands) {
+        commands.forEach((label, command) -> this.addCommand(command, label));
+    }
+
+    /**
+     * Adds several commands and the aliases linking to them to the platform at once.
+     * <p>Called by {@link CommandManager#registerAll(java.util.Collection)}. Platforms committing
+     * commands in bulk should override it to commit the aliases with the commands; by default
+     * the commands are added with {@link #addCommands(Map)}, then each alias with
+     * {@link #addAlias(Command, String, String)}.</p>
+     *
+     * @param commands The commands to add, by label.
+     * @param aliases  The aliases to add, once their targets are added.
+     */
+    default void addCommands(Map<String, Command<T, S>> commands, List<Alias<T, S>> aliases) {
+        this.addCommands(commands);
+        for (Alias<T, S> alias : aliases) {
+            this.addAlias(alias.command(), alias.alias(), alias.target());
+        }
+    }
+
+    /**
+     * Adds an alias of a command to the platform.
+     * <p>The alias shares the node of its target in the command tree, so the subcommands
+     * reachable through it are not added one by one with {@link #addCommand(Command, String)}.
+     * By default, the alias label itself is added like a command.</p>
+     *
+     * @param command The aliased command.
+     * @param alias   The full label of the alias.
+     * @param target  The full label of the aliased command.
+     */
+    default void addAlias(Command<T, S> command, String alias, String target) {
+        this.addCommand(command, alias);
+    }
+
     /**
      * Removes a command from the platform.
      *
@@ -76,6 +163,17 @@ public interface CommandPlatform<T, S> {
      */
     void removeCommand(String label, boolean subcommand);
 
+    /**
+     * Run a task on the thread commands are executed on, e.g. once the asynchronous
+     * arguments of a command are converted. Platforms with a main thread should override
+     * it; by default the task runs on the calling thread.
+     *
+     * @param task The task to run.
+     */
+    default void runSync(Runnable task) {
+        task.run();
+    }
+
     /**
      * Gets the sender resolver for this platform.
      * <p>Used by the annotations-addon to resolve method parameter types.</p>
@@ -85,4 +183,15 @@ public interface CommandPlatform<T, S> {
      */
     SenderResolver<S> getSenderResolver();
 
+    /**
+     * An alias of a command, as given to {@link #addCommands(Map, List)}.
+     *
+     * @param command The aliased command.
+     * @param alias   The full label of the alias.
+     * @param target  The full label of the aliased command.
+     * @param <T>     The type of the plugin.
+     * @param <S>     The type of the sender.
+     */
+    record Alias<T, S>(Command<T, S> command, String alias, String target) {
+    }
 }
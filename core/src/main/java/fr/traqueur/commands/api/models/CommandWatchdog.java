@@ -0,0 +1,253 @@
+package fr.traqueur.commands.api.models;
+
+import fr.traqueur.commands.api.arguments.Arguments;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Reports command invocations running for longer than a threshold, with the stack of the
+ * thread running them, e.g. a command stalling the server tick.
+ * <p>
+ * Each thread invoking commands owns one {@link Execution} record, created the first time and
+ * reused for every invocation after, so tracking an invocation only writes a few fields. A
+ * daemon timer thread looks at the records a few times per threshold; an invocation over the
+ * threshold is reported once, with its label, sender and parsed arguments, and again with its
+ * total duration once it returns.
+ * </p>
+ * <p>
+ * Virtual threads are not tracked: they run asynchronous commands, which hold up no platform
+ * thread, and each would leave a record behind until the next sweep.
+ * </p>
+ */
+public final class CommandWatchdog implements AutoCloseable {
+
+    /**
+     * Set in the state of an execution while an invocation runs.
+     */
+    private static final long RUNNING = 1;
+    /**
+     * Set in the state of an execution once the running invocation has been reported.
+     */
+    private static final long REPORTED = 2;
+    /**
+     * Added to the state of an execution by every invocation, so states never repeat.
+     */
+    private static final long INVOCATION = 4;
+
+    private static final long MIN_CHECK_INTERVAL = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final long thresholdNanos;
+    private final Consumer<String> reporter;
+    private final LongSupplier ticker;
+    private final Set<Execution> executions;
+    private final ThreadLocal<Execution> current;
+    private final ScheduledExecutorService timer;
+
+    /**
+     * Create a watchdog and start its timer thread.
+     *
+     * @param threshold The duration over which an invocation is reported.
+     * @param reporter  Where reports are sent, e.g. the error log.
+     */
+    public CommandWatchdog(Duration threshold, Consumer<String> reporter) {
+        this(threshold, reporter, System::nanoTime, true);
+    }
+
+    /**
+     * Create a watchdog reading time from the given clock, in nanoseconds.
+     *
+     * @param threshold  The duration over which an invocation is reported.
+     * @param reporter   Where reports are sent.
+     * @param ticker     The clock.
+     * @param startTimer Whether to start the timer thread; without it, {@link #check()} must be called.
+     */
+    CommandWatchdog(Duration threshold, Consumer<String> reporter, LongSupplier ticker, boolean startTimer) {
+        Objects.requireNonNull(threshold, "Threshold cannot be null");
+        if (threshold.isNegative() || threshold.isZero()) {
+            throw new IllegalArgumentException("Threshold must be positive");
+        }
+        this.thresholdNanos = threshold.toNanos();
+        this.reporter = Objects.requireNonNull(reporter, "Reporter cannot be null");
+        this.ticker = ticker;
+        this.executions = ConcurrentHashMap.newKeySet();
+        this.current = ThreadLocal.withInitial(this::register);
+        if (startTimer) {
+            this.timer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "CommandsAPI-Watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = Math.max(MIN_CHECK_INTERVAL, this.thresholdNanos / 4);
+            this.timer.scheduleAtFixedRate(this::check, interval, interval, TimeUnit.NANOSECONDS);
+        } else {
+            this.timer = null;
+        }
+    }
+
+    private Execution register() {
+        Execution execution = new Execution(Thread.currentThread());
+        this.executions.add(execution);
+        return execution;
+    }
+
+    /**
+     * Start tracking an invocation on the current thread. Invocations nested in a tracked one
+     * (a command dispatching another) are part of it.
+     *
+     * @param label  The label of the command.
+     * @param sender The sender of the command.
+     * @return The record to give back to {@link #exit(Execution)}, null on a virtual thread.
+     */
+    public Execution enter(String label, Object sender) {
+        if (Thread.currentThread().isVirtual()) {
+            return null;
+        }
+        Execution execution = this.current.get();
+        if (execution.depth++ == 0) {
+            execution.label = label;
+            execution.sender = sender;
+            execution.arguments = null;
+            execution.start = this.ticker.getAsLong();
+            // publishes the fields above to the timer thread
+            long state = execution.state.get();
+            execution.state.set((state & -INVOCATION) + INVOCATION | RUNNING);
+        }
+        return execution;
+    }
+
+    /**
+     * Attach the parsed arguments to the invocation tracked on the current thread, if any.
+     * The timer thread reads them, so they must not be modified or reused (e.g. pooled) until
+     * the invocation exits.
+     *
+     * @param arguments The parsed arguments.
+     */
+    public void attach(Arguments arguments) {
+        if (Thread.currentThread().isVirtual()) {
+            return;
+        }
+        Execution execution = this.current.get();
+        if (execution.depth > 0) {
+            execution.arguments = arguments;
+        }
+    }
+
+    /**
+     * Stop tracking an invocation.
+     *
+     * @param execution The record returned by {@link #enter(String, Object)}, may be null.
+     */
+    public void exit(Execution execution) {
+        if (execution == null || --execution.depth > 0) {
+            return;
+        }
+        // either the timer reported the invocation before this, or it will not report it at all
+        long state = execution.state.getAndSet(execution.state.get() & -INVOCATION);
+        if ((state & REPORTED) != 0) {
+            long elapsed = this.ticker.getAsLong() - execution.start;
+            this.reporter.accept("Command /" + execution.label + " finished after "
+                    + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms.");
+        }
+        execution.sender = null;
+        execution.arguments = null;
+    }
+
+    /**
+     * Report the invocations over the threshold that were not reported yet. Run by the timer thread.
+     */
+    void check() {
+        long now = this.ticker.getAsLong();
+        for (Execution execution : this.executions) {
+            if (!execution.thread.isAlive()) {
+                this.executions.remove(execution);
+                continue;
+            }
+            long state = execution.state.get();
+            if ((state & (RUNNING | REPORTED)) != RUNNING) {
+                continue;
+            }
+            long elapsed = now - execution.start;
+            if (elapsed < this.thresholdNanos) {
+                continue;
+            }
+            String label = execution.label;
+            Object sender = execution.sender;
+            Arguments arguments = execution.arguments;
+            StackTraceElement[] stack = execution.thread.getStackTrace();
+            if (!execution.state.compareAndSet(state, state | REPORTED)) {
+                // it returned meanwhile, the stack belongs to something else
+                continue;
+            }
+            this.reporter.accept(this.report(execution.thread, label, sender, arguments, elapsed, stack));
+        }
+    }
+
+    private String report(Thread thread, String label, Object sender, Arguments arguments,
+                          long elapsed, StackTraceElement[] stack) {
+        StringBuilder report = new StringBuilder()
+                .append("Command /").append(label)
+                .append(" executed by ").append(sender)
+                .append(" has been running for ").append(TimeUnit.NANOSECONDS.toMillis(elapsed))
+                .append(" ms on thread ").append(thread.getName())
+                .append(" (threshold ").append(TimeUnit.NANOSECONDS.toMillis(this.thresholdNanos)).append(" ms)");
+        if (arguments != null) {
+            report.append(", arguments: ").append(arguments.toMap());
+        }
+        for (StackTraceElement element : stack) {
+            report.append(System.lineSeparator()).append("\tat ").append(element);
+        }
+        return report.toString();
+    }
+
+    /**
+     * Get the duration over which an invocation is reported.
+     *
+     * @return The threshold.
+     */
+    public Duration getThreshold() {
+        return Duration.ofNanos(this.thresholdNanos);
+    }
+
+    /**
+     * Stop the timer thread.
+     */
+    @Override
+    public void close() {
+        if (this.timer != null) {
+            this.timer.shutdownNow();
+        }
+    }
+
+    /**
+     * The invocation tracked on one thread. Written by that thread, read by the timer thread.
+     */
+    public static final class Execution {
+        private final Thread thread;
+        /**
+         * Nesting depth, only touched by the owner thread.
+         */
+        private int depth;
+        /**
+         * Invocation count, plus the {@link #RUNNING} and {@link #REPORTED} flags. Reporting
+         * and returning both change it atomically, so they agree on whether it was reported.
+         */
+        private final AtomicLong state = new AtomicLong();
+        private long start;
+        private String label;
+        private Object sender;
+        private volatile Arguments arguments;
+
+        private Execution(Thread thread) {
+            this.thread = thread;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package fr.traqueur.commands.api.models;
+
+/**
+ * Where {@link Command#execute(Object, fr.traqueur.commands.api.arguments.Arguments)} runs.
+ */
+public enum ExecutionMode {
+
+    /**
+     * On the thread the platform delivered the command on, e.g. the server main thread.
+     */
+    SYNC,
+
+    /**
+     * On the asynchronous executor of the command manager, virtual threads by default.
+     * Checks and parsing still happen on the platform thread; only the execution is moved.
+     */
+    ASYNC
+}
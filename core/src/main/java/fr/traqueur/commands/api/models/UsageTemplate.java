@@ -0,0 +1,135 @@
+package fr.traqueur.commands.api.models;
+
+import fr.traqueur.commands.api.CommandManager;
+import fr.traqueur.commands.api.arguments.Argument;
+import fr.traqueur.commands.api.utils.Patterns;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default usage of a command under one label, split once into the parts that never change
+ * and the subcommands whose visibility depends on the sender.
+ * <p>
+ * A sender only changes the usage through the restricted subcommands it can see, so the
+ * rendered strings are cached by the set of those permissions it holds, packed in a long.
+ * Building the usage of a sender is then one permission check per restricted subcommand
+ * and a map lookup.
+ * </p>
+ *
+ * @param <S> type of the command sender
+ */
+final class UsageTemplate<S> {
+
+    /**
+     * Past this many restricted subcommands the permission set no longer fits in a long,
+     * and usages are rendered without being cached.
+     */
+    private static final int MAX_CACHED_PERMISSIONS = Long.SIZE;
+
+    private final String prefix;
+    private final String[] subNames;
+    /**
+     * Permission of each subcommand, or null when everyone can see it.
+     */
+    private final String[] subPermissions;
+    private final String arguments;
+    private final int restricted;
+    private final Map<Long, String> rendered;
+
+    /**
+     * Build the template of a command under a label.
+     *
+     * @param label   the full label, with dots between the parts
+     * @param command the command
+     */
+    UsageTemplate(String label, Command<?, S> command) {
+        this.prefix = "/" + String.join(" ", Patterns.DOT.split(label));
+
+        List<? extends Command<?, S>> subcommands = command.getSubcommands();
+        this.subNames = new String[subcommands.size()];
+        this.subPermissions = new String[subcommands.size()];
+        int restricted = 0;
+        for (int i = 0; i < subcommands.size(); i++) {
+            Command<?, S> sub = subcommands.get(i);
+            this.subNames[i] = Patterns.DOT.split(sub.getName())[0];
+            String permission = sub.getPermission();
+            if (!permission.isEmpty()) {
+                this.subPermissions[i] = permission;
+                restricted++;
+            }
+        }
+        this.restricted = restricted;
+        this.arguments = arguments(command.getArgs(), command.getOptionalArgs());
+        this.rendered = new ConcurrentHashMap<>();
+    }
+
+    private static String arguments(List<? extends Argument<?>> args, List<? extends Argument<?>> optionalArgs) {
+        List<String> parts = new ArrayList<>(args.size() + optionalArgs.size());
+        for (Argument<?> arg : args) {
+            parts.add("<" + arg.canonicalName() + ">");
+        }
+        for (Argument<?> arg : optionalArgs) {
+            parts.add("[" + arg.canonicalName() + "]");
+        }
+        return String.join(" ", parts);
+    }
+
+    /**
+     * Get the usage as seen by a sender.
+     *
+     * @param sender  the sender
+     * @param manager the manager checking permissions, only used if a subcommand has one
+     * @return the usage
+     */
+    String render(S sender, CommandManager<?, S> manager) {
+        if (this.restricted > MAX_CACHED_PERMISSIONS) {
+            return this.build(sender, manager, 0L, false);
+        }
+        long granted = 0L;
+        int bit = 0;
+        for (String permission : this.subPermissions) {
+            if (permission != null) {
+                if (manager.hasPermission(sender, permission)) {
+                    granted |= 1L << bit;
+                }
+                bit++;
+            }
+        }
+        String usage = this.rendered.get(granted);
+        if (usage == null) {
+            usage = this.build(sender, manager, granted, true);
+            this.rendered.put(granted, usage);
+        }
+        return usage;
+    }
+
+    private String build(S sender, CommandManager<?, S> manager, long granted, boolean fromMask) {
+        StringBuilder usage = new StringBuilder(this.prefix);
+        boolean anySub = false;
+        int bit = 0;
+        for (int i = 0; i < this.subNames.length; i++) {
+            String permission = this.subPermissions[i];
+            boolean visible;
+            if (permission == null) {
+                visible = true;
+            } else {
+                visible = fromMask ? (granted & (1L << bit)) != 0 : manager.hasPermission(sender, permission);
+                bit++;
+            }
+            if (visible) {
+                usage.append(anySub ? "|" : " <").append(this.subNames[i]);
+                anySub = true;
+            }
+        }
+        if (anySub) {
+            usage.append('>');
+        }
+        if (!this.arguments.isEmpty()) {
+            usage.append(anySub ? "|" : " ").append(this.arguments);
+        }
+        return usage.toString();
+    }
+}
@@ -1,6 +1,7 @@
 package fr.traqueur.commands.api.models.collections;
 
 import fr.traqueur.commands.api.models.Command;
+import fr.traqueur.commands.api.parsing.CommandLine;
 import fr.traqueur.commands.api.utils.Patterns;
 
 import java.util.*;
@@ -8,6 +9,21 @@ import java.util.regex.Pattern;
 
 /**
  * A prefix-tree of commands, supporting nested labels and argument fallback.
+ * <p>
+ * The tree is published as an immutable snapshot: lookups read the current root once and
+ * never lock, while writers are serialized, build the next version by copying only the
+ * path they change and swap it in atomically.
+ * </p>
+ * <p>
+ * Aliases are edges to the node of their target rather than copies of it
+ * ({@link #addAlias(String, String)}), which makes the tree a DAG: every alias shares
+ * the command, subcommands and completions of its target, and is re-pointed whenever a
+ * write produces a new version of that target.
+ * </p>
+ * <p>
+ * Once registration is done, {@link #freeze()} compiles the current snapshot into dense
+ * arrays that lookups use until the next write.
+ * </p>
  *
  * @param <T> type of the command context
  * @param <S> type of the command sender
@@ -37,14 +53,118 @@ public class CommandTree<T, S> {
      */
     private static final int MAX_DEPTH = 10;
 
-    private CommandNode<T, S> root;
+    private static final String[] NO_ARGS = new String[0];
+
+    /**
+     * Lock serializing writers. Readers never take it.
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * The published snapshot. Nodes reachable from it are never mutated, writers build
+     * the next version by path copying and swap it in with a single volatile write.
+     */
+    private volatile CommandNode<T, S> root;
+
+    /**
+     * Compiled form of {@link #root}, or null when the tree is not frozen.
+     */
+    private volatile CompiledCommandTree<T, S> compiled;
+
+    /**
+     * Alias edges, from the folded full label of the alias to the one of its target.
+     * Guarded by {@link #writeLock}.
+     */
+    private final Map<String, String> aliases = new HashMap<>();
+
+    /**
+     * Reverse index of {@link #aliases}. Guarded by {@link #writeLock}.
+     */
+    private final Map<String, Set<String>> aliasesByTarget = new HashMap<>();
+
+    /**
+     * Root being built by the current {@link #batch(Runnable)}, or null. Guarded by {@link #writeLock}.
+     */
+    private CommandNode<T, S> pending;
 
     public CommandTree() {
-        this.root = new CommandNode<>(null, null);
+        this.root = CommandNode.root();
     }
 
     public void clear() {
-        this.root = new CommandNode<>(null, null);
+        synchronized (writeLock) {
+            this.aliases.clear();
+            this.aliasesByTarget.clear();
+            publish(CommandNode.root());
+        }
+    }
+
+    /**
+     * Swap in a new root, dropping the compiled view of the previous one. Inside a
+     * {@link #batch(Runnable)}, only record it. Must hold {@link #writeLock}.
+     */
+    private void publish(CommandNode<T, S> newRoot) {
+        if (this.pending != null) {
+            this.pending = newRoot;
+            return;
+        }
+        this.root = newRoot;
+        this.compiled = null;
+    }
+
+    /**
+     * Get the root writers build on: the pending one inside a batch, else the published one.
+     * Must hold {@link #writeLock}.
+     */
+    private CommandNode<T, S> working() {
+        return this.pending != null ? this.pending : this.root;
+    }
+
+    /**
+     * Apply several writes as a single new version of the tree. Readers keep seeing the
+     * previous snapshot until {@code writes} returns (or throws), then everything written so
+     * far is published at once, dropping the compiled view only once.
+     *
+     * @param writes the writes to apply, typically calls to {@link #addCommand(String, Command)}
+     *               and {@link #addAlias(String, String)} on this tree
+     */
+    public void batch(Runnable writes) {
+        synchronized (writeLock) {
+            if (this.pending != null) {
+                writes.run();
+                return;
+            }
+            this.pending = this.root;
+            try {
+                writes.run();
+            } finally {
+                CommandNode<T, S> result = this.pending;
+                this.pending = null;
+                if (result != this.root) {
+                    publish(result);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compile the current snapshot into a flat, array backed trie used by
+     * {@link #resolve(String, String[])} and {@link #findNode(String[])}.
+     * Any later write drops it, call this again once registration is done.
+     */
+    public void freeze() {
+        synchronized (writeLock) {
+            this.compiled = CompiledCommandTree.compile(this.root);
+        }
+    }
+
+    /**
+     * Check whether lookups currently go through the compiled trie.
+     *
+     * @return true if the tree is frozen
+     */
+    public boolean isFrozen() {
+        return compiled != null;
     }
 
     /**
@@ -58,15 +178,183 @@ public class CommandTree<T, S> {
         validateLabel(label);
 
         String[] parts = Patterns.DOT.split(label);
-        CommandNode<T, S> node = root;
+        synchronized (writeLock) {
+            canonicalize(parts, parts.length);
+            publish(relink(insert(working(), parts, 0, command), parts, parts.length));
+        }
+    }
 
-        for (String seg : parts) {
-            String key = seg.toLowerCase();
-            node.hadChildren = true;
-            CommandNode<T, S> finalNode = node;
-            node = node.children.computeIfAbsent(key, k -> new CommandNode<>(k, finalNode));
+    /**
+     * Link {@code alias} to the node at {@code target}, so that both labels resolve to the
+     * same node and share its command, its subcommands and any later change made to them.
+     * An alias must have the same parent as its target, e.g. "m" for "main" or "main.s"
+     * for "main.sub".
+     *
+     * @param alias  full path of the alias
+     * @param target full path of the aliased node
+     * @return true if the alias is linked, false if its path is already used by another node
+     * @throws IllegalArgumentException if a label is invalid, the labels do not share their
+     *                                  parent or the target does not exist
+     */
+    public boolean addAlias(String alias, String target) {
+        validateLabel(alias);
+        validateLabel(target);
+
+        String[] aliasParts = Patterns.DOT.split(alias);
+        String[] targetParts = Patterns.DOT.split(target);
+        int depth = targetParts.length;
+        synchronized (writeLock) {
+            canonicalize(aliasParts, aliasParts.length - 1);
+            canonicalize(targetParts, depth);
+            if (aliasParts.length != depth
+                    || !Arrays.equals(aliasParts, 0, depth - 1, targetParts, 0, depth - 1)) {
+                throw new IllegalArgumentException("Alias '" + alias + "' must have the same parent as '" + target + "'");
+            }
+            CommandNode<T, S> node = find(working(), targetParts, depth);
+            if (node == null) {
+                throw new IllegalArgumentException("Cannot alias '" + alias + "' to missing command '" + target + "'");
+            }
+
+            String aliasKey = join(aliasParts, depth);
+            String targetKey = join(targetParts, depth);
+            if (aliasKey.equals(targetKey)) {
+                return true;
+            }
+            if (aliases.containsKey(aliasKey)) {
+                forgetAlias(aliasKey);
+            } else if (find(working(), aliasParts, depth) != null) {
+                return false;
+            }
+            aliases.put(aliasKey, targetKey);
+            aliasesByTarget.computeIfAbsent(targetKey, k -> new HashSet<>()).add(aliasKey);
+
+            CommandNode<T, S> updated = link(working(), aliasParts, depth - 1, aliasParts[depth - 1], node);
+            publish(relink(updated, aliasParts, depth - 1));
+            return true;
         }
-        node.command = command;
+    }
+
+    /**
+     * Rewrite, in place, the first {@code length} segments of a path so that it goes through
+     * canonical nodes only: folded, and with every alias replaced by its target.
+     */
+    /**
+     * Check whether {@link #addAlias(String, String)} would link an alias, rather than find
+     * its path used by another node.
+     *
+     * @param alias full path of the alias
+     * @return true if the path is free or already an alias
+     * @throws IllegalArgumentException if the label is invalid
+     */
+    public boolean canAlias(String alias) {
+        validateLabel(alias);
+
+        String[] parts = Patterns.DOT.split(alias);
+        int depth = parts.length;
+        synchronized (writeLock) {
+            canonicalize(parts, depth - 1);
+            return aliases.containsKey(join(parts, depth)) || find(working(), parts, depth) == null;
+        }
+    }
+
+    private void canonicalize(String[] parts, int length) {
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = LabelMap.fold(parts[i]);
+        }
+        if (aliases.isEmpty()) {
+            return;
+        }
+        for (int depth = 1; depth <= length; depth++) {
+            String target = aliases.get(join(parts, depth));
+            if (target != null) {
+                // an alias and its target have the same depth
+                System.arraycopy(Patterns.DOT.split(target), 0, parts, 0, depth);
+            }
+        }
+    }
+
+    /**
+     * Re-point the aliases of {@code parts[0..depth)} and of each of its ancestors to their
+     * current node, deepest first: linking an alias copies its parent path, which in turn
+     * gives a new version to the targets of shallower aliases.
+     */
+    private CommandNode<T, S> relink(CommandNode<T, S> root, String[] parts, int depth) {
+        if (aliasesByTarget.isEmpty()) {
+            return root;
+        }
+        for (int d = depth; d >= 1; d--) {
+            Set<String> linked = aliasesByTarget.get(join(parts, d));
+            if (linked == null) {
+                continue;
+            }
+            CommandNode<T, S> target = find(root, parts, d);
+            for (String alias : linked) {
+                String key = alias.substring(alias.lastIndexOf('.') + 1);
+                root = link(root, parts, d - 1, key, target);
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Set (or remove, when {@code child} is null) the child {@code key} of the node at
+     * {@code parts[0..parentDepth)}, copying the path to it.
+     */
+    private CommandNode<T, S> link(CommandNode<T, S> root, String[] parts, int parentDepth, String key, CommandNode<T, S> child) {
+        return link(root, parts, 0, parentDepth, key, child);
+    }
+
+    private CommandNode<T, S> link(CommandNode<T, S> node, String[] parts, int index, int parentDepth, String key, CommandNode<T, S> child) {
+        if (index == parentDepth) {
+            if (node.children.get(key) == child) {
+                return node;
+            }
+            return child == null ? node.withoutChild(key) : node.withChild(key, child);
+        }
+        CommandNode<T, S> next = node.children.get(parts[index]);
+        if (next == null) {
+            return node;
+        }
+        CommandNode<T, S> updated = link(next, parts, index + 1, parentDepth, key, child);
+        return updated == next ? node : node.withChild(parts[index], updated);
+    }
+
+    private void forgetAlias(String aliasKey) {
+        String target = aliases.remove(aliasKey);
+        Set<String> linked = aliasesByTarget.get(target);
+        if (linked != null && linked.remove(aliasKey) && linked.isEmpty()) {
+            aliasesByTarget.remove(target);
+        }
+    }
+
+    private CommandNode<T, S> find(CommandNode<T, S> node, String[] parts, int depth) {
+        for (int i = 0; i < depth && node != null; i++) {
+            node = node.children.get(parts[i]);
+        }
+        return node;
+    }
+
+    private static String join(String[] parts, int depth) {
+        if (depth == 1) {
+            return parts[0];
+        }
+        StringBuilder sb = new StringBuilder(parts[0]);
+        for (int i = 1; i < depth; i++) {
+            sb.append('.').append(parts[i]);
+        }
+        return sb.toString();
+    }
+
+    private CommandNode<T, S> insert(CommandNode<T, S> node, String[] parts, int index, Command<T, S> command) {
+        if (index == parts.length) {
+            return node.withCommand(command);
+        }
+        String key = LabelMap.fold(parts[index]);
+        CommandNode<T, S> child = node.children.get(key);
+        if (child == null) {
+            child = node.newChild(key);
+        }
+        return node.withChild(key, insert(child, parts, index + 1, command));
     }
 
     /**
@@ -125,27 +413,75 @@ public class CommandTree<T, S> {
      * Lookup a base label and raw arguments, returning matching node and leftover args.
      */
     public Optional<MatchResult<T, S>> findNode(String base, String[] rawArgs) {
-        if (base == null) return Optional.empty();
-        CommandNode<T, S> node = root.children.get(base.toLowerCase());
+        CommandNode<T, S> node = resolve(base, rawArgs);
         if (node == null) return Optional.empty();
+        String[] left = Arrays.copyOfRange(rawArgs, node.getArgumentOffset(), rawArgs.length);
+        return Optional.of(new MatchResult<>(node, left));
+    }
+
+    /**
+     * Resolve a base label and raw arguments without allocating.
+     * The leftover arguments of the returned node start at
+     * {@code rawArgs[node.getArgumentOffset()]} in the caller's array.
+     *
+     * @param base    the base label
+     * @param rawArgs the raw arguments following the base label
+     * @return the deepest matching node, or null if nothing matches
+     */
+    public CommandNode<T, S> resolve(String base, String[] rawArgs) {
+        CompiledCommandTree<T, S> frozen = this.compiled;
+        if (frozen != null) return frozen.resolve(base, rawArgs);
+        if (base == null) return null;
+        CommandNode<T, S> node = this.root.children.get(base);
+        if (node == null) return null;
 
         int i = 0;
         while (i < rawArgs.length) {
-            String seg = rawArgs[i].toLowerCase();
-            CommandNode<T, S> child = node.children.get(seg);
+            CommandNode<T, S> child = node.children.get(rawArgs[i]);
             if (child != null) {
                 node = child;
                 i++;
-            } else if (node.hadChildren && node.command == null) {
-                return Optional.empty();
             } else if (node.command != null) {
                 break;
             } else {
-                return Optional.empty();
+                // pure group node (or emptied leaf): unknown segment cannot fall back to arguments
+                return null;
             }
         }
-        String[] left = Arrays.copyOfRange(rawArgs, i, rawArgs.length);
-        return Optional.of(new MatchResult<>(node, left));
+        return node;
+    }
+
+    /**
+     * Resolve a base label and a tokenized command line, reading every segment straight
+     * from the line's input. The leftover arguments of the returned node start at token
+     * {@code node.getArgumentOffset()} of the line.
+     *
+     * @param base the base label
+     * @param line the tokenized arguments following the base label
+     * @return the deepest matching node, or null if nothing matches
+     */
+    public CommandNode<T, S> resolve(String base, CommandLine line) {
+        CompiledCommandTree<T, S> frozen = this.compiled;
+        if (frozen != null) return frozen.resolve(base, line);
+        if (base == null) return null;
+        CommandNode<T, S> node = this.root.children.get(base);
+        if (node == null) return null;
+
+        CharSequence input = line.input();
+        int count = line.size();
+        int i = 0;
+        while (i < count) {
+            CommandNode<T, S> child = node.children.get(input, line.start(i), line.end(i));
+            if (child != null) {
+                node = child;
+                i++;
+            } else if (node.command != null) {
+                break;
+            } else {
+                return null;
+            }
+        }
+        return node;
     }
 
     /**
@@ -153,71 +489,125 @@ public class CommandTree<T, S> {
      */
     public Optional<MatchResult<T, S>> findNode(String[] segments) {
         if (segments == null || segments.length == 0) return Optional.empty();
-        CommandNode<T, S> node = root;
+        CompiledCommandTree<T, S> frozen = this.compiled;
+        if (frozen != null) {
+            return Optional.ofNullable(frozen.find(segments)).map(node -> new MatchResult<>(node, NO_ARGS));
+        }
+        CommandNode<T, S> node = this.root;
         for (String seg : segments) {
-            node = node.children.get(seg.toLowerCase());
+            node = node.children.get(seg);
             if (node == null) return Optional.empty();
         }
-        return Optional.of(new MatchResult<>(node, new String[]{}));
+        return Optional.of(new MatchResult<>(node, NO_ARGS));
     }
 
     /**
-     * Remove a command node by its full label.
+     * Remove a command node by its full label. Removing an alias only removes its edge,
+     * removing a node also removes the aliases pointing to it.
      */
     public void removeCommand(String label, boolean prune) {
-        CommandNode<T, S> target = this.findNode(Patterns.DOT.split(label))
-                .map(MatchResult::node)
-                .orElse(null);
-        if (target == null) return;
-
-        if (prune) {
-            pruneSubtree(target);
-        } else {
-            clearOrPruneEmpty(target);
-        }
-    }
+        String[] parts = Patterns.DOT.split(label);
+        int depth = parts.length;
+        synchronized (writeLock) {
+            canonicalize(parts, depth - 1);
+            String key = join(parts, depth);
+            if (aliases.containsKey(key)) {
+                forgetAlias(key);
+                CommandNode<T, S> updated = link(working(), parts, depth - 1, parts[depth - 1], null);
+                publish(relink(updated, parts, depth - 1));
+                return;
+            }
 
-    private void pruneSubtree(CommandNode<T, S> node) {
-        CommandNode<T, S> parent = node.parent;
-        if (parent != null) {
-            parent.children.remove(node.label);
-            if (parent.children.isEmpty()) {
-                parent.hadChildren = false;
+            CommandNode<T, S> updated = remove(working(), parts, 0, prune);
+            if (updated == null) {
+                return;
+            }
+            if (find(updated, parts, depth) == null && !aliases.isEmpty()) {
+                String prefix = key + ".";
+                for (String alias : new ArrayList<>(aliases.keySet())) {
+                    String target = aliases.get(alias);
+                    if (target.equals(key)) {
+                        forgetAlias(alias);
+                        updated = link(updated, parts, depth - 1, alias.substring(alias.lastIndexOf('.') + 1), null);
+                    } else if (target.startsWith(prefix)) {
+                        // its edge went away with the removed subtree
+                        forgetAlias(alias);
+                    }
+                }
             }
+            publish(relink(updated, parts, depth));
         }
     }
 
-    private void clearOrPruneEmpty(CommandNode<T, S> node) {
-        node.command = null;
-        if (node.children.isEmpty()) {
-            CommandNode<T, S> parent = node.parent;
-            if (parent != null) {
-                parent.children.remove(node.label);
-                if (parent.children.isEmpty()) {
-                    parent.hadChildren = false;
-                }
-            }
+    /**
+     * Rebuild the path to the target without it.
+     *
+     * @return the new version of {@code node}, or null if the target does not exist
+     */
+    private CommandNode<T, S> remove(CommandNode<T, S> node, String[] parts, int index, boolean prune) {
+        String key = parts[index];
+        CommandNode<T, S> child = node.children.get(key);
+        if (child == null) {
+            return null;
         }
+        if (index < parts.length - 1) {
+            CommandNode<T, S> newChild = remove(child, parts, index + 1, prune);
+            return newChild == null ? null : node.withChild(key, newChild);
+        }
+        if (prune || child.children.isEmpty()) {
+            return node.withoutChild(key);
+        }
+        return node.withChild(key, child.withCommand(null));
     }
 
+    /**
+     * Get the currently published root. The returned node and everything reachable
+     * from it is an immutable snapshot.
+     *
+     * @return the root node
+     */
     public CommandNode<T, S> getRoot() {
         return root;
     }
 
     /**
-     * A node representing one segment in the command path.
+     * An immutable node representing one segment in the command path.
      */
-    public static class CommandNode<T, S> {
+    public static final class CommandNode<T, S> {
 
         private final String label;
-        private final CommandNode<T, S> parent;
-        private final Map<String, CommandNode<T, S>> children = new HashMap<>();
-        private Command<T, S> command;
-        private boolean hadChildren = false;
+        private final String fullLabel;
+        private final int depth;
+        private final LabelMap<CommandNode<T, S>> children;
+        private final Command<T, S> command;
 
-        public CommandNode(String label, CommandNode<T, S> parent) {
+        private CommandNode(String label, String fullLabel, int depth, LabelMap<CommandNode<T, S>> children, Command<T, S> command) {
             this.label = label;
-            this.parent = parent;
+            this.fullLabel = fullLabel;
+            this.depth = depth;
+            this.children = children;
+            this.command = command;
+        }
+
+        private static <T, S> CommandNode<T, S> root() {
+            return new CommandNode<>(null, null, 0, LabelMap.empty(), null);
+        }
+
+        private CommandNode<T, S> newChild(String key) {
+            String childFullLabel = this.fullLabel == null ? key : this.fullLabel + "." + key;
+            return new CommandNode<>(key, childFullLabel, depth + 1, LabelMap.empty(), null);
+        }
+
+        private CommandNode<T, S> withCommand(Command<T, S> command) {
+            return new CommandNode<>(label, fullLabel, depth, children, command);
+        }
+
+        private CommandNode<T, S> withChild(String key, CommandNode<T, S> child) {
+            return new CommandNode<>(label, fullLabel, depth, children.with(key, child), command);
+        }
+
+        private CommandNode<T, S> withoutChild(String key) {
+            return new CommandNode<>(label, fullLabel, depth, children.without(key), command);
         }
 
         public String getLabel() {
@@ -225,16 +615,71 @@ public class CommandTree<T, S> {
         }
 
         public String getFullLabel() {
-            if (parent == null || parent.label == null) return label;
-            return parent.getFullLabel() + "." + label;
+            return fullLabel;
+        }
+
+        /**
+         * Get the number of segments of this node's full label, the root being 0.
+         *
+         * @return the depth of this node
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * Get the index, in the raw arguments passed to {@link CommandTree#resolve(String, String[])},
+         * of the first argument that was not consumed by the path to this node.
+         *
+         * @return the argument offset
+         */
+        public int getArgumentOffset() {
+            return depth - 1;
+        }
+
+        /**
+         * Get the command attached to this node without wrapping it.
+         *
+         * @return the command, or null if this node only groups children
+         */
+        public Command<T, S> command() {
+            return command;
         }
 
         public Optional<Command<T, S>> getCommand() {
             return Optional.ofNullable(command);
         }
 
+        /**
+         * Get the child whose label matches {@code label}, ignoring case.
+         *
+         * @param label the label of the child
+         * @return the child, or null if absent
+         */
+        public CommandNode<T, S> getChild(CharSequence label) {
+            return children.get(label, 0, label.length());
+        }
+
+        /**
+         * Get the child whose label matches {@code label[from, to)}, ignoring case.
+         *
+         * @param label the sequence holding the label
+         * @param from  start index, inclusive
+         * @param to    end index, exclusive
+         * @return the child, or null if absent
+         */
+        public CommandNode<T, S> getChild(CharSequence label, int from, int to) {
+            return children.get(label, from, to);
+        }
+
+        /**
+         * Get the children of this node, keyed by their lower-cased label.
+         * Lookups on the returned map ignore case. An alias maps to the node of its target.
+         *
+         * @return an immutable view of the children
+         */
         public Map<String, CommandNode<T, S>> getChildren() {
-            return Collections.unmodifiableMap(children);
+            return children;
         }
     }
 
@@ -0,0 +1,331 @@
+package fr.traqueur.commands.api.models.collections;
+
+import fr.traqueur.commands.api.models.collections.CommandTree.CommandNode;
+import fr.traqueur.commands.api.parsing.CommandLine;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only, array backed form of a {@link CommandTree} snapshot, built by {@link CommandTree#freeze()}.
+ * <p>
+ * Nodes are numbered breadth first. Every node owns a slice of a single open addressing
+ * table holding {@code (hash, edge index + 1)} pairs, sized to at most half full, so that
+ * finding a child is one or two probes in a dense {@code int[]} instead of a walk through
+ * a hash trie. Results are mapped back to the {@link CommandNode}s of the source snapshot.
+ * </p>
+ * <p>
+ * The trie is path compressed: a chain of nodes that carry no command and have a single
+ * child (e.g. {@code admin.user.permission} above {@code group.add}) becomes one edge
+ * holding several segments, so deep hierarchies cost one compiled node per branch point
+ * or command instead of one per segment. The skipped nodes are kept along the edge to
+ * answer lookups that stop in the middle of it.
+ * </p>
+ * <p>
+ * Alias edges of the source DAG stay shared: an alias only adds an edge, with its own
+ * first segment, to the compiled node and segments of its target.
+ * </p>
+ *
+ * @param <T> type of the command context
+ * @param <S> type of the command sender
+ */
+final class CompiledCommandTree<T, S> {
+
+    private static final int ROOT = 0;
+
+    /**
+     * Source node of each compiled node.
+     */
+    private final CommandNode<T, S>[] nodes;
+    /**
+     * First segment of each edge, the one its parent's table is keyed by.
+     */
+    private final String[] edgeLabels;
+    /**
+     * Compiled node each edge leads to.
+     */
+    private final int[] edgeTargets;
+    /**
+     * Nodes along each edge, as a slice of {@link #segmentLabels} and {@link #segmentNodes}.
+     */
+    private final int[] edgeStart;
+    private final int[] edgeLength;
+    private final String[] segmentLabels;
+    private final CommandNode<T, S>[] segmentNodes;
+    private final int[] tableStart;
+    private final int[] tableMask;
+    private final int[] table;
+
+    private CompiledCommandTree(CommandNode<T, S>[] nodes, String[] edgeLabels, int[] edgeTargets,
+                                int[] edgeStart, int[] edgeLength,
+                                String[] segmentLabels, CommandNode<T, S>[] segmentNodes,
+                                int[] tableStart, int[] tableMask, int[] table) {
+        this.nodes = nodes;
+        this.edgeLabels = edgeLabels;
+        this.edgeTargets = edgeTargets;
+        this.edgeStart = edgeStart;
+        this.edgeLength = edgeLength;
+        this.segmentLabels = segmentLabels;
+        this.segmentNodes = segmentNodes;
+        this.tableStart = tableStart;
+        this.tableMask = tableMask;
+        this.table = table;
+    }
+
+    /**
+     * Flatten the tree reachable from {@code root}.
+     *
+     * @param root the root of the snapshot to compile
+     * @param <T>  type of the command context
+     * @param <S>  type of the command sender
+     * @return the compiled tree
+     */
+    @SuppressWarnings("unchecked")
+    static <T, S> CompiledCommandTree<T, S> compile(CommandNode<T, S> root) {
+        List<CommandNode<T, S>> order = new ArrayList<>();
+        Map<CommandNode<T, S>, Integer> index = new IdentityHashMap<>();
+        // edge built for each node an edge starts at: {segment start, segment length, target}
+        Map<CommandNode<T, S>, int[]> chains = new IdentityHashMap<>();
+        List<CommandNode<T, S>> segments = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        List<int[]> edges = new ArrayList<>();
+        List<Integer> firstEdges = new ArrayList<>();
+
+        order.add(root);
+        index.put(root, ROOT);
+        for (int i = 0; i < order.size(); i++) {
+            firstEdges.add(edges.size());
+            order.get(i).getChildren().forEach((key, start) -> {
+                int[] chain = chains.get(start);
+                if (chain == null) {
+                    int from = segments.size();
+                    CommandNode<T, S> end = start;
+                    segments.add(end);
+                    while (end.command() == null && end.getChildren().size() == 1) {
+                        end = end.getChildren().values().iterator().next();
+                        segments.add(end);
+                    }
+                    Integer target = index.get(end);
+                    if (target == null) {
+                        target = order.size();
+                        index.put(end, target);
+                        order.add(end);
+                    }
+                    chain = new int[]{from, segments.size() - from, target};
+                    chains.put(start, chain);
+                }
+                labels.add(key);
+                edges.add(chain);
+            });
+        }
+        firstEdges.add(edges.size());
+
+        int count = order.size();
+        int edgeCount = edges.size();
+        CommandNode<T, S>[] nodes = toArray(order);
+        CommandNode<T, S>[] segmentNodes = toArray(segments);
+        String[] segmentLabels = new String[segmentNodes.length];
+        for (int i = 0; i < segmentNodes.length; i++) {
+            segmentLabels[i] = segmentNodes[i].getLabel();
+        }
+
+        String[] edgeLabels = labels.toArray(new String[0]);
+        int[] edgeTargets = new int[edgeCount];
+        int[] edgeStart = new int[edgeCount];
+        int[] edgeLength = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            int[] chain = edges.get(e);
+            edgeStart[e] = chain[0];
+            edgeLength[e] = chain[1];
+            edgeTargets[e] = chain[2];
+        }
+
+        int[] tableStart = new int[count];
+        int[] tableMask = new int[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int degree = firstEdges.get(i + 1) - firstEdges.get(i);
+            tableStart[i] = size;
+            if (degree == 0) {
+                tableMask[i] = -1;
+                continue;
+            }
+            int slots = Integer.highestOneBit(degree * 2 - 1) << 1;
+            tableMask[i] = slots - 1;
+            size += slots * 2;
+        }
+
+        int[] table = new int[size];
+        for (int i = 0; i < count; i++) {
+            for (int e = firstEdges.get(i); e < firstEdges.get(i + 1); e++) {
+                String label = edgeLabels[e];
+                int hash = LabelMap.hash(label, 0, label.length());
+                int slot = hash & tableMask[i];
+                while (table[tableStart[i] + slot * 2 + 1] != 0) {
+                    slot = (slot + 1) & tableMask[i];
+                }
+                table[tableStart[i] + slot * 2] = hash;
+                table[tableStart[i] + slot * 2 + 1] = e + 1;
+            }
+        }
+        return new CompiledCommandTree<>(nodes, edgeLabels, edgeTargets, edgeStart, edgeLength,
+                segmentLabels, segmentNodes, tableStart, tableMask, table);
+    }
+
+    /**
+     * Same contract as {@link CommandTree#resolve(String, String[])}.
+     *
+     * @param base    the base label
+     * @param rawArgs the raw arguments following the base label
+     * @return the deepest matching node, or null if nothing matches
+     */
+    CommandNode<T, S> resolve(String base, String[] rawArgs) {
+        if (base == null) return null;
+        int edge = edge(ROOT, base, 0, base.length());
+        if (edge < 0) return null;
+
+        int i = 0;
+        while (true) {
+            int start = edgeStart[edge];
+            for (int j = 1; j < edgeLength[edge]; j++, i++) {
+                if (i == rawArgs.length) {
+                    return segmentNodes[start + j - 1];
+                }
+                if (!LabelMap.matches(segmentLabels[start + j], rawArgs[i], 0, rawArgs[i].length())) {
+                    // nodes inside an edge carry no command: no fallback to arguments
+                    return null;
+                }
+            }
+            int node = edgeTargets[edge];
+            if (i == rawArgs.length) {
+                return nodes[node];
+            }
+            int next = edge(node, rawArgs[i], 0, rawArgs[i].length());
+            if (next >= 0) {
+                edge = next;
+                i++;
+            } else if (nodes[node].command() != null) {
+                return nodes[node];
+            } else {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Same contract as {@link CommandTree#resolve(String, CommandLine)}.
+     *
+     * @param base the base label
+     * @param line the tokenized arguments following the base label
+     * @return the deepest matching node, or null if nothing matches
+     */
+    CommandNode<T, S> resolve(String base, CommandLine line) {
+        if (base == null) return null;
+        int edge = edge(ROOT, base, 0, base.length());
+        if (edge < 0) return null;
+
+        CharSequence input = line.input();
+        int count = line.size();
+        int i = 0;
+        while (true) {
+            int start = edgeStart[edge];
+            for (int j = 1; j < edgeLength[edge]; j++, i++) {
+                if (i == count) {
+                    return segmentNodes[start + j - 1];
+                }
+                if (!LabelMap.matches(segmentLabels[start + j], input, line.start(i), line.end(i))) {
+                    return null;
+                }
+            }
+            int node = edgeTargets[edge];
+            if (i == count) {
+                return nodes[node];
+            }
+            int next = edge(node, input, line.start(i), line.end(i));
+            if (next >= 0) {
+                edge = next;
+                i++;
+            } else if (nodes[node].command() != null) {
+                return nodes[node];
+            } else {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Find the node at the exact given path.
+     *
+     * @param segments the path segments
+     * @return the node, or null if absent
+     */
+    CommandNode<T, S> find(String[] segments) {
+        int node = ROOT;
+        int i = 0;
+        while (i < segments.length) {
+            int edge = edge(node, segments[i], 0, segments[i].length());
+            if (edge < 0) return null;
+            i++;
+            int start = edgeStart[edge];
+            for (int j = 1; j < edgeLength[edge]; j++, i++) {
+                if (i == segments.length) {
+                    return segmentNodes[start + j - 1];
+                }
+                if (!LabelMap.matches(segmentLabels[start + j], segments[i], 0, segments[i].length())) {
+                    return null;
+                }
+            }
+            node = edgeTargets[edge];
+        }
+        return nodes[node];
+    }
+
+    /**
+     * Get the number of compiled nodes, the root included.
+     *
+     * @return the node count after path compression
+     */
+    int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Get the number of distinct source nodes, the root included.
+     *
+     * @return the node count before path compression
+     */
+    int sourceSize() {
+        return segmentNodes.length + 1;
+    }
+
+    private int edge(int node, CharSequence key, int from, int to) {
+        int mask = tableMask[node];
+        if (mask < 0) {
+            return -1;
+        }
+        int start = tableStart[node];
+        int hash = LabelMap.hash(key, from, to);
+        int slot = hash & mask;
+        while (true) {
+            int edge = table[start + slot * 2 + 1] - 1;
+            if (edge < 0) {
+                return -1;
+            }
+            if (table[start + slot * 2] == hash && LabelMap.matches(edgeLabels[edge], key, from, to)) {
+                return edge;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Copy nodes into an array. Arrays of a generic type cannot be created, but the
+     * wildcard array only ever holds nodes of the list, so the cast is safe.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T, S> CommandNode<T, S>[] toArray(List<CommandNode<T, S>> nodes) {
+        return nodes.toArray((CommandNode<T, S>[]) new CommandNode<?, ?>[0]);
+    }
+}
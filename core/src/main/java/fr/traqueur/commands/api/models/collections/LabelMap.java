@@ -0,0 +1,419 @@
+package fr.traqueur.commands.api.models.collections;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash array mapped trie used for the children of a {@link CommandTree.CommandNode}.
+ * <p>
+ * Every update returns a new map sharing all untouched branches with the previous one,
+ * so a writer can build the next tree version in {@code O(log32 n)} per segment while
+ * readers keep walking the published one without any lock.
+ * </p>
+ * <p>
+ * Keys are case-insensitive: they are folded to lower case once when stored, and lookups
+ * hash and compare the raw input char by char, so resolving user typed labels never has
+ * to allocate a lower-cased copy. Folding is locale independent (ASCII fast path, then
+ * {@code Character.toLowerCase(Character.toUpperCase(c))}, the same rule as
+ * {@link String#equalsIgnoreCase(String)}).
+ * </p>
+ *
+ * @param <V> type of the values
+ */
+final class LabelMap<V> extends AbstractMap<String, V> {
+
+    private static final LabelMap<?> EMPTY = new LabelMap<>(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private LabelMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> LabelMap<V> empty() {
+        return (LabelMap<V>) EMPTY;
+    }
+
+    /**
+     * Fold a single char to its case-insensitive form.
+     *
+     * @param c the char
+     * @return the folded char
+     */
+    static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Fold a whole key, returning the same instance when it is already folded.
+     *
+     * @param key the key
+     * @return the folded key
+     */
+    static String fold(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (fold(c) != c) {
+                char[] chars = key.toCharArray();
+                for (int j = i; j < chars.length; j++) {
+                    chars[j] = fold(chars[j]);
+                }
+                return new String(chars);
+            }
+        }
+        return key;
+    }
+
+    private static boolean isFolded(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || c >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash of the folded key {@code key[from, to)}, as used to place it in the map.
+     *
+     * @param key  the sequence holding the key
+     * @param from start index, inclusive
+     * @param to   end index, exclusive
+     * @return the spread hash
+     */
+    static int hash(CharSequence key, int from, int to) {
+        int h = 0;
+        if (from == 0 && key instanceof String label && to == label.length() && isFolded(label)) {
+            // already lower case: reuse the hash cached by the string
+            h = label.hashCode();
+        } else {
+            for (int i = from; i < to; i++) {
+                h = 31 * h + fold(key.charAt(i));
+            }
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Check whether a stored (folded) key equals {@code key[from, to)} ignoring case.
+     *
+     * @param stored the stored key
+     * @param key    the sequence holding the looked up key
+     * @param from   start index, inclusive
+     * @param to     end index, exclusive
+     * @return true if they match
+     */
+    static boolean matches(Object stored, CharSequence key, int from, int to) {
+        String label = (String) stored;
+        if (label.length() != to - from) {
+            return false;
+        }
+        for (int i = 0; i < label.length(); i++) {
+            char c = key.charAt(from + i);
+            if (c != label.charAt(i) && fold(c) != label.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (!(key instanceof CharSequence label)) {
+            return null;
+        }
+        return get(label, 0, label.length());
+    }
+
+    /**
+     * Look up the value mapped to the case-insensitive key {@code key[from, to)}.
+     *
+     * @param key  the sequence holding the key
+     * @param from start index, inclusive
+     * @param to   end index, exclusive
+     * @return the value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    V get(CharSequence key, int from, int to) {
+        return (V) root.find(0, hash(key, from, to), key, from, to);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Return a map with the given mapping added or replaced. The key is stored folded.
+     *
+     * @param key   the key
+     * @param value the value, never null
+     * @return the updated map, or this map if nothing changed
+     */
+    LabelMap<V> with(String key, V value) {
+        boolean[] added = new boolean[1];
+        String folded = fold(key);
+        Node newRoot = root.put(0, hash(folded, 0, folded.length()), folded, Objects.requireNonNull(value), added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new LabelMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Return a map without the given key.
+     *
+     * @param key the key to remove
+     * @return the updated map, or this map if the key was absent
+     */
+    LabelMap<V> without(String key) {
+        Node newRoot = root.remove(0, hash(key, 0, key.length()), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new LabelMap<>(newRoot, size - 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super String, ? super V> action) {
+        root.forEach((BiConsumer<String, Object>) (BiConsumer<?, ?>) action);
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                List<Entry<String, V>> entries = new ArrayList<>(size);
+                LabelMap.this.forEach((k, v) -> entries.add(new SimpleImmutableEntry<>(k, v)));
+                return Collections.unmodifiableList(entries).iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private interface Node {
+
+        Object find(int shift, int hash, CharSequence key, int from, int to);
+
+        Node put(int shift, int hash, String key, Object value, boolean[] added);
+
+        Node remove(int shift, int hash, CharSequence key);
+
+        void forEach(BiConsumer<String, Object> action);
+    }
+
+    /**
+     * Node holding up to 32 slots, each slot being either a key/value pair or a sub-node
+     * (stored with a null key).
+     */
+    private static final class BitmapNode implements Node {
+
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] array;
+
+        private BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private static Node merge(int shift, String k1, Object v1, int h2, String k2, Object v2) {
+            int h1 = hash(k1, 0, k1.length());
+            if (h1 == h2) {
+                return new CollisionNode(h1, new Object[]{k1, v1, k2, v2});
+            }
+            boolean[] ignored = new boolean[1];
+            return EMPTY.put(shift, h1, k1, v1, ignored).put(shift, h2, k2, v2, ignored);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        public Object find(int shift, int hash, CharSequence key, int from, int to) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int idx = index(bit) << 1;
+            Object k = array[idx];
+            if (k == null) {
+                return ((Node) array[idx + 1]).find(shift + 5, hash, key, from, to);
+            }
+            return matches(k, key, from, to) ? array[idx + 1] : null;
+        }
+
+        @Override
+        public Node put(int shift, int hash, String key, Object value, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            int idx = index(bit) << 1;
+            if ((bitmap & bit) != 0) {
+                Object k = array[idx];
+                Object v = array[idx + 1];
+                if (k == null) {
+                    Node sub = ((Node) v).put(shift + 5, hash, key, value, added);
+                    return sub == v ? this : replace(idx + 1, sub);
+                }
+                if (key.equals(k)) {
+                    return v == value ? this : replace(idx + 1, value);
+                }
+                added[0] = true;
+                Object[] copy = array.clone();
+                copy[idx] = null;
+                copy[idx + 1] = merge(shift + 5, (String) k, v, hash, key, value);
+                return new BitmapNode(bitmap, copy);
+            }
+            added[0] = true;
+            Object[] copy = new Object[array.length + 2];
+            System.arraycopy(array, 0, copy, 0, idx);
+            copy[idx] = key;
+            copy[idx + 1] = value;
+            System.arraycopy(array, idx, copy, idx + 2, array.length - idx);
+            return new BitmapNode(bitmap | bit, copy);
+        }
+
+        @Override
+        public Node remove(int shift, int hash, CharSequence key) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int idx = index(bit) << 1;
+            Object k = array[idx];
+            if (k == null) {
+                Node sub = (Node) array[idx + 1];
+                Node newSub = sub.remove(shift + 5, hash, key);
+                if (newSub == sub) {
+                    return this;
+                }
+                return newSub == null ? drop(bit, idx) : replace(idx + 1, newSub);
+            }
+            return matches(k, key, 0, key.length()) ? drop(bit, idx) : this;
+        }
+
+        @Override
+        public void forEach(BiConsumer<String, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept((String) array[i], array[i + 1]);
+                }
+            }
+        }
+
+        private Node replace(int idx, Object value) {
+            Object[] copy = array.clone();
+            copy[idx] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private Node drop(int bit, int idx) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, idx);
+            System.arraycopy(array, idx + 2, copy, idx, array.length - idx - 2);
+            return new BitmapNode(bitmap ^ bit, copy);
+        }
+    }
+
+    /**
+     * Node holding keys whose spread hashes are fully equal.
+     */
+    private static final class CollisionNode implements Node {
+
+        private final int hash;
+        private final Object[] array;
+
+        private CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(CharSequence key, int from, int to) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (matches(array[i], key, from, to)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Object find(int shift, int hash, CharSequence key, int from, int to) {
+            int idx = indexOf(key, from, to);
+            return idx < 0 ? null : array[idx + 1];
+        }
+
+        @Override
+        public Node put(int shift, int hash, String key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                Node wrapper = new BitmapNode(1 << ((this.hash >>> shift) & 31), new Object[]{null, this});
+                return wrapper.put(shift, hash, key, value, added);
+            }
+            int idx = indexOf(key, 0, key.length());
+            if (idx >= 0) {
+                if (array[idx + 1] == value) {
+                    return this;
+                }
+                Object[] copy = array.clone();
+                copy[idx + 1] = value;
+                return new CollisionNode(hash, copy);
+            }
+            added[0] = true;
+            Object[] copy = Arrays.copyOf(array, array.length + 2);
+            copy[array.length] = key;
+            copy[array.length + 1] = value;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        public Node remove(int shift, int hash, CharSequence key) {
+            int idx = indexOf(key, 0, key.length());
+            if (idx < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, idx);
+            System.arraycopy(array, idx + 2, copy, idx, array.length - idx - 2);
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        public void forEach(BiConsumer<String, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept((String) array[i], array[i + 1]);
+            }
+        }
+    }
+}
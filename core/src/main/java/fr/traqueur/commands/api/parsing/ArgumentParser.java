@@ -2,6 +2,8 @@ package fr.traqueur.commands.api.parsing;
 
 import fr.traqueur.commands.api.models.Command;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface for platform-specific argument parsing.
  *
@@ -19,4 +21,17 @@ public interface ArgumentParser<T, S, C> {
      * @return the parse result
      */
     ParseResult parse(Command<T, S> command, C context);
+
+    /**
+     * Parse arguments from the given context without blocking on asynchronous converters:
+     * their conversions run concurrently and the result completes once all of them are done.
+     * Parsers without asynchronous conversions simply return their synchronous result.
+     *
+     * @param command the command being executed
+     * @param context the parsing context (raw args or event)
+     * @return the future parse result
+     */
+    default CompletableFuture<ParseResult> parseAsync(Command<T, S> command, C context) {
+        return CompletableFuture.completedFuture(parse(command, context));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,239 @@
+package fr.traqueur.commands.api.parsing;
+
+import java.nio.CharBuffer;
+
+/**
+ * Tokens of a raw command line, kept as offsets into the original {@link CharSequence}.
+ * <p>
+ * Tokens are separated by one or more spaces. A token starting with {@code "} or {@code '}
+ * runs up to the matching closing quote and may contain spaces; the quotes are not part of
+ * the token. A quote with no closing one, like in {@code 'tis fine}, is a literal char of a
+ * plain token, so a stray apostrophe never swallows the rest of the line. Quotes inside a
+ * word are always literal. There is no escape sequence, so a token is always a plain range
+ * of the input and reading it never requires building a new string.
+ * </p>
+ * <p>
+ * Tokenizing only allocates this object and one {@code int[]} holding two offsets per
+ * token; an empty or blank input allocates no array at all.
+ * </p>
+ */
+public final class CommandLine {
+
+    private static final int[] NO_BOUNDS = new int[0];
+
+    private final CharSequence input;
+    /**
+     * {@code [start, end)} of each token, flattened. The start of a quoted token is stored
+     * complemented ({@code ~start}) so the quotes can be found back without rescanning.
+     */
+    private final int[] bounds;
+
+    private CommandLine(CharSequence input, int[] bounds) {
+        this.input = input;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Split a raw command line into tokens.
+     *
+     * @param input the raw command line, without the command label
+     * @return the tokenized line
+     */
+    public static CommandLine tokenize(CharSequence input) {
+        int count = scan(input, null);
+        if (count == 0) {
+            return new CommandLine(input, NO_BOUNDS);
+        }
+        int[] bounds = new int[count * 2];
+        scan(input, bounds);
+        return new CommandLine(input, bounds);
+    }
+
+    /**
+     * Walk the input once, counting the tokens and, when {@code bounds} is given, recording them.
+     */
+    private static int scan(CharSequence input, int[] bounds) {
+        int length = input.length();
+        int count = 0;
+        int i = 0;
+        while (true) {
+            while (i < length && input.charAt(i) == ' ') {
+                i++;
+            }
+            if (i == length) {
+                return count;
+            }
+            char c = input.charAt(i);
+            int start;
+            int end;
+            int close = isQuote(c) ? indexOf(input, c, i + 1) : -1;
+            boolean quoted = close >= 0;
+            if (quoted) {
+                start = i + 1;
+                end = close;
+                i = close + 1;
+            } else {
+                start = i;
+                while (i < length && input.charAt(i) != ' ') {
+                    i++;
+                }
+                end = i;
+            }
+            if (bounds != null) {
+                bounds[count * 2] = quoted ? ~start : start;
+                bounds[count * 2 + 1] = end;
+            }
+            count++;
+        }
+    }
+
+    private static int indexOf(CharSequence input, char c, int from) {
+        for (int i = from, length = input.length(); i < length; i++) {
+            if (input.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isQuote(char c) {
+        return c == '"' || c == '\'';
+    }
+
+    /**
+     * Get the original input.
+     *
+     * @return the raw command line
+     */
+    public CharSequence input() {
+        return input;
+    }
+
+    /**
+     * Get the number of tokens.
+     *
+     * @return the token count
+     */
+    public int size() {
+        return bounds.length >> 1;
+    }
+
+    /**
+     * Check whether the line holds no token.
+     *
+     * @return true if the input is empty or blank
+     */
+    public boolean isEmpty() {
+        return bounds.length == 0;
+    }
+
+    /**
+     * Get the offset in the input of the first char of a token, quotes excluded.
+     *
+     * @param index the token index
+     * @return the start offset, inclusive
+     */
+    public int start(int index) {
+        int start = bounds[index * 2];
+        return start < 0 ? ~start : start;
+    }
+
+    /**
+     * Get the offset in the input just after the last char of a token, quotes excluded.
+     *
+     * @param index the token index
+     * @return the end offset, exclusive
+     */
+    public int end(int index) {
+        return bounds[index * 2 + 1];
+    }
+
+    /**
+     * Get a token as a view of the input.
+     *
+     * @param index the token index
+     * @return the token, without its quotes
+     */
+    public CharSequence token(int index) {
+        return input.subSequence(start(index), end(index));
+    }
+
+    /**
+     * Get a token as a string.
+     *
+     * @param index the token index
+     * @return the token, without its quotes
+     */
+    public String get(int index) {
+        return token(index).toString();
+    }
+
+    /**
+     * Get the input from a token to the end of the last one, exactly as it was typed:
+     * quotes and repeated spaces inside the range are kept. This is the value of a
+     * greedy argument starting at that token.
+     * <p>
+     * The result is a view of the input: nothing is copied until {@code toString()} is called.
+     * </p>
+     *
+     * @param index the index of the first token
+     * @return the remaining input, empty if {@code index} is past the last token
+     */
+    public CharSequence rest(int index) {
+        int count = size();
+        if (index >= count) {
+            return "";
+        }
+        return CharBuffer.wrap(input, rawStart(index), rawEnd(count - 1));
+    }
+
+    /**
+     * Get the length of {@link #rest(int)}, computed from the token offsets alone.
+     *
+     * @param index the index of the first token
+     * @return the length of the remaining input, 0 if {@code index} is past the last token
+     */
+    public int restLength(int index) {
+        int count = size();
+        if (index >= count) {
+            return 0;
+        }
+        return rawEnd(count - 1) - rawStart(index);
+    }
+
+    /**
+     * Get the tokens as strings, with an extra empty token when the input is blank or ends
+     * with a space, so that the last element is always the word being completed.
+     *
+     * @return the tokens to complete
+     */
+    public String[] toCompletionArray() {
+        int count = size();
+        int length = input.length();
+        boolean open = length == 0 || input.charAt(length - 1) == ' ';
+        String[] args = new String[open ? count + 1 : count];
+        for (int i = 0; i < count; i++) {
+            args[i] = get(i);
+        }
+        if (open) {
+            args[count] = "";
+        }
+        return args;
+    }
+
+    /**
+     * Offset of a token including its opening quote, if it has one.
+     */
+    private int rawStart(int index) {
+        int start = bounds[index * 2];
+        return start < 0 ? ~start - 1 : start;
+    }
+
+    /**
+     * Offset just after a token including its closing quote, if it has one.
+     */
+    private int rawEnd(int index) {
+        int end = end(index);
+        return bounds[index * 2] < 0 ? end + 1 : end;
+    }
+}
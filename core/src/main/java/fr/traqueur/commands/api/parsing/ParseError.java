@@ -25,11 +25,17 @@ public record ParseError(Type type,
                 "Missing required argument: " + argName);
     }
 
+    public static ParseError timeout(String argName, String input) {
+        return new ParseError(Type.TIMEOUT, argName, input,
+                "Timed out converting '" + input + "' for argument '" + argName + "'");
+    }
+
     public enum Type {
         TYPE_NOT_FOUND,
         CONVERSION_FAILED,
         ARGUMENT_TOO_LONG,
         MISSING_REQUIRED,
-        INVALID_FORMAT
+        INVALID_FORMAT,
+        TIMEOUT
     }
 }
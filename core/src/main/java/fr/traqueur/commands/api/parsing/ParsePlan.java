@@ -0,0 +1,248 @@
+package fr.traqueur.commands.api.parsing;
+
+import fr.traqueur.commands.api.arguments.Argument;
+import fr.traqueur.commands.api.arguments.ArgumentConverter;
+import fr.traqueur.commands.api.arguments.Arguments;
+import fr.traqueur.commands.api.arguments.AsyncArgumentConverter;
+import fr.traqueur.commands.api.arguments.DoubleConverter;
+import fr.traqueur.commands.api.arguments.IntConverter;
+import fr.traqueur.commands.api.arguments.LongConverter;
+import fr.traqueur.commands.api.models.Command;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Immutable view of the arguments of a {@link Command}, compiled once so that parsing
+ * and usage checks walk plain arrays instead of the command's lists and the converter map.
+ * <p>
+ * Slots hold the required arguments followed by the optional ones, each with the converter
+ * resolved for its type (null when the type has no converter, or for the infinite slot).
+ * A plan is tied to the converter registry version it was compiled against, so a parser
+ * can tell a stale plan from a fresh one after new converters are registered.
+ * </p>
+ *
+ * @param <S> type of the command sender
+ */
+public final class ParsePlan<S> {
+
+    private static final byte OBJECT = 0;
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte ASYNC = 4;
+
+    private final Argument<S>[] arguments;
+    private final ArgumentConverter.Wrapper<?>[] converters;
+    /**
+     * How each slot is converted, decided once here: checking a converter against the
+     * primitive converter interfaces on every call is a slow path in the JVM.
+     */
+    private final byte[] kinds;
+    private final int required;
+    private final int infiniteIndex;
+    private final boolean async;
+    private final int version;
+
+    private ParsePlan(Argument<S>[] arguments, ArgumentConverter.Wrapper<?>[] converters, byte[] kinds,
+                      int required, int infiniteIndex, boolean async, int version) {
+        this.arguments = arguments;
+        this.converters = converters;
+        this.kinds = kinds;
+        this.required = required;
+        this.infiniteIndex = infiniteIndex;
+        this.async = async;
+        this.version = version;
+    }
+
+    /**
+     * Compile the arguments of a command.
+     *
+     * @param command    the command
+     * @param converters the converters, keyed by argument type
+     * @param version    the version of the converter registry
+     * @param <S>        type of the command sender
+     * @return the compiled plan
+     */
+    // generic arrays cannot be created: the wildcard arrays only ever hold the command's own arguments
+    @SuppressWarnings("unchecked")
+    public static <S> ParsePlan<S> compile(Command<?, S> command,
+                                           Map<Class<?>, ArgumentConverter.Wrapper<?>> converters,
+                                           int version) {
+        List<Argument<S>> args = command.getArgs();
+        List<Argument<S>> optional = command.getOptionalArgs();
+        int size = args.size() + optional.size();
+
+        Argument<S>[] arguments = (Argument<S>[]) new Argument<?>[size];
+        ArgumentConverter.Wrapper<?>[] resolved = new ArgumentConverter.Wrapper<?>[size];
+        byte[] kinds = new byte[size];
+        int infiniteIndex = -1;
+        boolean async = false;
+        for (int i = 0; i < size; i++) {
+            Argument<S> arg = i < args.size() ? args.get(i) : optional.get(i - args.size());
+            arguments[i] = arg;
+            if (arg.isInfinite()) {
+                // nothing after the first infinite argument can ever be reached
+                if (infiniteIndex < 0) {
+                    infiniteIndex = i;
+                }
+            } else {
+                resolved[i] = converters.get(arg.type().key());
+                kinds[i] = kind(resolved[i]);
+                // only slots before the infinite argument are ever converted
+                async |= kinds[i] == ASYNC && infiniteIndex < 0;
+            }
+        }
+        return new ParsePlan<>(arguments, resolved, kinds, args.size(), infiniteIndex, async, version);
+    }
+
+    private static byte kind(ArgumentConverter.Wrapper<?> wrapper) {
+        if (wrapper == null) return OBJECT;
+        ArgumentConverter<?> converter = wrapper.converter();
+        if (converter instanceof IntConverter) return INT;
+        if (converter instanceof LongConverter) return LONG;
+        if (converter instanceof DoubleConverter) return DOUBLE;
+        if (converter instanceof AsyncArgumentConverter) return ASYNC;
+        return OBJECT;
+    }
+
+    /**
+     * Convert the input of a slot and store it in the arguments. Values of primitive
+     * converters are stored unboxed; asynchronous converters are waited for.
+     *
+     * @param index  the slot, which must have a converter
+     * @param input  the raw input
+     * @param target the arguments to fill
+     * @return true if the input was converted
+     */
+    public boolean convert(int index, String input, Arguments target) {
+        ArgumentConverter.Wrapper<?> wrapper = converters[index];
+        byte kind = kinds[index];
+        if (kind == OBJECT || kind == ASYNC) {
+            return wrapper.convertAndApply(input, arguments[index].name(), target);
+        }
+        if (input == null) {
+            return false;
+        }
+        String name = arguments[index].name();
+        // invalid input is rejected up front when the converter can tell, without throwing
+        try {
+            switch (kind) {
+                case INT -> {
+                    IntConverter converter = (IntConverter) wrapper.converter();
+                    if (!converter.accepts(input)) return false;
+                    target.addInt(name, converter.applyAsInt(input));
+                }
+                case LONG -> {
+                    LongConverter converter = (LongConverter) wrapper.converter();
+                    if (!converter.accepts(input)) return false;
+                    target.addLong(name, converter.applyAsLong(input));
+                }
+                default -> {
+                    DoubleConverter converter = (DoubleConverter) wrapper.converter();
+                    if (!converter.accepts(input)) return false;
+                    target.addDouble(name, converter.applyAsDouble(input));
+                }
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Check whether a slot has an {@link AsyncArgumentConverter}.
+     *
+     * @param index the slot
+     * @return true if the slot is converted asynchronously
+     */
+    public boolean isAsync(int index) {
+        return kinds[index] == ASYNC;
+    }
+
+    /**
+     * Check whether any reachable slot has an {@link AsyncArgumentConverter}.
+     *
+     * @return true if parsing the command may have to wait for conversions
+     */
+    public boolean hasAsync() {
+        return async;
+    }
+
+    /**
+     * Start the conversion of an asynchronous slot.
+     *
+     * @param index the slot, which must be asynchronous
+     * @param input the raw input
+     * @return the future value, completed with null if the input cannot be converted
+     */
+    public CompletableFuture<?> convertAsync(int index, String input) {
+        return ((AsyncArgumentConverter<?>) converters[index].converter()).applyAsync(input);
+    }
+
+    /**
+     * Get the number of argument slots.
+     *
+     * @return the number of required and optional arguments
+     */
+    public int size() {
+        return arguments.length;
+    }
+
+    /**
+     * Get the argument of a slot.
+     *
+     * @param index the slot
+     * @return the argument
+     */
+    public Argument<S> argument(int index) {
+        return arguments[index];
+    }
+
+    /**
+     * Get the converter resolved for a slot.
+     *
+     * @param index the slot
+     * @return the converter, or null if the type has none or the slot is infinite
+     */
+    public ArgumentConverter.Wrapper<?> converter(int index) {
+        return converters[index];
+    }
+
+    /**
+     * Get the number of required arguments, which is also the minimum argument count.
+     *
+     * @return the number of required arguments
+     */
+    public int minArgs() {
+        return required;
+    }
+
+    /**
+     * Get the maximum argument count.
+     *
+     * @return the number of slots, or {@link Integer#MAX_VALUE} if an argument is infinite
+     */
+    public int maxArgs() {
+        return infiniteIndex >= 0 ? Integer.MAX_VALUE : arguments.length;
+    }
+
+    /**
+     * Get the slot of the infinite argument.
+     *
+     * @return the slot, or -1 if the command has no infinite argument
+     */
+    public int infiniteIndex() {
+        return infiniteIndex;
+    }
+
+    /**
+     * Get the version of the converter registry this plan was compiled against.
+     *
+     * @return the registry version
+     */
+    public int version() {
+        return version;
+    }
+}
@@ -0,0 +1,187 @@
+package fr.traqueur.commands.api.permissions;
+
+import fr.traqueur.commands.api.models.CommandPlatform;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * The class PermissionCache.
+ * <p> Remembers the permission decisions of {@link CommandPlatform#hasPermission(Object, String)}
+ * for each sender. Permissions are checked for the command, for the default usage and for
+ * every suggestion candidate, so the same few decisions are asked for over and over. </p>
+ * <p> Decisions are grouped by sender (see {@link CommandPlatform#getPermissionKey(Object)})
+ * and a sender's decisions all expire together, {@code ttl} after the first of them.
+ * Platforms invalidate a sender as soon as its permissions may have changed (quit, role
+ * change, permission recalculation...); the expiry only bounds how long a change the
+ * platform has no event for goes unnoticed. At most {@code maximumSenders} senders are
+ * remembered: expired senders are dropped first, then everything if that is not enough. </p>
+ * <p> The key returned by {@link CommandPlatform#getPermissionKey(Object)} must be stable
+ * across the sender objects of a same sender (e.g. a UUID rather than the player object),
+ * otherwise a sender is never found again and never invalidated. </p>
+ * <p> The cache is disabled by default, see
+ * {@link fr.traqueur.commands.api.CommandManager#setPermissionCache(PermissionCache)}. </p>
+ */
+public final class PermissionCache {
+
+    private static final Duration DEFAULT_TTL = Duration.ofSeconds(5);
+    private static final int DEFAULT_MAXIMUM_SENDERS = 4096;
+
+    private final long ttlNanos;
+    private final int maximumSenders;
+    private final LongSupplier ticker;
+    private final Map<Object, Decisions> senders;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Create a permission cache keeping decisions 5 seconds, for at most 4096 senders.
+     */
+    public PermissionCache() {
+        this(DEFAULT_TTL, DEFAULT_MAXIMUM_SENDERS);
+    }
+
+    /**
+     * Create a permission cache.
+     *
+     * @param ttl            How long the decisions of a sender are kept.
+     * @param maximumSenders The maximum number of senders remembered.
+     */
+    public PermissionCache(Duration ttl, int maximumSenders) {
+        this(ttl, maximumSenders, System::nanoTime);
+    }
+
+    /**
+     * Create a permission cache reading time from the given clock, in nanoseconds.
+     *
+     * @param ttl            How long the decisions of a sender are kept.
+     * @param maximumSenders The maximum number of senders remembered.
+     * @param ticker         The clock.
+     */
+    PermissionCache(Duration ttl, int maximumSenders, LongSupplier ticker) {
+        Objects.requireNonNull(ttl, "Duration cannot be null");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        if (maximumSenders <= 0) {
+            throw new IllegalArgumentException("Maximum senders must be positive");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maximumSenders = maximumSenders;
+        this.ticker = ticker;
+        this.senders = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Check a permission of a sender, asking the platform only if the decision is not cached.
+     *
+     * @param platform   The platform deciding permissions.
+     * @param sender     The sender.
+     * @param permission The permission.
+     * @param <S>        The type of the sender.
+     * @return true if the sender has the permission.
+     */
+    public <S> boolean hasPermission(CommandPlatform<?, S> platform, S sender, String permission) {
+        Object key = platform.getPermissionKey(sender);
+        if (key == null) {
+            misses.increment();
+            return platform.hasPermission(sender, permission);
+        }
+        long now = ticker.getAsLong();
+        Decisions decisions = senders.get(key);
+        if (decisions == null || now - decisions.expiresAt >= 0) {
+            if (senders.size() >= maximumSenders) {
+                this.trim(now);
+            }
+            decisions = new Decisions(now + ttlNanos);
+            senders.put(key, decisions);
+        }
+        Boolean cached = decisions.values.get(permission);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        boolean result = platform.hasPermission(sender, permission);
+        decisions.values.put(permission, result);
+        return result;
+    }
+
+    private void trim(long now) {
+        senders.values().removeIf(decisions -> now - decisions.expiresAt >= 0);
+        if (senders.size() >= maximumSenders) {
+            senders.clear();
+        }
+    }
+
+    /**
+     * Forget the decisions of a sender.
+     *
+     * @param key The permission key of the sender, see {@link CommandPlatform#getPermissionKey(Object)}.
+     */
+    public void invalidate(Object key) {
+        senders.remove(key);
+    }
+
+    /**
+     * Forget every decision, e.g. when a role or a group changed for everyone.
+     */
+    public void invalidateAll() {
+        senders.clear();
+    }
+
+    /**
+     * Get the number of senders with cached decisions, expired ones included until they are checked again.
+     *
+     * @return The number of senders.
+     */
+    public int size() {
+        return senders.size();
+    }
+
+    /**
+     * Get the number of checks answered from the cache.
+     *
+     * @return The hit count.
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of checks that reached the platform.
+     *
+     * @return The miss count.
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the share of checks answered from the cache.
+     *
+     * @return The hit rate, between 0 and 1, or 0 if nothing was checked yet.
+     */
+    public double hitRate() {
+        long hits = this.hits.sum();
+        long total = hits + this.misses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * The decisions of one sender, expiring together.
+     */
+    private static final class Decisions {
+        private final long expiresAt;
+        private final Map<String, Boolean> values = new ConcurrentHashMap<>();
+
+        private Decisions(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
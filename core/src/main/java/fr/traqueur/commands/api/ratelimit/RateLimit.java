@@ -0,0 +1,52 @@
+package fr.traqueur.commands.api.ratelimit;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The record RateLimit.
+ * <p> How often a sender may run a command: at most {@code permits} invocations in a burst,
+ * then one more every {@code per / permits}. A cooldown is a limit of one permit. </p>
+ *
+ * @param permits The number of invocations allowed in a burst.
+ * @param per     The time it takes to earn back every permit.
+ */
+public record RateLimit(int permits, Duration per) {
+
+    /**
+     * Constructor for RateLimit.
+     *
+     * @param permits The number of invocations allowed in a burst.
+     * @param per     The time it takes to earn back every permit.
+     */
+    public RateLimit {
+        Objects.requireNonNull(per, "Rate limit period cannot be null");
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Rate limit permits must be positive");
+        }
+        if (per.isNegative() || per.isZero()) {
+            throw new IllegalArgumentException("Rate limit period must be positive");
+        }
+    }
+
+    /**
+     * Allow a number of invocations per period.
+     *
+     * @param permits The number of invocations allowed in a burst.
+     * @param per     The time it takes to earn back every permit.
+     * @return The rate limit.
+     */
+    public static RateLimit of(int permits, Duration per) {
+        return new RateLimit(permits, per);
+    }
+
+    /**
+     * Allow one invocation, then nothing until the cooldown is over.
+     *
+     * @param cooldown The time between two invocations.
+     * @return The rate limit.
+     */
+    public static RateLimit cooldown(Duration cooldown) {
+        return new RateLimit(1, cooldown);
+    }
+}
@@ -0,0 +1,126 @@
+package fr.traqueur.commands.api.ratelimit;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * The class RateLimiter.
+ * <p> Token buckets enforcing a {@link RateLimit} for each sender. A bucket is a single
+ * {@link AtomicLong} holding the time at which it will be full again, so taking a permit is
+ * one compare-and-set and never blocks: a sender is allowed while that time is less than
+ * a full bucket ahead of now. </p>
+ * <p> A bucket that filled up again is the same as no bucket, so full buckets are dropped
+ * while walking the senders, at most once per refill period. A sender racing with that walk
+ * may get one invocation for free, which a rate limit can afford. </p>
+ */
+public final class RateLimiter {
+
+    private static final long MIN_SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateLimit limit;
+    /**
+     * Time to earn back one permit.
+     */
+    private final long interval;
+    /**
+     * How far ahead of now the full time of a bucket may be while a permit is left.
+     */
+    private final long tolerance;
+    private final long sweepInterval;
+    private final LongSupplier ticker;
+    private final Map<Object, AtomicLong> buckets;
+    private final AtomicLong nextSweep;
+
+    /**
+     * Create a rate limiter.
+     *
+     * @param limit The rate limit to enforce.
+     */
+    public RateLimiter(RateLimit limit) {
+        this(limit, System::nanoTime);
+    }
+
+    /**
+     * Create a rate limiter reading time from the given clock, in nanoseconds.
+     *
+     * @param limit  The rate limit to enforce.
+     * @param ticker The clock.
+     */
+    RateLimiter(RateLimit limit, LongSupplier ticker) {
+        this.limit = Objects.requireNonNull(limit, "Rate limit cannot be null");
+        this.ticker = ticker;
+        this.interval = Math.max(1L, limit.per().toNanos() / limit.permits());
+        this.tolerance = this.interval * (limit.permits() - 1);
+        this.sweepInterval = Math.max(MIN_SWEEP_INTERVAL, this.interval + this.tolerance);
+        this.buckets = new ConcurrentHashMap<>();
+        this.nextSweep = new AtomicLong(ticker.getAsLong() + this.sweepInterval);
+    }
+
+    /**
+     * Take a permit for a sender.
+     *
+     * @param key The key of the sender, see {@link fr.traqueur.commands.api.models.CommandPlatform#getSenderKey(Object)}.
+     * @return 0 if the sender may go on, otherwise the time in nanoseconds until its next permit.
+     */
+    public long tryAcquire(Object key) {
+        long now = this.ticker.getAsLong();
+        this.sweepIfDue(now);
+
+        AtomicLong bucket = this.buckets.get(key);
+        if (bucket == null) {
+            bucket = this.buckets.putIfAbsent(key, new AtomicLong(now + this.interval));
+            if (bucket == null) {
+                return 0L;
+            }
+        }
+        while (true) {
+            long full = bucket.get();
+            long start = full - now > 0 ? full : now;
+            long wait = start - now - this.tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(full, start + this.interval)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Give a sender all its permits back.
+     *
+     * @param key The key of the sender.
+     */
+    public void reset(Object key) {
+        this.buckets.remove(key);
+    }
+
+    /**
+     * Get the number of senders with a bucket that is not full.
+     *
+     * @return The number of tracked senders, including those not swept yet.
+     */
+    public int size() {
+        return this.buckets.size();
+    }
+
+    /**
+     * Get the enforced rate limit.
+     *
+     * @return The rate limit.
+     */
+    public RateLimit limit() {
+        return this.limit;
+    }
+
+    private void sweepIfDue(long now) {
+        long next = this.nextSweep.get();
+        if (now - next >= 0 && this.nextSweep.compareAndSet(next, now + this.sweepInterval)) {
+            this.buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+    }
+}
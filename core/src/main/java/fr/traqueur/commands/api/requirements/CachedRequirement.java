@@ -0,0 +1,315 @@
+package fr.traqueur.commands.api.requirements;
+
+import fr.traqueur.commands.api.models.CommandPlatform;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * The class CachedRequirement.
+ * <p> A {@link Requirement} remembering the result of another one for each sender, for
+ * requirements that are expensive to check (a region lookup, a database query...). The same
+ * requirement is checked on every invocation and, while completing, for every suggestion of
+ * every keystroke; with this wrapper only the first check of a sender reaches the delegate. </p>
+ * <p> Results are kept either {@code expireAfter} a duration, or until they are invalidated
+ * if the requirement is {@code stableUntilInvalidated} (e.g. a requirement on the rank of a
+ * player, invalidated when the rank changes). At most {@code maximumSize} senders are
+ * remembered, the least recently checked one being evicted beyond that. The cache is safe to
+ * use from several threads; the delegate is never called while the cache is locked. </p>
+ * <p> Senders are keyed by {@link CommandPlatform#getRequirementKey(Object)} (a UUID, a user
+ * in a channel...) once the requirement is registered, so results do not keep platform sender
+ * objects alive, unless another key is given with {@code keyedBy}. A sender whose key is null
+ * is checked by the delegate every time.
+ * {@link fr.traqueur.commands.api.CommandManager#invalidateRequirements(Object)}
+ * invalidates a sender in every cached requirement of the registered commands. </p>
+ * <p> A result is never stored if the sender was invalidated while the delegate was checking
+ * it, so an invalidation always wins over a check in progress. </p>
+ *
+ * <pre>{@code
+ * command.addRequirements(CachedRequirement.of(new ZoneRequirement(zone))
+ *         .expireAfter(Duration.ofSeconds(2))
+ *         .build());
+ * }</pre>
+ *
+ * @param <S> The type of the sender that will use this requirement.
+ */
+public final class CachedRequirement<S> implements Requirement<S> {
+
+    /**
+     * Time to live of the results of a requirement stable until invalidated.
+     */
+    private static final long NEVER = -1;
+
+    private final Requirement<S> delegate;
+    private final long ttlNanos;
+    private final boolean customKey;
+    private volatile Function<? super S, ?> keyFunction;
+    private final LongSupplier ticker;
+    private final Map<Object, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private CachedRequirement(Builder<S> builder) {
+        this.delegate = builder.delegate;
+        this.ttlNanos = builder.ttlNanos;
+        this.keyFunction = builder.keyFunction;
+        this.customKey = builder.keyFunction != null;
+        this.ticker = builder.ticker;
+        int maximumSize = builder.maximumSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Start building a cache in front of a requirement.
+     *
+     * @param delegate The requirement to cache.
+     * @param <S>      The type of the sender.
+     * @return The builder.
+     */
+    public static <S> Builder<S> of(Requirement<S> delegate) {
+        return new Builder<>(delegate);
+    }
+
+    /**
+     * Check the requirement, from the cache if it holds a live result for the sender.
+     *
+     * @param sender The sender
+     * @return true if the sender meet the requirement, false otherwise
+     */
+    @Override
+    public boolean check(S sender) {
+        Object key = this.key(sender);
+        if (key == null) {
+            misses.increment();
+            return delegate.check(sender);
+        }
+        long now = ticker.getAsLong();
+        // marks the key as being checked; an invalidation while the delegate runs removes it
+        Entry loading = new Entry(false, 0L, true);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.loading
+                    && (entry.expiresAt == NEVER || now - entry.expiresAt < 0)) {
+                hits.increment();
+                return entry.result;
+            }
+            entries.put(key, loading);
+        }
+
+        misses.increment();
+        boolean result = delegate.check(sender);
+        synchronized (entries) {
+            // only store the result if nothing invalidated or replaced the key meanwhile
+            if (entries.get(key) == loading) {
+                entries.put(key, new Entry(result, ttlNanos == NEVER ? NEVER : now + ttlNanos, false));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the error message of the delegate.
+     *
+     * @return The error message
+     */
+    @Override
+    public String errorMessage() {
+        return delegate.errorMessage();
+    }
+
+    /**
+     * Get the requirement behind the cache.
+     *
+     * @return The delegate requirement.
+     */
+    public Requirement<S> delegate() {
+        return delegate;
+    }
+
+    /**
+     * Forget the cached result of a sender.
+     *
+     * @param sender The sender to forget.
+     */
+    public void invalidate(S sender) {
+        Object key = this.key(sender);
+        if (key != null) {
+            this.invalidateKey(key);
+        }
+    }
+
+    private Object key(S sender) {
+        Function<? super S, ?> function = this.keyFunction;
+        return function != null ? function.apply(sender) : sender;
+    }
+
+    /**
+     * Key senders by {@link CommandPlatform#getRequirementKey(Object)} unless a key was given with
+     * {@code keyedBy}. Called by the command manager when the requirement is registered, so
+     * that cached results do not hold on to platform sender objects (e.g. players who left).
+     *
+     * @param platform The platform of the commands using this requirement.
+     */
+    public void bind(CommandPlatform<?, S> platform) {
+        if (!this.customKey) {
+            this.keyFunction = platform::getRequirementKey;
+            this.invalidateAll();
+        }
+    }
+
+    /**
+     * Forget the cached result of a sender, by its key.
+     *
+     * @param key The key of the sender to forget.
+     */
+    public void invalidateKey(Object key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Forget every cached result.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Get the number of cached senders, expired ones included until they are checked again.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Get the number of checks answered from the cache.
+     *
+     * @return The hit count.
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of checks that had to call the delegate.
+     *
+     * @return The miss count.
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * A cached result, or the mark of a check in progress if {@code loading}.
+     */
+    private record Entry(boolean result, long expiresAt, boolean loading) {
+    }
+
+    /**
+     * Builder of a {@link CachedRequirement}.
+     *
+     * @param <S> The type of the sender.
+     */
+    public static final class Builder<S> {
+
+        private final Requirement<S> delegate;
+        private int maximumSize = 1024;
+        private long ttlNanos = Duration.ofSeconds(1).toNanos();
+        private Function<? super S, ?> keyFunction;
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder(Requirement<S> delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "Requirement cannot be null");
+        }
+
+        /**
+         * Set the maximum number of cached senders (1024 by default).
+         *
+         * @param maximumSize The maximum number of entries.
+         * @return The builder.
+         */
+        public Builder<S> maximumSize(int maximumSize) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("Maximum size must be positive");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Set how long the result of a sender is kept (one second by default).
+         *
+         * @param ttl The time to live of an entry.
+         * @return The builder.
+         */
+        public Builder<S> expireAfter(Duration ttl) {
+            Objects.requireNonNull(ttl, "Duration cannot be null");
+            if (ttl.isNegative() || ttl.isZero()) {
+                throw new IllegalArgumentException("Duration must be positive");
+            }
+            this.ttlNanos = ttl.toNanos();
+            return this;
+        }
+
+        /**
+         * Keep the result of a sender until it is invalidated or evicted.
+         *
+         * @return The builder.
+         */
+        public Builder<S> stableUntilInvalidated() {
+            this.ttlNanos = NEVER;
+            return this;
+        }
+
+        /**
+         * Set how senders are identified. By default, senders are keyed by
+         * {@link CommandPlatform#getRequirementKey(Object)} once the requirement is registered,
+         * and by themselves before that. A null key disables the cache for that sender.
+         *
+         * @param keyFunction The function giving the key of a sender.
+         * @return The builder.
+         */
+        public Builder<S> keyedBy(Function<? super S, ?> keyFunction) {
+            this.keyFunction = Objects.requireNonNull(keyFunction, "Key function cannot be null");
+            return this;
+        }
+
+        /**
+         * Set the clock of the cache, in nanoseconds. Meant for tests.
+         *
+         * @param ticker The clock.
+         * @return The builder.
+         */
+        Builder<S> ticker(LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Build the cached requirement.
+         *
+         * @return The cached requirement.
+         */
+        public CachedRequirement<S> build() {
+            return new CachedRequirement<>(this);
+        }
+    }
+}
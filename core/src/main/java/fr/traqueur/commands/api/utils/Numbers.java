@@ -0,0 +1,166 @@
+package fr.traqueur.commands.api.utils;
+
+/**
+ * Utility class checking whether a string is a valid number without parsing it.
+ * <p>
+ * The JDK parsers report invalid input with a {@link NumberFormatException}, whose stack
+ * trace is filled in on every failure. Converters check their input here first so that
+ * bad input (typos, or a player spamming a command) is rejected without any exception.
+ * </p>
+ */
+public final class Numbers {
+
+    private Numbers() {
+        // Utility class
+    }
+
+    /**
+     * Check whether {@link Integer#parseInt(String)} would accept the input.
+     *
+     * @param s the input
+     * @return true if the input is a base 10 {@code int}
+     */
+    public static boolean isInt(CharSequence s) {
+        return isInteger(s, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Check whether {@link Long#parseLong(String)} would accept the input.
+     *
+     * @param s the input
+     * @return true if the input is a base 10 {@code long}
+     */
+    public static boolean isLong(CharSequence s) {
+        return isInteger(s, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Check whether {@link Byte#parseByte(String)} would accept the input.
+     *
+     * @param s the input
+     * @return true if the input is a base 10 {@code byte}
+     */
+    public static boolean isByte(CharSequence s) {
+        return isInteger(s, Byte.MIN_VALUE, Byte.MAX_VALUE);
+    }
+
+    /**
+     * Check whether the input is a base 10 integer between {@code min} and {@code max}:
+     * an optional sign followed by ASCII digits.
+     *
+     * @param s   the input
+     * @param min the smallest accepted value, negative or zero
+     * @param max the largest accepted value, positive
+     * @return true if the input is an integer in range
+     */
+    public static boolean isInteger(CharSequence s, long min, long max) {
+        if (s == null) {
+            return false;
+        }
+        int length = s.length();
+        if (length == 0) {
+            return false;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = s.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == length) {
+                return false;
+            }
+        }
+        // accumulate negatively, as the JDK does, so that the most negative value fits
+        long limit = negative ? min : -max;
+        long multmin = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multmin) {
+                return false;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+        return true;
+    }
+
+    /**
+     * Check whether {@link Double#parseDouble(String)} would accept the input as a decimal
+     * number: an optional sign, digits with an optional fraction, an optional exponent and
+     * an optional {@code f}/{@code d} suffix, or {@code NaN} and {@code Infinity}.
+     * Hexadecimal floating point literals are not accepted.
+     *
+     * @param s the input
+     * @return true if the input is a decimal number
+     */
+    public static boolean isDecimal(CharSequence s) {
+        if (s == null) {
+            return false;
+        }
+        int length = s.length();
+        int i = 0;
+        if (i < length && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == length) {
+            return false;
+        }
+        char c = s.charAt(i);
+        if (c == 'N' || c == 'I') {
+            return contentEquals(s, i, c == 'N' ? "NaN" : "Infinity");
+        }
+
+        int digits = 0;
+        while (i < length && isDigit(s.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < length && s.charAt(i) == '.') {
+            i++;
+            while (i < length && isDigit(s.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                i++;
+            }
+            int exponent = i;
+            while (i < length && isDigit(s.charAt(i))) {
+                i++;
+            }
+            if (i == exponent) {
+                return false;
+            }
+        }
+        if (i < length && "fFdD".indexOf(s.charAt(i)) >= 0) {
+            i++;
+        }
+        return i == length;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean contentEquals(CharSequence s, int from, String expected) {
+        if (s.length() - from != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (s.charAt(from + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -26,10 +26,10 @@ public class BooleanArgument<S> implements ArgumentConverter<Boolean>, TabComple
         if (s == null || s.isEmpty()) {
             return null;
         }
-        if (s.equalsIgnoreCase("true") || s.equalsIgnoreCase("false")) {
-            return Boolean.parseBoolean(s);
+        if (s.equalsIgnoreCase("true")) {
+            return Boolean.TRUE;
         }
-        return null;
+        return s.equalsIgnoreCase("false") ? Boolean.FALSE : null;
     }
 
     @Override
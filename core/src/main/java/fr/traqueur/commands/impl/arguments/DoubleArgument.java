@@ -0,0 +1,29 @@
+package fr.traqueur.commands.impl.arguments;
+
+import fr.traqueur.commands.api.arguments.DoubleConverter;
+import fr.traqueur.commands.api.utils.Numbers;
+
+/**
+ * DoubleArgument is the converter of {@code double} and {@code Double} arguments.
+ * Invalid input is rejected by {@link Numbers#isDecimal(CharSequence)} before parsing,
+ * so it never costs a {@link NumberFormatException}.
+ */
+public class DoubleArgument implements DoubleConverter {
+
+    /**
+     * Creates a new DoubleArgument.
+     */
+    public DoubleArgument() {
+        // Default constructor
+    }
+
+    @Override
+    public boolean accepts(String s) {
+        return Numbers.isDecimal(s);
+    }
+
+    @Override
+    public double applyAsDouble(String s) {
+        return Double.parseDouble(s);
+    }
+}
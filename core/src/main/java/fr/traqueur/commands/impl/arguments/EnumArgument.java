@@ -4,17 +4,35 @@ import fr.traqueur.commands.api.arguments.ArgumentConverter;
 import fr.traqueur.commands.api.arguments.TabCompleter;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * An argument converter for enum types, allowing conversion from string to enum and providing tab completion.
+ * <p>
+ * Constants are matched ignoring case. The lookup tables of an enum are built once, on first use,
+ * and shared by every EnumArgument of that enum, so conversion and completion stay cheap even for
+ * enums with thousands of constants.
+ * </p>
  *
  * @param <T> The type of the enum.
  * @param <S> The type of the sender (e.g., player, console).
  */
 public class EnumArgument<T extends Enum<T>, S> implements ArgumentConverter<T>, TabCompleter<S> {
 
+    /**
+     * The lookup tables of each enum class, built lazily.
+     */
+    private static final ClassValue<Index<?>> INDEXES = new ClassValue<>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected Index<?> computeValue(Class<?> type) {
+            return new Index(type);
+        }
+    };
+
     /**
      * The class of the enum type this argument converter handles.
      */
@@ -42,31 +60,97 @@ public class EnumArgument<T extends Enum<T>, S> implements ArgumentConverter<T>,
     }
 
     /**
-     * Gets the class of the enum type this argument converter handles.
+     * Converts a string to the enum constant of the same name, ignoring case.
      *
-     * @return The enum class
+     * @param s The name of the constant
+     * @return The constant, or null if the enum has no constant with that name
      */
     @Override
     public T apply(String s) {
         if (s == null || s.isEmpty()) {
             return null;
         }
-        try {
-            return Enum.valueOf(clazz, s);
-        } catch (IllegalArgumentException e) {
-            return null;
-        }
+        return index().lookup(s);
     }
 
     /**
-     * Gets the class of the enum type this argument converter handles.
+     * Suggests the names of the constants starting with the word being completed, ignoring case.
      *
-     * @return The enum class
+     * @return The matching names, sorted ignoring case
      */
     @Override
     public List<String> onCompletion(S sender, List<String> args) {
-        return Arrays.stream(clazz.getEnumConstants())
-                .map(Enum::name)
-                .collect(Collectors.toList());
+        String prefix = args.isEmpty() ? "" : args.get(args.size() - 1);
+        return index().complete(prefix);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Index<T> index() {
+        return (Index<T>) INDEXES.get(clazz);
+    }
+
+    /**
+     * Lookup tables of an enum: its constants by name, and their names sorted ignoring case so
+     * that the names sharing a prefix form a range found by binary search.
+     *
+     * @param <T> The type of the enum.
+     */
+    private static final class Index<T extends Enum<T>> {
+
+        private final Map<String, T> byName;
+        private final Map<String, T> byLowerName;
+        private final String[] sortedNames;
+        private final List<String> completions;
+
+        private Index(Class<T> type) {
+            T[] constants = type.getEnumConstants();
+            this.byName = new HashMap<>(constants.length * 2);
+            this.byLowerName = new HashMap<>(constants.length * 2);
+            this.sortedNames = new String[constants.length];
+            for (int i = 0; i < constants.length; i++) {
+                T constant = constants[i];
+                byName.put(constant.name(), constant);
+                // constants only differing by case keep the first one declared
+                byLowerName.putIfAbsent(constant.name().toLowerCase(Locale.ROOT), constant);
+                sortedNames[i] = constant.name();
+            }
+            Arrays.sort(sortedNames, String.CASE_INSENSITIVE_ORDER);
+            this.completions = List.of(sortedNames);
+        }
+
+        private T lookup(String name) {
+            // names are usually typed as declared, which needs no lower-case copy
+            T constant = byName.get(name);
+            return constant != null ? constant : byLowerName.get(name.toLowerCase(Locale.ROOT));
+        }
+
+        private List<String> complete(String prefix) {
+            if (prefix.isEmpty()) {
+                return completions;
+            }
+            int from = lowerBound(prefix);
+            int to = from;
+            while (to < sortedNames.length && sortedNames[to].regionMatches(true, 0, prefix, 0, prefix.length())) {
+                to++;
+            }
+            return completions.subList(from, to);
+        }
+
+        /**
+         * Index of the first name not sorted before the prefix.
+         */
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = sortedNames.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (String.CASE_INSENSITIVE_ORDER.compare(sortedNames[mid], prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
     }
 }
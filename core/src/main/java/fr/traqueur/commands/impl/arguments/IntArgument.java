@@ -0,0 +1,29 @@
+package fr.traqueur.commands.impl.arguments;
+
+import fr.traqueur.commands.api.arguments.IntConverter;
+import fr.traqueur.commands.api.utils.Numbers;
+
+/**
+ * IntArgument is the converter of {@code int} and {@code Integer} arguments.
+ * Invalid input is rejected by {@link Numbers#isInt(CharSequence)} before parsing,
+ * so it never costs a {@link NumberFormatException}.
+ */
+public class IntArgument implements IntConverter {
+
+    /**
+     * Creates a new IntArgument.
+     */
+    public IntArgument() {
+        // Default constructor
+    }
+
+    @Override
+    public boolean accepts(String s) {
+        return Numbers.isInt(s);
+    }
+
+    @Override
+    public int applyAsInt(String s) {
+        return Integer.parseInt(s);
+    }
+}
@@ -0,0 +1,29 @@
+package fr.traqueur.commands.impl.arguments;
+
+import fr.traqueur.commands.api.arguments.LongConverter;
+import fr.traqueur.commands.api.utils.Numbers;
+
+/**
+ * LongArgument is the converter of {@code long} and {@code Long} arguments.
+ * Invalid input is rejected by {@link Numbers#isLong(CharSequence)} before parsing,
+ * so it never costs a {@link NumberFormatException}.
+ */
+public class LongArgument implements LongConverter {
+
+    /**
+     * Creates a new LongArgument.
+     */
+    public LongArgument() {
+        // Default constructor
+    }
+
+    @Override
+    public boolean accepts(String s) {
+        return Numbers.isLong(s);
+    }
+
+    @Override
+    public long applyAsLong(String s) {
+        return Long.parseLong(s);
+    }
+}
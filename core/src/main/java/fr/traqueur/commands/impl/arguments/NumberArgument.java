@@ -3,15 +3,19 @@ package fr.traqueur.commands.impl.arguments;
 import fr.traqueur.commands.api.arguments.ArgumentConverter;
 
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Base class for numeric argument converters.
  * Provides common null/empty checking and NumberFormatException handling.
+ * When a validator is given, invalid input is rejected by it and the parser is only
+ * called on input it accepts, so the failure path does not throw.
  *
  * @param <T> the numeric type to convert to
  */
 public class NumberArgument<T extends Number> implements ArgumentConverter<T> {
 
+    private final Predicate<String> validator;
     private final Function<String, T> parser;
 
     /**
@@ -20,6 +24,18 @@ public class NumberArgument<T extends Number> implements ArgumentConverter<T> {
      * @param parser the function to parse the string into the target number type
      */
     public NumberArgument(Function<String, T> parser) {
+        this(null, parser);
+    }
+
+    /**
+     * Creates a new number argument converter that validates its input before parsing it.
+     *
+     * @param validator the check run before parsing, e.g. {@link fr.traqueur.commands.api.utils.Numbers#isByte(CharSequence)},
+     *                  or null to rely on the parser alone
+     * @param parser    the function to parse the string into the target number type
+     */
+    public NumberArgument(Predicate<String> validator, Function<String, T> parser) {
+        this.validator = validator;
         this.parser = parser;
     }
 
@@ -34,6 +50,9 @@ public class NumberArgument<T extends Number> implements ArgumentConverter<T> {
         if (input == null || input.isEmpty()) {
             return null;
         }
+        if (validator != null && !validator.test(input)) {
+            return null;
+        }
         try {
             return parser.apply(input);
         } catch (NumberFormatException e) {
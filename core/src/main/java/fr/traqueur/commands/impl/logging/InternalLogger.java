@@ -2,6 +2,8 @@ package fr.traqueur.commands.impl.logging;
 
 import fr.traqueur.commands.api.logging.Logger;
 
+import java.util.logging.Level;
+
 /**
  * An internal logger that uses java.util.logging to log messages.
  * This logger is used internally by the command framework.
@@ -30,6 +32,14 @@ public class InternalLogger implements Logger {
         this.logger.severe(message);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void error(String message, Throwable throwable) {
+        this.logger.log(Level.SEVERE, message, throwable);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,53 @@
+package fr.traqueur.commands.impl.parsing;
+
+import fr.traqueur.commands.api.arguments.Arguments;
+import fr.traqueur.commands.api.logging.Logger;
+
+/**
+ * Per-thread reusable {@link Arguments}, for commands executed with pooled arguments.
+ * <p>
+ * Each thread keeps one instance, handed out by {@link #acquire()} and given back, cleared,
+ * by {@link #release(Arguments)}. A command dispatching another one on the same thread
+ * while its own arguments are in use simply gets a fresh instance.
+ * </p>
+ */
+public final class ArgumentsPool {
+
+    private final Logger logger;
+    private final ThreadLocal<Arguments> free;
+
+    /**
+     * Create a pool.
+     *
+     * @param logger the logger of the pooled arguments
+     */
+    public ArgumentsPool(Logger logger) {
+        this.logger = logger;
+        this.free = ThreadLocal.withInitial(() -> new Arguments(logger));
+    }
+
+    /**
+     * Take the arguments of the current thread.
+     *
+     * @return empty arguments, to give back with {@link #release(Arguments)}
+     */
+    public Arguments acquire() {
+        Arguments arguments = free.get();
+        if (arguments == null) {
+            // already in use further up the stack
+            return new Arguments(logger);
+        }
+        free.set(null);
+        return arguments;
+    }
+
+    /**
+     * Give arguments back to the current thread, clearing them.
+     *
+     * @param arguments the arguments obtained from {@link #acquire()}
+     */
+    public void release(Arguments arguments) {
+        arguments.clear();
+        free.set(arguments);
+    }
+}
@@ -6,15 +6,24 @@ import fr.traqueur.commands.api.arguments.Arguments;
 import fr.traqueur.commands.api.logging.Logger;
 import fr.traqueur.commands.api.models.Command;
 import fr.traqueur.commands.api.parsing.ArgumentParser;
+import fr.traqueur.commands.api.parsing.CommandLine;
 import fr.traqueur.commands.api.parsing.ParseError;
+import fr.traqueur.commands.api.parsing.ParsePlan;
 import fr.traqueur.commands.api.parsing.ParseResult;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Default parser for text-based commands (Spigot, Velocity).
- * Parses String[] arguments using registered converters.
+ * Parses String[] arguments or a tokenized {@link CommandLine} using registered converters.
  */
 public class DefaultArgumentParser<T, S> implements ArgumentParser<T, S, String[]> {
 
@@ -22,6 +31,8 @@ public class DefaultArgumentParser<T, S> implements ArgumentParser<T, S, String[
 
     private final Map<Class<?>, ArgumentConverter.Wrapper<?>> typeConverters;
     private final Logger logger;
+    private final AtomicInteger version = new AtomicInteger();
+    private volatile Duration asyncTimeout = Duration.ofSeconds(5);
 
     public DefaultArgumentParser(Map<Class<?>, ArgumentConverter.Wrapper<?>> typeConverters, Logger logger) {
         this.typeConverters = typeConverters;
@@ -30,106 +41,435 @@ public class DefaultArgumentParser<T, S> implements ArgumentParser<T, S, String[
 
     @Override
     public ParseResult parse(Command<T, S> command, String[] rawArgs) {
-        Arguments arguments = new Arguments(logger);
+        return parse(command, rawArgs, 0);
+    }
 
-        List<Argument<S>> required = command.getArgs();
-        List<Argument<S>> optional = command.getOptionalArgs();
+    /**
+     * Parse the arguments starting at {@code offset} in the given array,
+     * so callers can hand over their raw arguments without copying the tail.
+     *
+     * @param command the command being executed
+     * @param rawArgs the raw arguments
+     * @param offset  index of the first argument to parse
+     * @return the parse result
+     */
+    public ParseResult parse(Command<T, S> command, String[] rawArgs, int offset) {
+        return parse(command, rawArgs, rawArgs.length, offset);
+    }
 
-        int argIndex = 0;
+    /**
+     * Parse the tokens of a command line starting at token {@code offset}.
+     * Single arguments are read from their token and a greedy argument is the slice of the
+     * input from its first token to the end of the line, as typed.
+     *
+     * @param command the command being executed
+     * @param line    the tokenized command line
+     * @param offset  index of the first token to parse
+     * @return the parse result
+     */
+    public ParseResult parse(Command<T, S> command, CommandLine line, int offset) {
+        return parse(command, line, line.size(), offset);
+    }
 
-        // Parse required arguments
-        for (Argument<S> arg : required) {
-            if (arg.isInfinite()) {
-                return parseInfinite(arguments, arg, rawArgs, argIndex);
-            }
+    @Override
+    public CompletableFuture<ParseResult> parseAsync(Command<T, S> command, String[] rawArgs) {
+        return parseAsync(command, rawArgs, 0);
+    }
 
-            if (argIndex >= rawArgs.length) {
-                return ParseResult.error(new ParseError(
-                        ParseError.Type.MISSING_REQUIRED,
-                        arg.name(),
-                        null,
-                        "Missing required argument: " + arg.name()
-                ));
-            }
+    /**
+     * Parse the arguments starting at {@code offset} in the given array, converting the
+     * arguments of {@link fr.traqueur.commands.api.arguments.AsyncArgumentConverter}s concurrently.
+     *
+     * @param command the command being executed
+     * @param rawArgs the raw arguments
+     * @param offset  index of the first argument to parse
+     * @return the future parse result
+     */
+    public CompletableFuture<ParseResult> parseAsync(Command<T, S> command, String[] rawArgs, int offset) {
+        return parseAsync(command, rawArgs, rawArgs.length, offset);
+    }
+
+    /**
+     * Parse the tokens of a command line starting at token {@code offset}, converting the
+     * arguments of {@link fr.traqueur.commands.api.arguments.AsyncArgumentConverter}s concurrently.
+     *
+     * @param command the command being executed
+     * @param line    the tokenized command line
+     * @param offset  index of the first token to parse
+     * @return the future parse result
+     */
+    public CompletableFuture<ParseResult> parseAsync(Command<T, S> command, CommandLine line, int offset) {
+        return parseAsync(command, line, line.size(), offset);
+    }
+
+    /**
+     * Get how long asynchronous conversions are waited for.
+     *
+     * @return the timeout
+     */
+    public Duration getAsyncTimeout() {
+        return asyncTimeout;
+    }
+
+    /**
+     * Set how long asynchronous conversions are waited for before parsing fails
+     * with a {@link ParseError.Type#TIMEOUT} error.
+     *
+     * @param asyncTimeout the timeout
+     */
+    public void setAsyncTimeout(Duration asyncTimeout) {
+        if (asyncTimeout == null || asyncTimeout.isNegative() || asyncTimeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        this.asyncTimeout = asyncTimeout;
+    }
+
+    /**
+     * Get the parse plan of a command, compiling it if it is missing or was compiled
+     * before the last converter registration.
+     *
+     * @param command the command
+     * @return the up to date plan
+     */
+    public ParsePlan<S> plan(Command<T, S> command) {
+        int current = version.get();
+        ParsePlan<S> plan = command.getParsePlan();
+        if (plan == null || plan.version() != current) {
+            plan = ParsePlan.compile(command, typeConverters, current);
+            command.setParsePlan(plan);
+        }
+        return plan;
+    }
 
-            ParseResult result = parseSingle(arguments, arg, rawArgs[argIndex]);
-            if (result.isError()) {
-                return result;
+    /**
+     * Mark every compiled plan as stale, so it is compiled again on its next use.
+     * Must be called whenever a converter is registered.
+     */
+    public void invalidatePlans() {
+        version.incrementAndGet();
+    }
+
+    private CompletableFuture<ParseResult> parseAsync(Command<T, S> command, Object input, int length, int offset) {
+        ParsePlan<S> plan = plan(command);
+        if (!plan.hasAsync()) {
+            return CompletableFuture.completedFuture(parse(plan, input, length, offset, null));
+        }
+        PendingConversions pending = new PendingConversions(plan.size());
+        ParseResult result = parse(plan, input, length, offset, pending);
+        if (result.isError() || pending.size == 0) {
+            pending.cancel();
+            return CompletableFuture.completedFuture(result);
+        }
+        return awaitConversions(plan, result, pending);
+    }
+
+    /**
+     * Wait for every pending conversion, then store their values in the slots reserved for them.
+     */
+    private CompletableFuture<ParseResult> awaitConversions(ParsePlan<S> plan, ParseResult parsed, PendingConversions pending) {
+        return CompletableFuture.allOf(pending.futures())
+                .orTimeout(asyncTimeout.toNanos(), TimeUnit.NANOSECONDS)
+                .handle((ignored, failure) -> {
+                    ParseError error = collectConversions(plan, parsed.arguments(), pending);
+                    return error != null ? ParseResult.error(error) : parsed;
+                });
+    }
+
+    /**
+     * Wait on the calling thread, at most the async timeout, for every pending conversion,
+     * then store their values in the slots reserved for them. The conversions run
+     * concurrently, so the wait is bounded by the slowest one rather than their sum.
+     */
+    private ParseError awaitConversions(ParsePlan<S> plan, Arguments arguments, PendingConversions pending) {
+        try {
+            CompletableFuture.allOf(pending.futures()).get(asyncTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.cancel();
+            int slot = pending.slots[0];
+            return ParseError.conversionFailed(plan.argument(slot).name(), pending.inputs[0]);
+        } catch (TimeoutException | ExecutionException | CancellationException e) {
+            // timeouts and failures are reported per conversion below
+        }
+        return collectConversions(plan, arguments, pending);
+    }
+
+    /**
+     * Store the values of finished conversions. A conversion still running means the
+     * timeout fired first: the sender gets its answer now and the conversions are stopped.
+     *
+     * @return the error of the first conversion that timed out or failed, null if all succeeded
+     */
+    @SuppressWarnings("unchecked")
+    private ParseError collectConversions(ParsePlan<S> plan, Arguments arguments, PendingConversions pending) {
+        for (int i = 0; i < pending.size; i++) {
+            if (!pending.futures[i].isDone()) {
+                pending.cancel();
+                return ParseError.timeout(plan.argument(pending.slots[i]).name(), pending.inputs[i]);
             }
-            argIndex++;
         }
+        for (int i = 0; i < pending.size; i++) {
+            int slot = pending.slots[i];
+            String input = pending.inputs[i];
+            String name = plan.argument(slot).name();
+            CompletableFuture<?> future = pending.futures[i];
+            if (future.isCompletedExceptionally()) {
+                return ParseError.conversionFailed(name, input);
+            }
+            ArgumentConverter.Wrapper<Object> wrapper = (ArgumentConverter.Wrapper<Object>) plan.converter(slot);
+            if (!wrapper.store(future.join(), name, arguments)) {
+                return ParseError.conversionFailed(name, input);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse the arguments starting at {@code offset} in the given array into existing
+     * {@link Arguments}, e.g. pooled ones, without allocating a {@link ParseResult}.
+     * Asynchronous converters are waited for.
+     *
+     * @param command the command being executed
+     * @param rawArgs the raw arguments
+     * @param offset  index of the first argument to parse
+     * @param target  the arguments to fill, expected to be empty
+     * @return the parse error, or null if every argument was parsed
+     */
+    public ParseError parseInto(Command<T, S> command, String[] rawArgs, int offset, Arguments target) {
+        return parseInto(plan(command), rawArgs, rawArgs.length, offset, target);
+    }
+
+    /**
+     * Parse the tokens of a command line starting at token {@code offset} into existing
+     * {@link Arguments}, e.g. pooled ones, without allocating a {@link ParseResult}.
+     * Asynchronous converters are waited for.
+     *
+     * @param command the command being executed
+     * @param line    the tokenized command line
+     * @param offset  index of the first token to parse
+     * @param target  the arguments to fill, expected to be empty
+     * @return the parse error, or null if every argument was parsed
+     */
+    public ParseError parseInto(Command<T, S> command, CommandLine line, int offset, Arguments target) {
+        return parseInto(plan(command), line, line.size(), offset, target);
+    }
+
+    private ParseResult parse(Command<T, S> command, Object input, int length, int offset) {
+        ParsePlan<S> plan = plan(command);
+        Arguments arguments = new Arguments(logger, plan.size());
+        ParseError error = parseInto(plan, input, length, offset, arguments);
+        return error != null ? ParseResult.error(error) : ParseResult.success(arguments, consumed(plan, length, offset));
+    }
+
+    /**
+     * Parse synchronously: asynchronous conversions are all started while parsing, then
+     * waited for together.
+     *
+     * @return the parse error, or null on success
+     */
+    private ParseError parseInto(ParsePlan<S> plan, Object input, int length, int offset, Arguments arguments) {
+        if (!plan.hasAsync()) {
+            return parseInto(plan, input, length, offset, arguments, null);
+        }
+        PendingConversions pending = new PendingConversions(plan.size());
+        ParseError error = parseInto(plan, input, length, offset, arguments, pending);
+        if (error != null || pending.size == 0) {
+            pending.cancel();
+            return error;
+        }
+        return awaitConversions(plan, arguments, pending);
+    }
+
+    private ParseResult parse(ParsePlan<S> plan, Object input, int length, int offset, PendingConversions pending) {
+        Arguments arguments = new Arguments(logger, plan.size());
+        ParseError error = parseInto(plan, input, length, offset, arguments, pending);
+        return error != null ? ParseResult.error(error) : ParseResult.success(arguments, consumed(plan, length, offset));
+    }
 
-        // Parse optional arguments
-        for (Argument<S> arg : optional) {
-            if (argIndex >= rawArgs.length) {
+    /**
+     * Parse from either a {@code String[]} or a {@link CommandLine}; the input is passed as
+     * is rather than through accessor lambdas so that parsing does not allocate them.
+     * Asynchronous conversions are started and collected in {@code pending}, which must be
+     * given if the plan has any, instead of being waited for.
+     *
+     * @return the parse error, or null on success
+     */
+    private ParseError parseInto(ParsePlan<S> plan, Object input, int length, int offset,
+                                 Arguments arguments, PendingConversions pending) {
+        int required = plan.minArgs();
+        int infinite = plan.infiniteIndex();
+
+        int argIndex = offset;
+        for (int slot = 0; slot < plan.size(); slot++) {
+            // optional arguments simply stop at the end of the input
+            if (slot >= required && argIndex >= length) {
                 break;
             }
 
-            if (arg.isInfinite()) {
-                return parseInfinite(arguments, arg, rawArgs, argIndex);
+            Argument<S> arg = plan.argument(slot);
+            if (slot == infinite) {
+                return parseInfinite(arguments, arg, input, length, argIndex);
+            }
+
+            if (argIndex >= length) {
+                return new ParseError(
+                        ParseError.Type.MISSING_REQUIRED,
+                        arg.name(),
+                        null,
+                        "Missing required argument: " + arg.name()
+                );
             }
 
-            ParseResult result = parseSingle(arguments, arg, rawArgs[argIndex]);
-            if (result.isError()) {
-                return result;
+            ParseError error = parseSingle(arguments, plan, slot, token(input, argIndex), pending);
+            if (error != null) {
+                return error;
             }
             argIndex++;
         }
 
-        return ParseResult.success(arguments, argIndex);
+        return null;
     }
 
-    private ParseResult parseSingle(Arguments arguments, Argument<S> arg, String input) {
-        Class<?> typeKey = arg.type().key();
-        ArgumentConverter.Wrapper<?> wrapper = typeConverters.get(typeKey);
+    /**
+     * Number of inputs consumed by a successful parse: the arguments up to the infinite one
+     * are not counted once it is reached, as the infinite argument reports the whole tail.
+     */
+    private static int consumed(ParsePlan<?> plan, int length, int offset) {
+        int infinite = plan.infiniteIndex();
+        if (infinite >= 0 && (infinite < plan.minArgs() || offset + infinite < length)) {
+            int start = offset + infinite;
+            return start >= length ? 0 : length - start;
+        }
+        return Math.min(length - offset, plan.size());
+    }
 
-        if (wrapper == null) {
-            return ParseResult.error(new ParseError(
+    private ParseError parseSingle(Arguments arguments, ParsePlan<S> plan, int slot, String input,
+                                   PendingConversions pending) {
+        Argument<S> arg = plan.argument(slot);
+        if (plan.converter(slot) == null) {
+            return new ParseError(
                     ParseError.Type.TYPE_NOT_FOUND,
                     arg.name(),
                     input,
-                    "No converter for type: " + typeKey.getSimpleName()
-            ));
+                    "No converter for type: " + arg.type().key().getSimpleName()
+            );
         }
 
-        if (!wrapper.convertAndApply(input, arg.name(), arguments)) {
-            return ParseResult.error(new ParseError(
+        if (plan.isAsync(slot)) {
+            CompletableFuture<?> future;
+            try {
+                future = plan.convertAsync(slot, input);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            pending.add(slot, input, future);
+            // keep the slot in declaration order until the value arrives
+            arguments.add(arg.name(), Object.class, null);
+            return null;
+        }
+
+        if (!plan.convert(slot, input, arguments)) {
+            return new ParseError(
                     ParseError.Type.CONVERSION_FAILED,
                     arg.name(),
                     input,
                     "Failed to convert: " + input
-            ));
+            );
         }
 
-        return ParseResult.success(arguments, 1);
+        return null;
     }
 
-    private ParseResult parseInfinite(Arguments arguments, Argument<S> arg, String[] rawArgs, int startIndex) {
-        if (startIndex >= rawArgs.length) {
+    private ParseError parseInfinite(Arguments arguments, Argument<S> arg, Object input, int length, int startIndex) {
+        if (startIndex >= length) {
             arguments.add(arg.name(), String.class, "");
-            return ParseResult.success(arguments, 0);
+            return null;
         }
 
-        StringBuilder sb = new StringBuilder();
-        int count = 0;
+        // the cap is checked on the offsets, before anything is copied
+        if (restLength(input, startIndex) > MAX_INFINITE_LENGTH) {
+            return new ParseError(
+                    ParseError.Type.ARGUMENT_TOO_LONG,
+                    arg.name(),
+                    null,
+                    "Infinite argument exceeds max length"
+            );
+        }
 
-        for (int i = startIndex; i < rawArgs.length; i++) {
-            if (sb.length() > MAX_INFINITE_LENGTH) {
-                return ParseResult.error(new ParseError(
-                        ParseError.Type.ARGUMENT_TOO_LONG,
-                        arg.name(),
-                        null,
-                        "Infinite argument exceeds max length"
-                ));
+        // a command line hands over a view of the raw input, copied only if read as a String
+        CharSequence value = input instanceof CommandLine line ? line.rest(startIndex) : join((String[]) input, startIndex);
+        arguments.addText(arg.name(), value);
+        return null;
+    }
+
+    /**
+     * Asynchronous conversions started while parsing, with the slot and input of each.
+     */
+    private static final class PendingConversions {
+
+        private final int[] slots;
+        private final String[] inputs;
+        private final CompletableFuture<?>[] futures;
+        private int size;
+
+        private PendingConversions(int capacity) {
+            this.slots = new int[capacity];
+            this.inputs = new String[capacity];
+            this.futures = new CompletableFuture<?>[capacity];
+        }
+
+        private void add(int slot, String input, CompletableFuture<?> future) {
+            slots[size] = slot;
+            inputs[size] = input;
+            futures[size] = future != null ? future : CompletableFuture.completedFuture(null);
+            size++;
+        }
+
+        private CompletableFuture<?>[] futures() {
+            return Arrays.copyOf(futures, size);
+        }
+
+        /**
+         * Stop the conversions still running, once their values are no longer needed.
+         */
+        private void cancel() {
+            for (int i = 0; i < size; i++) {
+                futures[i].cancel(true);
             }
+        }
+    }
+
+    private static String token(Object input, int index) {
+        return input instanceof CommandLine line ? line.get(index) : ((String[]) input)[index];
+    }
+
+    /**
+     * Length of the greedy value starting at {@code index}: the raw slice of a command line,
+     * or the arguments joined with single spaces.
+     */
+    private static int restLength(Object input, int index) {
+        if (input instanceof CommandLine line) {
+            return line.restLength(index);
+        }
+        String[] rawArgs = (String[]) input;
+        long length = rawArgs.length - index - 1;
+        for (int i = index; i < rawArgs.length; i++) {
+            length += rawArgs[i].length();
+        }
+        return (int) Math.min(length, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Join the arguments from {@code startIndex} with single spaces, into a builder sized up front.
+     */
+    private static String join(String[] rawArgs, int startIndex) {
+        StringBuilder sb = new StringBuilder(restLength(rawArgs, startIndex));
+        for (int i = startIndex; i < rawArgs.length; i++) {
             if (i > startIndex) {
-                sb.append(" ");
+                sb.append(' ');
             }
             sb.append(rawArgs[i]);
-            count++;
         }
-
-        arguments.add(arg.name(), String.class, sb.toString());
-        return ParseResult.success(arguments, count);
+        return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,17 @@
 package fr.traqueur.commands.api;
 
 import fr.traqueur.commands.api.arguments.Arguments;
+import fr.traqueur.commands.api.arguments.CachingConverter;
 import fr.traqueur.commands.api.arguments.Infinite;
 import fr.traqueur.commands.api.arguments.TabCompleter;
 import fr.traqueur.commands.api.exceptions.ArgumentIncorrectException;
 import fr.traqueur.commands.api.exceptions.ArgumentNotExistException;
 import fr.traqueur.commands.api.models.Command;
 import fr.traqueur.commands.api.models.collections.CommandTree;
+import fr.traqueur.commands.api.permissions.PermissionCache;
+import fr.traqueur.commands.api.requirements.CachedRequirement;
+import fr.traqueur.commands.api.requirements.Requirement;
+import fr.traqueur.commands.impl.arguments.EnumArgument;
 import fr.traqueur.commands.impl.logging.InternalLogger;
 import fr.traqueur.commands.test.mocks.MockCommandManager;
 import fr.traqueur.commands.test.mocks.MockPlatform;
@@ -18,9 +23,13 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class CommandManagerTest {
 
@@ -37,6 +46,81 @@ class CommandManagerTest {
     }
 
     // ----- TESTS -----
+    @Test
+    void hasPermission_isNotCachedByDefault() {
+        MockSender steve = mock(MockSender.class);
+        when(steve.hasPermission("home.set")).thenReturn(true);
+
+        assertNull(manager.getPermissionCache());
+        assertTrue(manager.hasPermission(steve, "home.set"));
+        when(steve.hasPermission("home.set")).thenReturn(false);
+        assertFalse(manager.hasPermission(steve, "home.set"));
+    }
+
+    @Test
+    void hasPermission_isCachedUntilInvalidated() {
+        manager.setPermissionCache(new PermissionCache());
+        MockSender steve = mock(MockSender.class);
+        when(steve.hasPermission("home.set")).thenReturn(true);
+
+        assertTrue(manager.hasPermission(steve, "home.set"));
+        when(steve.hasPermission("home.set")).thenReturn(false);
+        assertTrue(manager.hasPermission(steve, "home.set"));
+
+        manager.invalidatePermissions(steve);
+        assertFalse(manager.hasPermission(steve, "home.set"));
+        assertEquals(1, manager.getPermissionCache().hitCount());
+
+        manager.setPermissionCache(null);
+        when(steve.hasPermission("home.set")).thenReturn(true);
+        assertTrue(manager.hasPermission(steve, "home.set"));
+    }
+
+    @Test
+    void invalidateRequirements_reachesCachedRequirementsOfRegisteredCommands() {
+        AtomicInteger checks = new AtomicInteger();
+        CachedRequirement<MockSender> cached = CachedRequirement.of(new Requirement<MockSender>() {
+            @Override
+            public boolean check(MockSender sender) {
+                checks.incrementAndGet();
+                return true;
+            }
+
+            @Override
+            public String errorMessage() {
+                return "";
+            }
+        }).stableUntilInvalidated().build();
+        Command<Object, MockSender> parent = new Command<>(null, "region") {
+            @Override
+            public void execute(MockSender sender, Arguments arguments) {
+            }
+        };
+        Command<Object, MockSender> sub = new Command<>(null, "claim") {
+            @Override
+            public void execute(MockSender sender, Arguments arguments) {
+            }
+        };
+        sub.addRequirements(cached);
+        parent.addSubCommand(sub);
+        manager.registerCommand(parent);
+
+        MockSender steve = mock(MockSender.class);
+        cached.check(steve);
+        cached.check(steve);
+        assertEquals(1, checks.get());
+
+        manager.invalidateRequirements(steve);
+        cached.check(steve);
+        assertEquals(2, checks.get());
+
+        // once unregistered, the manager no longer holds or invalidates the requirement
+        manager.unregisterCommand(parent);
+        manager.invalidateRequirements(steve);
+        cached.check(steve);
+        assertEquals(2, checks.get());
+    }
+
     @Test
     void testInfiniteArgsParsing() throws Exception {
         Command<Object, MockSender> cmd = new Command<>(null, "test") {
@@ -171,6 +255,108 @@ class CommandManagerTest {
         assertTrue(map.containsKey(2));
     }
 
+    @Test
+    void cachingConverter_keepsTabCompleterOfDelegate() {
+        EnumArgument<Thread.State, MockSender> states = EnumArgument.of(Thread.State.class);
+        manager.registerConverter(Thread.State.class, CachingConverter.of(states).build());
+
+        assertTrue(manager.hasTabCompleterForType(Thread.State.class));
+        assertSame(states, manager.getTabCompleterForType(Thread.State.class));
+        assertFalse(manager.hasTabCompleterForType(String.class));
+    }
+
+    @Test
+    void registerCommand_aliasesShareTheCommandSubtree() {
+        DummyCommand main = new DummyCommand("main");
+        main.addAlias("a1", "a2", "a3");
+        DummyCommand sub = new DummyCommand("sub");
+        sub.addAlias("s");
+        sub.addArgs("n", Integer.class);
+        main.addSubCommand(sub);
+
+        manager.registerCommand(main);
+        CommandTree<Object, MockSender> tree = manager.getCommands();
+        CommandTree.CommandNode<Object, MockSender> canonical = tree.getRoot().getChildren().get("main");
+        assertSame(canonical, tree.getRoot().getChildren().get("a1"));
+        assertSame(canonical, tree.getRoot().getChildren().get("a3"));
+        assertSame(canonical.getChildren().get("sub"), canonical.getChildren().get("s"));
+        assertSame(sub, tree.resolve("a2", new String[]{"s", "1"}).command());
+
+        // completers and platform entries are registered for the command, not per alias
+        assertEquals(Set.of("main", "main.sub"), manager.getCompleters().keySet());
+        assertEquals(List.of("main", "main.sub", "main.s", "a1", "a2", "a3"), platform.getRegisteredLabels());
+        assertTrue(manager.getInvoker().suggest(null, "a1", new String[]{""}).containsAll(List.of("sub", "s")));
+
+        manager.unregisterCommand(main);
+        assertTrue(tree.getRoot().getChildren().isEmpty());
+        assertTrue(manager.getCompleters().isEmpty());
+    }
+
+    @Test
+    void registerCommand_dottedAliasIsRegisteredAsCopy() {
+        DummyCommand main = new DummyCommand("main");
+        main.addAlias("inner.in");
+        main.addSubCommand(new DummyCommand("sub"));
+
+        manager.registerCommand(main);
+        CommandTree<Object, MockSender> tree = manager.getCommands();
+        assertSame(main, tree.resolve("inner", new String[]{"in"}).command());
+        assertEquals("inner.in.sub", tree.resolve("inner", new String[]{"in", "sub"}).getFullLabel());
+    }
+
+    @Test
+    void registerAll_commitsToPlatformOnceAndPublishesTreeOnce() {
+        List<Command<Object, MockSender>> commands = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            DummyCommand cmd = new DummyCommand("cmd" + i);
+            cmd.addSubCommand(new DummyCommand("sub"));
+            commands.add(cmd);
+        }
+        CommandTree.CommandNode<Object, MockSender> before = manager.getCommands().getRoot();
+
+        manager.registerAll(commands);
+        assertEquals(1, platform.getBatches());
+        assertEquals(100, platform.getRegisteredLabels().size());
+        assertNotSame(before, manager.getCommands().getRoot());
+        assertEquals(50, manager.getCommands().getRoot().getChildren().size());
+        assertTrue(manager.getCommands().findNode("cmd42", new String[]{"sub"}).isPresent());
+        assertTrue(manager.getCompleters().containsKey("cmd7"));
+    }
+
+    @Test
+    void registerAll_commitsAliasesInTheSameBatch() {
+        DummyCommand cmd = new DummyCommand("warp");
+        cmd.addAlias("w");
+        DummyCommand nested = new DummyCommand("list");
+        nested.addAlias("ls");
+        cmd.addSubCommand(nested);
+
+        manager.registerAll(List.of(cmd));
+        assertEquals(1, platform.getBatches());
+        assertTrue(platform.getRegisteredLabels().contains("w"));
+        assertTrue(platform.getRegisteredLabels().contains("warp.ls"));
+        assertSame(cmd, manager.getCommands().findNode("w", new String[0]).orElseThrow().node().command());
+    }
+
+    @Test
+    void registerAll_copiesNestedAndTakenAliasesInTheSameBatch() {
+        manager.registerAll(List.of(new DummyCommand("home")));
+        DummyCommand cmd = new DummyCommand("warp");
+        cmd.addAlias("home");
+        DummyCommand nested = new DummyCommand("list");
+        nested.addAlias("ls.all");
+        nested.addSubCommand(new DummyCommand("page"));
+        cmd.addSubCommand(nested);
+
+        manager.registerAll(List.of(cmd));
+        assertEquals(2, platform.getBatches());
+        assertTrue(platform.getRegisteredLabels().contains("warp.ls.all"));
+        assertTrue(platform.getRegisteredLabels().contains("warp.ls.all.page"));
+        assertTrue(manager.getCommands().findNode(new String[]{"warp", "ls", "all", "page"}).isPresent());
+        assertTrue(platform.getRegisteredLabels().contains("home"));
+        assertSame(cmd, manager.getCommands().findNode(new String[]{"home"}).orElseThrow().node().command());
+    }
+
     static class DummyCommand extends Command<Object, MockSender> {
         DummyCommand() {
             super(null, "dummy");
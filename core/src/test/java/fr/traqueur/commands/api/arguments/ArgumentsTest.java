@@ -35,6 +35,31 @@ class ArgumentsTest {
         assertEquals("Infinite arguments test", allArgs);
     }
 
+    @Test
+    void text_isBuiltOnceWhenReadAsString() {
+        args.addText("all", new StringBuilder("some text"));
+
+        assertInstanceOf(StringBuilder.class, args.getText("all"));
+        String first = args.get("all");
+        assertEquals("some text", first);
+        assertSame(first, args.get("all"));
+        assertSame(first, args.getText("all"));
+        assertEquals(Map.of("all", "some text"), args.toMap());
+    }
+
+    @Test
+    void clear_removesArgumentsAndAllowsReuse() {
+        args.add("name", String.class, "steve");
+        args.addInt("count", 3);
+        args.clear();
+
+        assertTrue(args.isEmpty());
+        assertFalse(args.has("name"));
+        args.addInt("count", 4);
+        assertEquals(4, args.getInt("count"));
+        assertEquals(1, args.size());
+    }
+
     @Test
     void getOptional_onEmptyMapReturnsEmptyWithoutError() {
         Optional<?> opt = args.getOptional("anything");
@@ -147,4 +172,57 @@ class ArgumentsTest {
 
         assertEquals("default", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void primitives_areReadUnboxedAndBoxed() {
+        args.addInt("x", -12);
+        args.addLong("id", 1L << 40);
+        args.addDouble("yaw", 90.5);
+
+        assertEquals(-12, args.getInt("x"));
+        assertEquals(1L << 40, args.getLong("id"));
+        assertEquals(90.5, args.getDouble("yaw"));
+        assertEquals(Integer.valueOf(-12), args.get("x"));
+        assertEquals(Double.valueOf(90.5), args.<Double>getOptional("yaw").orElseThrow());
+        assertEquals(Map.of("x", -12, "id", 1L << 40, "yaw", 90.5), args.toMap());
+    }
+
+    @Test
+    void primitiveGetters_acceptBoxedValues() {
+        args.add("count", Integer.class, 3);
+        assertEquals(3, args.getInt("count"));
+
+        args.add("name", String.class, "Alice");
+        assertThrows(ClassCastException.class, () -> args.getInt("name"));
+        assertThrows(ArgumentNotExistException.class, () -> args.getDouble("missing"));
+    }
+
+    @Test
+    void add_replacesExistingKeyAndGrows() {
+        for (int i = 0; i < 10; i++) {
+            args.addInt("k" + i, i);
+        }
+        args.add("k3", String.class, "three");
+        args.addInt("k4", 40);
+
+        assertEquals(10, args.size());
+        assertEquals("three", args.get("k3"));
+        assertEquals(40, args.getInt("k4"));
+        assertEquals(9, args.getInt("k9"));
+    }
+
+    @Test
+    void contentKey_equalForEqualValues() {
+        Arguments other = new Arguments(new InternalLogger(Logger.getLogger("ArgumentsTest")));
+        args.addInt("page", 2);
+        args.addText("board", new StringBuilder("kills"));
+        other.add("page", Integer.class, 2);
+        other.add("board", String.class, "kills");
+
+        assertEquals(args.contentKey(), other.contentKey());
+        assertEquals(args.contentKey().hashCode(), other.contentKey().hashCode());
+
+        other.addInt("page", 3);
+        assertNotEquals(args.contentKey(), other.contentKey());
+    }
+}
@@ -0,0 +1,131 @@
+package fr.traqueur.commands.api.arguments;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingConverterTest {
+
+    private AtomicInteger calls;
+    private AtomicLong clock;
+    private ArgumentConverter<String> lookup;
+
+    @BeforeEach
+    void setUp() {
+        calls = new AtomicInteger();
+        clock = new AtomicLong();
+        lookup = s -> {
+            calls.incrementAndGet();
+            return s.startsWith("?") ? null : s.toUpperCase();
+        };
+    }
+
+    @Test
+    void repeatedInput_callsDelegateOnce() {
+        CachingConverter<String> cache = CachingConverter.of(lookup).ticker(clock::get).build();
+
+        assertEquals("STEVE", cache.apply("steve"));
+        assertEquals("STEVE", cache.apply("steve"));
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void entriesExpireAfterWrite() {
+        CachingConverter<String> cache = CachingConverter.of(lookup)
+                .expireAfterWrite(Duration.ofSeconds(10))
+                .ticker(clock::get)
+                .build();
+
+        cache.apply("steve");
+        clock.addAndGet(Duration.ofSeconds(9).toNanos());
+        cache.apply("steve");
+        assertEquals(1, calls.get());
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        cache.apply("steve");
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void leastRecentlyUsedInputIsEvicted() {
+        CachingConverter<String> cache = CachingConverter.of(lookup).maximumSize(2).ticker(clock::get).build();
+
+        cache.apply("a");
+        cache.apply("b");
+        cache.apply("a");
+        cache.apply("c"); // evicts b, used least recently
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+        cache.apply("a");
+        assertEquals(3, calls.get());
+        cache.apply("b");
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void missesAreOnlyCachedWhenEnabled() {
+        CachingConverter<String> plain = CachingConverter.of(lookup).ticker(clock::get).build();
+        assertNull(plain.apply("?"));
+        assertNull(plain.apply("?"));
+        assertEquals(2, calls.get());
+
+        calls.set(0);
+        CachingConverter<String> negative = CachingConverter.of(lookup)
+                .cacheMisses(Duration.ofSeconds(5))
+                .ticker(clock::get)
+                .build();
+        assertNull(negative.apply("?"));
+        assertNull(negative.apply("?"));
+        assertEquals(1, calls.get());
+
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertNull(negative.apply("?"));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void invalidate_forgetsInput() {
+        CachingConverter<String> cache = CachingConverter.of(lookup).ticker(clock::get).build();
+
+        cache.apply("steve");
+        cache.invalidate("steve");
+        cache.apply("steve");
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void concurrentConversions_keepCacheBounded() throws InterruptedException {
+        CachingConverter<String> cache = CachingConverter.of(lookup).maximumSize(16).build();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    String input = "p" + (i % 32);
+                    assertEquals(input.toUpperCase(), cache.apply(input));
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(cache.size() <= 16);
+        assertEquals(80_000, cache.hitCount() + cache.missCount());
+    }
+
+    @Test
+    void builder_rejectsInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> CachingConverter.of(lookup).maximumSize(0));
+        assertThrows(IllegalArgumentException.class, () -> CachingConverter.of(lookup).expireAfterWrite(Duration.ZERO));
+    }
+}
@@ -0,0 +1,78 @@
+package fr.traqueur.commands.api.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void buckets_coverEveryValueWithinOneEighth() {
+        int previous = -1;
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 100, 1_000, 123_456, 1L << 40, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(bucket >= previous);
+            assertTrue(value <= LatencyHistogram.upperBound(bucket));
+            assertTrue(LatencyHistogram.upperBound(bucket) - value <= value / 8);
+            if (bucket > 0) {
+                assertTrue(value > LatencyHistogram.upperBound(bucket - 1));
+            }
+            previous = bucket;
+        }
+    }
+
+    @Test
+    void snapshot_givesCountMeanPercentilesAndMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.count());
+        assertEquals(50_500, snapshot.mean());
+        assertEquals(100_000, snapshot.max());
+        assertTrue(snapshot.p50() >= 50_000 && snapshot.p50() <= 50_000 * 9 / 8, "p50 " + snapshot.p50());
+        assertTrue(snapshot.p99() >= 99_000 && snapshot.p99() <= 100_000, "p99 " + snapshot.p99());
+    }
+
+    @Test
+    void negativeLatency_countsAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertEquals(new LatencySnapshot(1, 0, 0, 0, 0), histogram.snapshot());
+    }
+
+    @Test
+    void reset_forgetsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+
+        assertEquals(LatencySnapshot.EMPTY, histogram.snapshot());
+        assertEquals(0, histogram.count());
+    }
+
+    @Test
+    void concurrentRecords_areAllCounted() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(80_000, histogram.count());
+        assertEquals(9_999, histogram.snapshot().max());
+    }
+}
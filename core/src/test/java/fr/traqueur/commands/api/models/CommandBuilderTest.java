@@ -1,6 +1,9 @@
 package fr.traqueur.commands.api.models;
 
+import fr.traqueur.commands.api.arguments.ArgumentKey;
 import fr.traqueur.commands.api.arguments.Arguments;
+import fr.traqueur.commands.api.arguments.Infinite;
+import fr.traqueur.commands.api.ratelimit.RateLimit;
 import fr.traqueur.commands.api.requirements.Requirement;
 import fr.traqueur.commands.test.mocks.MockCommandManager;
 import fr.traqueur.commands.test.mocks.MockPlatform;
@@ -8,6 +11,7 @@ import fr.traqueur.commands.test.mocks.MockSender;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -50,6 +54,20 @@ class CommandBuilderTest {
         assertThrows(IllegalStateException.class, builder::build);
     }
 
+    @Test
+    void build_withCooldown_setsRateLimit() {
+        Command<Object, MockSender> cmd = manager.command("test")
+                .cooldown(Duration.ofSeconds(5))
+                .executor((sender, args) -> {
+                })
+                .build();
+
+        assertNotNull(cmd.getRateLimiter());
+        assertEquals(RateLimit.cooldown(Duration.ofSeconds(5)), cmd.getRateLimiter().limit());
+        assertNull(manager.command("other").executor((sender, args) -> {
+        }).build().getRateLimiter());
+    }
+
     @Test
     void build_withGameOnly_setsFlag() {
         Command<Object, MockSender> cmd = manager.command("test")
@@ -260,6 +278,68 @@ class CommandBuilderTest {
         assertEquals("executed", received.get());
     }
 
+    // --- Argument keys ---
+
+    @Test
+    void argKeys_readParsedArgumentsBySlot() throws Exception {
+        AtomicReference<String> received = new AtomicReference<>();
+        CommandBuilder<Object, MockSender> builder = manager.command("give");
+        ArgumentKey<String> item = builder.argKey("item", String.class);
+        ArgumentKey<Integer> amount = builder.argKey("amount", int.class);
+        ArgumentKey<Double> chance = builder.optionalArgKey("chance", Double.class);
+        builder.optionalArg("note", Infinite.class);
+        ArgumentKey<String> note = builder.key("note", String.class);
+
+        Command<Object, MockSender> cmd = builder
+                .executor((sender, args) -> received.set(args.get(item) + " x" + args.getInt(amount)
+                        + " " + args.getOptional(chance).orElse(1.0) + " " + args.getOptional(note).orElse("-")))
+                .build();
+
+        assertEquals(0, item.index());
+        assertEquals(1, amount.index());
+        assertEquals(2, chance.index());
+        assertEquals(3, note.index());
+
+        cmd.execute(null, manager.parse(cmd, new String[]{"apple", "3", "0.5", "take", "care"}));
+        assertEquals("apple x3 0.5 take care", received.get());
+        cmd.execute(null, manager.parse(cmd, new String[]{"apple", "3"}));
+        assertEquals("apple x3 1.0 -", received.get());
+        assertThrows(IllegalArgumentException.class, () -> builder.key("missing", String.class));
+    }
+
+    @Test
+    void argKey_wrongType_isRejected() {
+        CommandBuilder<Object, MockSender> builder = manager.command("give");
+        builder.arg("amount", int.class);
+        builder.arg("item", String.class);
+        builder.optionalArg("note", Infinite.class);
+
+        assertEquals(0, builder.key("amount", Integer.class).index());
+        assertEquals(1, builder.key("item", CharSequence.class).index());
+        assertEquals(2, builder.key("note", String.class).index());
+        assertThrows(IllegalArgumentException.class, () -> builder.key("amount", String.class));
+        assertThrows(IllegalArgumentException.class, () -> builder.key("item", Integer.class));
+        assertThrows(IllegalArgumentException.class, () -> builder.key("note", Infinite.class));
+    }
+
+    @Test
+    void argKey_fallsBackToNameWhenSlotMoved() {
+        Command<Object, MockSender> cmd = manager.command("test")
+                .executor((sender, args) -> {
+                })
+                .build();
+        cmd.addOptionalArg("opt", String.class);
+        ArgumentKey<String> opt = cmd.getArgumentKey("opt", String.class);
+        cmd.addArg("req", String.class);
+
+        Arguments args = new Arguments(new fr.traqueur.commands.impl.logging.InternalLogger(java.util.logging.Logger.getLogger("test")));
+        args.add("req", String.class, "r");
+        args.add("opt", String.class, "o");
+
+        assertEquals("o", args.get(opt));
+        assertTrue(args.has(opt));
+    }
+
     // --- Register ---
 
     @Test
@@ -2,15 +2,32 @@ package fr.traqueur.commands.api.models;
 
 import fr.traqueur.commands.api.CommandManager;
 import fr.traqueur.commands.api.arguments.Arguments;
+import fr.traqueur.commands.api.arguments.AsyncArgumentConverter;
+import fr.traqueur.commands.api.arguments.Infinite;
+import fr.traqueur.commands.api.logging.Logger;
 import fr.traqueur.commands.api.logging.MessageHandler;
+import fr.traqueur.commands.api.metrics.LatencySnapshot;
+import fr.traqueur.commands.api.metrics.Stage;
+import fr.traqueur.commands.api.parsing.CommandLine;
+import fr.traqueur.commands.api.ratelimit.RateLimit;
 import fr.traqueur.commands.api.requirements.Requirement;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -70,6 +87,51 @@ class CommandInvokerTest {
         verify(platform).sendMessage("user", "NO_PERMISSION");
     }
 
+    @Test
+    void invoke_commandRateLimited_skipsRequirements() {
+        Requirement<String> req = mock(Requirement.class);
+        when(req.check(anyString())).thenReturn(true);
+        cmd.addRequirements(req);
+        cmd.setRateLimit(RateLimit.cooldown(Duration.ofHours(1)));
+        when(platform.getSenderKey(anyString())).thenAnswer(inv -> inv.getArgument(0));
+        when(messageHandler.getRateLimitedMessage()).thenReturn("SLOW_DOWN %time%");
+
+        assertTrue(manager.getInvoker().invoke("user", "base", new String[]{}));
+        assertTrue(manager.getInvoker().invoke("user", "base", new String[]{}));
+
+        verify(req, times(1)).check("user");
+        verify(platform).sendMessage("user", "SLOW_DOWN 3600");
+        assertTrue(manager.getInvoker().invoke("other", "base", new String[]{}));
+        verify(req).check("other");
+    }
+
+    @Test
+    void invoke_noPermission_doesNotSpendCommandRateLimit() {
+        cmd.setPermission("perm");
+        cmd.setRateLimit(RateLimit.cooldown(Duration.ofHours(1)));
+        when(platform.getSenderKey(anyString())).thenAnswer(inv -> inv.getArgument(0));
+        when(platform.hasPermission("user", "perm")).thenReturn(false);
+        when(messageHandler.getNoPermissionMessage()).thenReturn("NO_PERM");
+        when(messageHandler.getRateLimitedMessage()).thenReturn("SLOW_DOWN %time%");
+
+        manager.getInvoker().invoke("user", "base", new String[]{});
+        manager.getInvoker().invoke("user", "base", new String[]{});
+
+        verify(platform, times(2)).sendMessage("user", "NO_PERM");
+        verify(platform, never()).sendMessage("user", "SLOW_DOWN 3600");
+    }
+
+    @Test
+    void invoke_globallyRateLimited_rejectedBeforeLookup() {
+        manager.setRateLimit(RateLimit.cooldown(Duration.ofHours(1)));
+        when(platform.getSenderKey(anyString())).thenAnswer(inv -> inv.getArgument(0));
+        when(messageHandler.getRateLimitedMessage()).thenReturn("SLOW_DOWN");
+
+        assertFalse(manager.getInvoker().invoke("user", "unknown", new String[]{}));
+        assertTrue(manager.getInvoker().invoke("user", "unknown", new String[]{}));
+        verify(platform).sendMessage("user", "SLOW_DOWN");
+    }
+
     @Test
     void invoke_requirementFails_sendsRequirementError() {
         Requirement<String> req = mock(Requirement.class);
@@ -98,6 +160,177 @@ class CommandInvokerTest {
         verify(platform).sendMessage("user", "ARG_ERR bad");
     }
 
+    @Test
+    void invoke_unknownArgumentType_sendsInternalError_andReturnsFalse() {
+        cmd.addArgs("a", CommandInvokerTest.class);
+
+        assertFalse(manager.getInvoker().invoke("user", "base", new String[]{"x"}));
+        verify(platform).sendMessage("user", "&cInternal error: invalid argument type");
+    }
+
+    @Test
+    void invoke_asyncArgument_executesOnPlatformThreadOnceConverted() {
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        manager.registerConverter(StringBuilder.class,
+                (AsyncArgumentConverter<StringBuilder>) s -> lookup.thenApply(StringBuilder::new));
+        List<Runnable> scheduled = new ArrayList<>();
+        doAnswer(invocation -> scheduled.add(invocation.getArgument(0))).when(platform).runSync(any());
+        AtomicReference<Object> received = new AtomicReference<>();
+        DummyCommand clan = new DummyCommand() {
+            @Override
+            public void execute(String sender, Arguments arguments) {
+                received.set(arguments.get("clan"));
+            }
+        };
+        clan.addArgs("clan", StringBuilder.class);
+        manager.getCommands().addCommand("clan", clan);
+
+        assertTrue(manager.getInvoker().invoke("user", "clan", new String[]{"red"}));
+        assertTrue(scheduled.isEmpty());
+
+        lookup.complete("Red Team");
+        assertEquals(1, scheduled.size());
+        assertNull(received.get());
+        scheduled.getFirst().run();
+        assertEquals("Red Team", received.get().toString());
+    }
+
+    @Test
+    void invoke_asyncArgumentTimeout_tellsTheSender() {
+        manager.registerConverter(StringBuilder.class,
+                (AsyncArgumentConverter<StringBuilder>) s -> new CompletableFuture<>());
+        manager.setAsyncTimeout(Duration.ofMillis(20));
+        CompletableFuture<Runnable> scheduled = new CompletableFuture<>();
+        doAnswer(invocation -> scheduled.complete(invocation.getArgument(0))).when(platform).runSync(any());
+        when(messageHandler.getArgumentTimeoutMessage()).thenReturn("TIMEOUT %arg%");
+        DummyCommand clan = new DummyCommand();
+        clan.addArgs("clan", StringBuilder.class);
+        manager.getCommands().addCommand("clan", clan);
+
+        assertTrue(manager.getInvoker().invoke("user", "clan", new String[]{"red"}));
+        scheduled.orTimeout(2, TimeUnit.SECONDS).join().run();
+
+        verify(platform).sendMessage("user", "TIMEOUT red");
+    }
+
+    @Test
+    void invoke_asyncCommand_executesOnExecutor() {
+        List<Runnable> tasks = new ArrayList<>();
+        manager.setAsyncExecutor(tasks::add);
+        List<String> values = new ArrayList<>();
+        DummyCommand async = new DummyCommand() {
+            @Override
+            public void execute(String sender, Arguments arguments) {
+                values.add(arguments.get("x"));
+            }
+        };
+        async.addArgs("x", String.class);
+        async.setPooledArguments(true);
+        async.setExecutionMode(ExecutionMode.ASYNC);
+        manager.getCommands().addCommand("async", async);
+
+        assertTrue(manager.getInvoker().invoke("user", "async", new String[]{"a"}));
+        assertTrue(manager.getInvoker().invoke("user", "async", new String[]{"b"}));
+        assertTrue(values.isEmpty());
+
+        // the arguments are not pooled, so the first task still sees its own
+        tasks.forEach(Runnable::run);
+        assertEquals(List.of("a", "b"), values);
+    }
+
+    @Test
+    void invoke_asyncCommandFails_reportsFromPlatformThread() {
+        List<Runnable> tasks = new ArrayList<>();
+        manager.setAsyncExecutor(tasks::add);
+        List<Runnable> scheduled = new ArrayList<>();
+        doAnswer(invocation -> scheduled.add(invocation.getArgument(0))).when(platform).runSync(any());
+        when(messageHandler.getCommandFailedMessage()).thenReturn("FAILED");
+        Logger logger = mock(Logger.class);
+        manager.setLogger(logger);
+        DummyCommand failing = new DummyCommand() {
+            @Override
+            public void execute(String sender, Arguments arguments) {
+                throw new IllegalStateException("boom");
+            }
+        };
+        failing.setExecutionMode(ExecutionMode.ASYNC);
+        manager.getCommands().addCommand("failing", failing);
+
+        assertTrue(manager.getInvoker().invoke("user", "failing", new String[]{}));
+        tasks.getFirst().run();
+        verify(platform, never()).sendMessage("user", "FAILED");
+
+        verify(logger).error(contains("Error executing command"), argThat(e -> "boom".equals(e.getMessage())));
+        scheduled.getFirst().run();
+        verify(platform).sendMessage("user", "FAILED");
+    }
+
+    @Test
+    void invoke_coalescingCommand_sharesComputationOfEqualArguments() {
+        List<Runnable> tasks = new ArrayList<>();
+        manager.setAsyncExecutor(tasks::add);
+        List<Runnable> scheduled = new ArrayList<>();
+        doAnswer(invocation -> scheduled.add(invocation.getArgument(0))).when(platform).runSync(any());
+        AtomicInteger computations = new AtomicInteger();
+        List<String> replies = new ArrayList<>();
+        CoalescingCommand<String, String, String> top = new CoalescingCommand<>(null, "top") {
+            @Override
+            public String compute(Arguments arguments) {
+                return arguments.get("board") + "#" + computations.incrementAndGet();
+            }
+
+            @Override
+            public void reply(String sender, Arguments arguments, String result) {
+                replies.add(sender + ":" + result);
+            }
+        };
+        top.addArgs("board", String.class);
+        manager.getCommands().addCommand("top", top);
+
+        manager.getInvoker().invoke("alice", "top", new String[]{"kills"});
+        manager.getInvoker().invoke("bob", "top", new String[]{"kills"});
+        manager.getInvoker().invoke("carol", "top", new String[]{"deaths"});
+        assertEquals(2, tasks.size());
+        assertEquals(2, top.getInFlightCount());
+        assertEquals(1, top.getCoalescedCount());
+
+        tasks.forEach(Runnable::run);
+        assertEquals(0, top.getInFlightCount());
+        assertTrue(replies.isEmpty());
+        scheduled.forEach(Runnable::run);
+        assertEquals(List.of("alice:kills#1", "bob:kills#1", "carol:deaths#2"),
+                replies.stream().sorted().toList());
+
+        // completed computations are not reused
+        manager.getInvoker().invoke("alice", "top", new String[]{"kills"});
+        assertEquals(3, tasks.size());
+    }
+
+    @Test
+    void invoke_pooledArguments_reusesArgumentsOfThread() {
+        List<Arguments> seen = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        DummyCommand pooled = new DummyCommand() {
+            @Override
+            public void execute(String sender, Arguments arguments) {
+                seen.add(arguments);
+                values.add(arguments.get("x"));
+            }
+        };
+        pooled.addArgs("x", String.class);
+        pooled.setPooledArguments(true);
+        manager.getCommands().addCommand("pooled", pooled);
+
+        assertTrue(manager.getInvoker().invoke("user", "pooled", new String[]{"a"}));
+        assertTrue(manager.getInvoker().invoke("user", "pooled", CommandLine.tokenize("b")));
+        manager.getInvoker().invoke("user", "pooled", new String[]{"c"});
+
+        assertEquals(List.of("a", "b", "c"), values);
+        assertSame(seen.get(0), seen.get(1));
+        assertSame(seen.get(0), seen.get(2));
+        assertTrue(seen.get(0).isEmpty());
+    }
+
     @Test
     void invoke_valid_executesCommand_andReturnsTrue() {
         AtomicBoolean executed = new AtomicBoolean(false);
@@ -117,6 +350,32 @@ class CommandInvokerTest {
         assertTrue(executed.get());
     }
 
+    @Test
+    void invoke_commandLine_resolvesSubCommandAndSlicesGreedyArg() {
+        AtomicReference<String> message = new AtomicReference<>();
+
+        DummyCommand say = new DummyCommand() {
+            @Override
+            public void execute(String sender, Arguments arguments) {
+                message.set(arguments.get("message"));
+            }
+        };
+        say.addArgs("message", Infinite.class);
+        manager.getCommands().addCommand("base.say", say);
+
+        boolean result = manager.getInvoker().invoke("user", "base", CommandLine.tokenize("SAY  hello   \"big\" world"));
+        assertTrue(result);
+        assertEquals("hello   \"big\" world", message.get());
+    }
+
+    @Test
+    void suggest_commandLine_completesEmptyWordAfterSpace() {
+        manager.getCommands().addCommand("base.sub", new DummyCommand());
+
+        assertTrue(manager.getInvoker().suggest("user", "base", CommandLine.tokenize("")).contains("sub"));
+        assertTrue(manager.getInvoker().suggest("user", "base", CommandLine.tokenize("s")).contains("sub"));
+    }
+
     @Test
     void aliasWithSubCommand_executesSubCommand() {
         cmd.addAlias("base.sub");
@@ -187,6 +446,135 @@ class CommandInvokerTest {
         assertTrue(executed.get());
     }
 
+    @Test
+    void invoke_slowCommand_reportedByWatchdog() {
+        Logger logger = mock(Logger.class);
+        manager.setLogger(logger);
+        manager.setWatchdogThreshold(Duration.ofMillis(20));
+        DummyCommand slow = new DummyCommand() {
+            @Override
+            public void execute(String sender, Arguments arguments) {
+                verify(logger, timeout(2000)).error(contains("Command /slow executed by user"));
+            }
+        };
+        slow.addArgs("x", String.class);
+        manager.getCommands().addCommand("slow", slow);
+
+        try {
+            assertTrue(manager.getInvoker().invoke("user", "slow", new String[]{"value"}));
+        } finally {
+            manager.setWatchdogThreshold(null);
+        }
+        verify(logger).error(contains("arguments: {x=value}"));
+        verify(logger).error(contains("Command /slow finished after"));
+    }
+
+    @Test
+    void invoke_slowCommandWithAsyncArgument_reportedByWatchdogOnPlatformThread() {
+        Logger logger = mock(Logger.class);
+        manager.setLogger(logger);
+        manager.setWatchdogThreshold(Duration.ofMillis(20));
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        manager.registerConverter(StringBuilder.class,
+                (AsyncArgumentConverter<StringBuilder>) s -> lookup.thenApply(StringBuilder::new));
+        List<Runnable> scheduled = new ArrayList<>();
+        doAnswer(invocation -> scheduled.add(invocation.getArgument(0))).when(platform).runSync(any());
+        DummyCommand slow = new DummyCommand() {
+            @Override
+            public void execute(String sender, Arguments arguments) {
+                verify(logger, timeout(2000)).error(contains("Command /clan executed by user"));
+            }
+        };
+        slow.addArgs("clan", StringBuilder.class);
+        manager.getCommands().addCommand("clan", slow);
+
+        try {
+            assertTrue(manager.getInvoker().invoke("user", "clan", new String[]{"red"}));
+            lookup.complete("Red Team");
+            scheduled.getFirst().run();
+        } finally {
+            manager.setWatchdogThreshold(null);
+        }
+        verify(logger).error(contains("arguments: {clan=Red Team}"));
+        verify(logger).error(contains("Command /clan finished after"));
+    }
+
+    @Test
+    void invoke_slowPooledCommand_doesNotShareItsArgumentsWithWatchdog() {
+        Logger logger = mock(Logger.class);
+        manager.setLogger(logger);
+        manager.setWatchdogThreshold(Duration.ofMillis(20));
+        DummyCommand slow = new DummyCommand() {
+            @Override
+            public void execute(String sender, Arguments arguments) {
+                verify(logger, timeout(2000)).error(contains("Command /slow executed by user"));
+            }
+        };
+        slow.addArgs("x", String.class);
+        slow.setPooledArguments(true);
+        manager.getCommands().addCommand("slow", slow);
+
+        try {
+            assertTrue(manager.getInvoker().invoke("user", "slow", new String[]{"value"}));
+        } finally {
+            manager.setWatchdogThreshold(null);
+        }
+        verify(logger, never()).error(contains("arguments:"));
+    }
+
+    @Test
+    void invoke_metricsEnabled_timesEachStagePerLabel() {
+        assertEquals(LatencySnapshot.EMPTY, manager.getLatency("base", Stage.LOOKUP));
+        manager.setMetricsEnabled(true);
+        cmd.addArgs("a", String.class);
+        when(messageHandler.getCommandDisabledMessage()).thenReturn("DISABLED");
+
+        manager.getInvoker().invoke("user", "base", new String[]{"x"});
+        manager.getInvoker().invoke("user", "base", CommandLine.tokenize("y"));
+        cmd.setEnabled(false);
+        manager.getInvoker().invoke("user", "base", new String[]{"z"});
+
+        assertEquals(Set.of("base"), manager.getMetrics().labels());
+        assertEquals(3, manager.getLatency("base", Stage.LOOKUP).count());
+        assertEquals(3, manager.getLatency("base", Stage.VALIDATION).count());
+        assertEquals(2, manager.getLatency("base", Stage.PARSING).count());
+        LatencySnapshot execution = manager.getLatency("base", Stage.EXECUTION);
+        assertEquals(2, execution.count());
+        assertTrue(execution.p50() <= execution.p99() && execution.p99() <= execution.max());
+
+        manager.resetMetrics();
+        assertEquals(LatencySnapshot.EMPTY, manager.getLatency("base", Stage.EXECUTION));
+        manager.setMetricsEnabled(false);
+        assertNull(manager.getMetrics());
+    }
+
+    @Test
+    void invoke_metricsEnabled_timesAsyncCommandUntilItReturns() {
+        List<Runnable> tasks = new ArrayList<>();
+        manager.setAsyncExecutor(tasks::add);
+        manager.setMetricsEnabled(true);
+        DummyCommand async = new DummyCommand() {
+            @Override
+            public void execute(String sender, Arguments arguments) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        async.setExecutionMode(ExecutionMode.ASYNC);
+        manager.getCommands().addCommand("async", async);
+
+        manager.getInvoker().invoke("user", "async", new String[]{});
+        assertEquals(LatencySnapshot.EMPTY, manager.getLatency("async", Stage.EXECUTION));
+        tasks.getFirst().run();
+
+        LatencySnapshot execution = manager.getLatency("async", Stage.EXECUTION);
+        assertEquals(1, execution.count());
+        assertTrue(execution.max() >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
     @Test
     void invoke_enabledByDefault_executesNormally() {
         AtomicBoolean executed = new AtomicBoolean(false);
@@ -11,6 +11,8 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class CommandTest {
 
@@ -132,6 +134,39 @@ class CommandTest {
         assertTrue(usage.contains("[opt:string]"));
     }
 
+    @Test
+    void usage_isCachedUntilCommandChanges() {
+        cmd.addArgs("req", String.class);
+        String first = cmd.generateDefaultUsage(null, "dummy");
+        assertSame(first, cmd.generateDefaultUsage(null, "dummy"));
+
+        cmd.addSubCommand(new DummyCommand("sub"));
+        assertEquals("/dummy <sub>|<req:string>", cmd.generateDefaultUsage(null, "dummy"));
+        cmd.addOptionalArgs("opt", String.class);
+        assertEquals("/dummy <sub>|<req:string> [opt:string]", cmd.generateDefaultUsage(null, "dummy"));
+    }
+
+    @Test
+    void usage_dependsOnSubcommandPermissions() {
+        DummyCommand open = new DummyCommand("open");
+        DummyCommand admin = new DummyCommand("admin");
+        admin.setPermission("perm.admin");
+        cmd.addSubCommand(open, admin);
+
+        MockSender player = mock(MockSender.class);
+        MockSender operator = mock(MockSender.class);
+        when(operator.hasPermission("perm.admin")).thenReturn(true);
+
+        assertEquals("/dummy <open>", cmd.generateDefaultUsage(player, "dummy"));
+        assertEquals("/dummy <open|admin>", cmd.generateDefaultUsage(operator, "dummy"));
+        assertEquals("/dummy <open>", cmd.generateDefaultUsage(player, "dummy"));
+
+        // the parent is told when a subcommand permission changes
+        open.setPermission("perm.open");
+        assertEquals("/dummy", cmd.generateDefaultUsage(player, "dummy"));
+        assertEquals("/dummy <admin>", cmd.generateDefaultUsage(operator, "dummy"));
+    }
+
     @Test
     void setEnabled_defaultIsTrue() {
         assertTrue(cmd.isEnabled());
@@ -0,0 +1,146 @@
+package fr.traqueur.commands.api.models;
+
+import fr.traqueur.commands.api.arguments.Arguments;
+import fr.traqueur.commands.impl.logging.InternalLogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandWatchdogTest {
+
+    private AtomicLong clock;
+    private List<String> reports;
+    private CommandWatchdog watchdog;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        reports = new ArrayList<>();
+        watchdog = new CommandWatchdog(Duration.ofMillis(50), reports::add, clock::get, false);
+    }
+
+    @Test
+    void fastInvocation_isNotReported() {
+        CommandWatchdog.Execution execution = watchdog.enter("fast", "user");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        watchdog.check();
+        watchdog.exit(execution);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        watchdog.check();
+
+        assertTrue(reports.isEmpty());
+    }
+
+    @Test
+    void slowInvocation_isReportedOnceWithStackAndArguments() {
+        Arguments arguments = new Arguments(new InternalLogger(java.util.logging.Logger.getLogger("test")));
+        arguments.add("target", String.class, "Notch");
+
+        CommandWatchdog.Execution execution = watchdog.enter("kick.all", "admin");
+        watchdog.attach(arguments);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(60));
+        watchdog.check();
+        watchdog.check();
+
+        assertEquals(1, reports.size());
+        String report = reports.getFirst();
+        assertTrue(report.startsWith("Command /kick.all executed by admin has been running for 60 ms"));
+        assertTrue(report.contains("arguments: {target=Notch}"));
+        assertTrue(report.contains("\tat " + CommandWatchdogTest.class.getName()));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(40));
+        watchdog.exit(execution);
+        assertEquals(2, reports.size());
+        assertEquals("Command /kick.all finished after 100 ms.", reports.get(1));
+    }
+
+    @Test
+    void nestedInvocation_isPartOfTheOuterOne() {
+        CommandWatchdog.Execution outer = watchdog.enter("outer", "user");
+        CommandWatchdog.Execution inner = watchdog.enter("inner", "user");
+        assertSame(outer, inner);
+        watchdog.exit(inner);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(60));
+        watchdog.check();
+        watchdog.exit(outer);
+
+        assertEquals(2, reports.size());
+        assertTrue(reports.getFirst().startsWith("Command /outer"));
+    }
+
+    @Test
+    void invocationOnAnotherThread_isReportedWithItsStack() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            CommandWatchdog.Execution execution = watchdog.enter("blocking", "user");
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                watchdog.exit(execution);
+            }
+        }, "command-thread");
+        thread.start();
+        entered.await();
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(60));
+        watchdog.check();
+        release.countDown();
+        thread.join();
+
+        assertTrue(reports.getFirst().contains("on thread command-thread"));
+        assertTrue(reports.getFirst().contains("CountDownLatch.await"));
+    }
+
+    @Test
+    void virtualThreads_areNotTracked() throws InterruptedException {
+        AtomicReference<CommandWatchdog.Execution> tracked = new AtomicReference<>();
+        Thread thread = Thread.ofVirtual().start(() -> {
+            CommandWatchdog.Execution execution = watchdog.enter("async", "user");
+            tracked.set(execution);
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(60));
+            watchdog.check();
+            watchdog.exit(execution);
+        });
+        thread.join();
+
+        assertNull(tracked.get());
+        assertTrue(reports.isEmpty());
+    }
+
+    @Test
+    void reportAndExit_agreeOnFinishedLine() {
+        for (int i = 0; i < 100; i++) {
+            CommandWatchdog.Execution execution = watchdog.enter("loop", "user");
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(60));
+            if (i % 2 == 0) {
+                watchdog.check();
+            }
+            watchdog.exit(execution);
+            watchdog.check();
+        }
+
+        assertEquals(100, reports.size());
+        assertEquals(50, reports.stream().filter(report -> report.contains("finished after")).count());
+    }
+
+    @Test
+    void threshold_mustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new CommandWatchdog(Duration.ZERO, reports::add));
+    }
+}
@@ -0,0 +1,135 @@
+package fr.traqueur.commands.api.models.collections;
+
+import fr.traqueur.commands.api.models.Command;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandTreeConcurrencyTest {
+
+    private static final int STABLE = 500;
+    private static final int WRITERS = 2;
+    private static final int READERS = 4;
+    private static final long DURATION_MS = 1_000;
+
+    @Test
+    void readersNeverSeeHalfBuiltTreeWhileWritersMutate() throws Exception {
+        CommandTree<String, String> tree = new CommandTree<>();
+        List<StubCommand> stable = new ArrayList<>();
+        for (int i = 0; i < STABLE; i++) {
+            StubCommand cmd = new StubCommand("stable" + i);
+            stable.add(cmd);
+            tree.addCommand("stable" + i + ".leaf", cmd);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            futures.add(pool.submit(() -> {
+                await(start);
+                int round = 0;
+                while (running.get()) {
+                    String base = "dyn" + writer + "_" + (round % 64);
+                    StubCommand cmd = new StubCommand(base);
+                    tree.addCommand(base, cmd);
+                    tree.addCommand(base + ".sub", new StubCommand(base + ".sub"));
+                    tree.removeCommand(base, round % 2 == 0);
+                    if (round % 50 == 0) {
+                        tree.addCommand("stable" + (round % STABLE) + ".extra", new StubCommand("extra"));
+                        tree.removeCommand("stable" + (round % STABLE) + ".extra", true);
+                    }
+                    round++;
+                }
+            }));
+        }
+
+        for (int r = 0; r < READERS; r++) {
+            futures.add(pool.submit(() -> {
+                await(start);
+                int i = 0;
+                while (running.get()) {
+                    int idx = i++ % STABLE;
+                    Optional<CommandTree.MatchResult<String, String>> match =
+                            tree.findNode("stable" + idx, new String[]{"leaf", "arg"});
+                    assertTrue(match.isPresent(), "stable command disappeared: stable" + idx);
+                    CommandTree.CommandNode<String, String> node = match.get().node();
+                    assertSame(stable.get(idx), node.getCommand().orElse(null));
+                    assertEquals("stable" + idx + ".leaf", node.getFullLabel());
+                    assertArrayEquals(new String[]{"arg"}, match.get().args());
+
+                    CommandTree.CommandNode<String, String> root = tree.getRoot();
+                    root.getChildren().forEach((label, child) -> {
+                        assertNotNull(child);
+                        assertEquals(label, child.getFullLabel());
+                    });
+                }
+            }));
+        }
+
+        start.countDown();
+        Thread.sleep(DURATION_MS);
+        running.set(false);
+        for (Future<?> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                failure.compareAndSet(null, e.getCause());
+            }
+        }
+        pool.shutdownNow();
+
+        if (failure.get() != null) {
+            fail(failure.get());
+        }
+        assertEquals(STABLE, tree.getRoot().getChildren().keySet().stream()
+                .filter(label -> label.startsWith("stable")).count());
+    }
+
+    @Test
+    void snapshotIsUnaffectedByLaterWrites() {
+        CommandTree<String, String> tree = new CommandTree<>();
+        StubCommand root = new StubCommand("root");
+        tree.addCommand("root", root);
+        tree.addCommand("root.sub", new StubCommand("sub"));
+
+        CommandTree.CommandNode<String, String> snapshot = tree.getRoot();
+        tree.removeCommand("root.sub", true);
+        tree.addCommand("other", new StubCommand("other"));
+
+        CommandTree.CommandNode<String, String> oldRoot = snapshot.getChildren().get("root");
+        assertNotNull(oldRoot.getChildren().get("sub"));
+        assertNull(snapshot.getChildren().get("other"));
+        assertNull(tree.getRoot().getChildren().get("root").getChildren().get("sub"));
+        assertNotNull(tree.getRoot().getChildren().get("other"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class StubCommand extends Command<String, String> {
+        StubCommand(String name) {
+            super(null, name);
+        }
+
+        @Override
+        public void execute(String sender, fr.traqueur.commands.api.arguments.Arguments args) {
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package fr.traqueur.commands.api.models.collections;
 
 import fr.traqueur.commands.api.models.Command;
+import fr.traqueur.commands.api.parsing.CommandLine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -135,6 +141,213 @@ class CommandTreeTest {
         assertFalse(opt.isPresent(), "Expected no command at 'root.sub.subsub' after pruning");
     }
 
+    @Test
+    void testResolveReturnsNodeAndOffsetIntoCallerArgs() {
+        rootCmd.addSubCommand(subCmd);
+        tree.addCommand("root", rootCmd);
+        tree.addCommand("root.sub", subCmd);
+
+        String[] raw = {"SUB", "x", "y"};
+        CommandTree.CommandNode<String, String> node = tree.resolve("root", raw);
+        assertNotNull(node);
+        assertSame(subCmd, node.command());
+        assertEquals("root.sub", node.getFullLabel());
+        assertEquals(2, node.getDepth());
+        assertEquals(1, node.getArgumentOffset());
+        assertEquals("x", raw[node.getArgumentOffset()]);
+
+        CommandTree.CommandNode<String, String> base = tree.resolve("root", new String[]{"a"});
+        assertSame(rootCmd, base.command());
+        assertEquals(0, base.getArgumentOffset());
+
+        assertNull(tree.resolve("unknown", new String[]{}));
+    }
+
+    @Test
+    void testLookupIgnoresCaseWithoutDependingOnLocale() {
+        tree.addCommand("Title.Info", subCmd);
+        assertNotNull(tree.getRoot().getChildren().get("title"));
+        assertEquals("title.info", tree.findNode(new String[]{"title", "info"}).get().node().getFullLabel());
+
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            CommandTree.CommandNode<String, String> node = tree.resolve("TITLE", new String[]{"INFO", "Arg"});
+            assertNotNull(node);
+            assertSame(subCmd, node.command());
+            assertEquals(1, node.getArgumentOffset());
+            assertNotNull(tree.getRoot().getChild("tItLe").getChild("xinfo", 1, 5));
+        } finally {
+            Locale.setDefault(previous);
+        }
+
+        tree.removeCommand("TITLE.INFO", true);
+        assertFalse(tree.findNode(new String[]{"title", "info"}).isPresent());
+    }
+
+    @Test
+    void testFrozenLookupsMatchLiveTree() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            StringBuilder label = new StringBuilder("c" + random.nextInt(300));
+            int depth = random.nextInt(4);
+            for (int d = 0; d < depth; d++) {
+                label.append(".s").append(random.nextInt(5));
+            }
+            tree.addCommand(label.toString(), new StubCommand(label.toString()));
+        }
+        // group node without command: unknown segments must not fall back to arguments
+        tree.addCommand("group.only.leaf", subCmd);
+
+        String[][] queries = new String[5_000][];
+        for (int q = 0; q < queries.length; q++) {
+            String[] query = new String[1 + random.nextInt(5)];
+            query[0] = random.nextInt(20) == 0 ? "group" : "C" + random.nextInt(320);
+            for (int a = 1; a < query.length; a++) {
+                query[a] = random.nextBoolean() ? "S" + random.nextInt(6) : "only";
+            }
+            queries[q] = query;
+        }
+
+        List<CommandTree.CommandNode<String, String>> expected = new ArrayList<>();
+        for (int q = 0; q < queries.length; q++) {
+            expected.add(tree.resolve(queries[q][0], Arrays.copyOfRange(queries[q], 1, queries[q].length)));
+            assertSame(expected.get(q), tree.resolve(queries[q][0], line(queries[q])),
+                    "line query " + Arrays.toString(queries[q]));
+        }
+
+        tree.freeze();
+        assertTrue(tree.isFrozen());
+        for (int q = 0; q < queries.length; q++) {
+            assertSame(expected.get(q), tree.resolve(queries[q][0], Arrays.copyOfRange(queries[q], 1, queries[q].length)),
+                    "query " + Arrays.toString(queries[q]));
+            assertSame(expected.get(q), tree.resolve(queries[q][0], line(queries[q])),
+                    "frozen line query " + Arrays.toString(queries[q]));
+        }
+        assertSame(subCmd, tree.findNode(new String[]{"GROUP", "only", "leaf"}).get().node().command());
+        assertFalse(tree.findNode(new String[]{"group", "missing"}).isPresent());
+        assertNull(tree.resolve("group", new String[]{"other"}));
+    }
+
+    private static CommandLine line(String[] query) {
+        // arguments after the base label, with irregular spacing
+        return CommandLine.tokenize(" " + String.join("  ", Arrays.copyOfRange(query, 1, query.length)) + " ");
+    }
+
+    @Test
+    void testFrozenTreeCompressesSingleChildChains() {
+        StubCommand add = new StubCommand("add");
+        StubCommand remove = new StubCommand("remove");
+        tree.addCommand("admin.user.permission.group.add", add);
+        tree.addCommand("admin.user.permission.group.remove", remove);
+        tree.addCommand("admin.reload", rootCmd);
+
+        CompiledCommandTree<String, String> compiled = CompiledCommandTree.compile(tree.getRoot());
+        // user.permission.group collapses into a single edge
+        assertEquals(8, compiled.sourceSize());
+        assertEquals(6, compiled.size());
+
+        tree.freeze();
+        String[] raw = {"user", "PERMISSION", "group", "add", "x"};
+        CommandTree.CommandNode<String, String> node = tree.resolve("admin", raw);
+        assertSame(add, node.command());
+        assertEquals(4, node.getArgumentOffset());
+
+        // stopping inside the compressed edge returns the group node itself
+        CommandTree.CommandNode<String, String> inside = tree.resolve("admin", new String[]{"user", "permission"});
+        assertEquals("admin.user.permission", inside.getFullLabel());
+        assertNull(inside.command());
+        assertEquals("admin.user", tree.findNode(new String[]{"admin", "user"}).get().node().getFullLabel());
+
+        // diverging inside the edge has no command to fall back to
+        assertNull(tree.resolve("admin", new String[]{"user", "other", "group"}));
+        assertFalse(tree.findNode(new String[]{"admin", "user", "other"}).isPresent());
+        assertSame(remove, tree.findNode(new String[]{"admin", "user", "permission", "group", "remove"})
+                .get().node().command());
+    }
+
+    @Test
+    void testAliasSharesNodeAndFollowsLaterWrites() {
+        tree.addCommand("root", rootCmd);
+        assertTrue(tree.addAlias("r", "root"));
+        assertSame(tree.getRoot().getChildren().get("root"), tree.getRoot().getChildren().get("r"));
+
+        // writes through either label update the shared node
+        tree.addCommand("root.sub", subCmd);
+        tree.addCommand("r.sub.subsub", subSubCmd);
+        assertSame(tree.getRoot().getChildren().get("root"), tree.getRoot().getChildren().get("r"));
+        CommandTree.CommandNode<String, String> node = tree.resolve("R", new String[]{"sub", "subsub", "x"});
+        assertSame(subSubCmd, node.command());
+        assertEquals("root.sub.subsub", node.getFullLabel());
+        assertEquals(2, node.getArgumentOffset());
+
+        // nested alias, then re-linked when an ancestor changes
+        assertTrue(tree.addAlias("root.s", "root.sub"));
+        tree.addCommand("root.other", new StubCommand("other"));
+        CommandTree.CommandNode<String, String> shared = tree.getRoot().getChildren().get("root");
+        assertSame(shared, tree.getRoot().getChildren().get("r"));
+        assertSame(shared.getChildren().get("sub"), shared.getChildren().get("s"));
+
+        tree.freeze();
+        assertSame(subSubCmd, tree.resolve("r", new String[]{"s", "subsub"}).command());
+        assertSame(subCmd, tree.findNode(new String[]{"r", "s"}).get().node().command());
+
+        assertFalse(tree.addAlias("root.other", "root.sub"), "label already used by a command");
+        assertThrows(IllegalArgumentException.class, () -> tree.addAlias("x.y", "root"));
+        assertThrows(IllegalArgumentException.class, () -> tree.addAlias("missing", "nothing"));
+    }
+
+    @Test
+    void testRemovingAliasOrTarget() {
+        tree.addCommand("root", rootCmd);
+        tree.addCommand("root.sub", subCmd);
+        tree.addAlias("r", "root");
+        tree.addAlias("root.s", "root.sub");
+
+        tree.removeCommand("r", true);
+        assertNull(tree.getRoot().getChildren().get("r"));
+        assertSame(rootCmd, tree.resolve("root", new String[]{}).command());
+
+        tree.removeCommand("root.sub", true);
+        assertNull(tree.getRoot().getChildren().get("root").getChildren().get("s"));
+
+        // the forgotten alias does not come back with its target
+        tree.addCommand("root.sub", subCmd);
+        assertNull(tree.getRoot().getChildren().get("root").getChildren().get("s"));
+    }
+
+    @Test
+    void testBatchPublishesOnce() {
+        tree.addCommand("root", rootCmd);
+        tree.freeze();
+        CommandTree.CommandNode<String, String> before = tree.getRoot();
+
+        tree.batch(() -> {
+            tree.addCommand("root.sub", subCmd);
+            tree.addAlias("r", "root");
+            assertSame(before, tree.getRoot(), "readers keep the previous snapshot during a batch");
+            assertTrue(tree.isFrozen());
+        });
+        assertFalse(tree.isFrozen());
+        assertSame(subCmd, tree.resolve("r", new String[]{"sub"}).command());
+    }
+
+    @Test
+    void testWriteAfterFreezeIsVisible() {
+        tree.addCommand("root", rootCmd);
+        tree.freeze();
+        assertTrue(tree.isFrozen());
+
+        tree.addCommand("root.sub", subCmd);
+        assertFalse(tree.isFrozen());
+        assertSame(subCmd, tree.resolve("root", new String[]{"sub"}).command());
+
+        tree.freeze();
+        tree.removeCommand("root.sub", true);
+        assertFalse(tree.isFrozen());
+        assertSame(rootCmd, tree.resolve("root", new String[]{"sub"}).command());
+    }
+
     // stub Command to use in tests
     static class StubCommand extends Command<String, String> {
         public StubCommand(String name) {
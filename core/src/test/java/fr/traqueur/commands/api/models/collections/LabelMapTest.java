@@ -0,0 +1,98 @@
+package fr.traqueur.commands.api.models.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LabelMapTest {
+
+    @Test
+    void withAndWithout_matchHashMapSemantics() {
+        Map<String, Integer> expected = new HashMap<>();
+        LabelMap<Integer> map = LabelMap.empty();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            String key = "k" + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.without(key);
+            } else {
+                expected.put(key, i);
+                map = map.with(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(expected, new HashMap<>(map));
+    }
+
+    @Test
+    void collidingKeys_areKeptApart() {
+        // "aan" and "ac0" share the same String#hashCode
+        LabelMap<String> map = LabelMap.<String>empty().with("aan", "first").with("ac0", "second");
+
+        assertEquals("first", map.get("AAN"));
+        assertEquals("second", map.get("Ac0"));
+
+        LabelMap<String> removed = map.without("aAn");
+        assertNull(removed.get("aan"));
+        assertEquals("second", removed.get("ac0"));
+        assertEquals(1, removed.size());
+    }
+
+    @Test
+    void keys_areFoldedAndMatchedIgnoringCase() {
+        LabelMap<String> map = LabelMap.<String>empty().with("Help", "1");
+
+        assertEquals(Set.of("help"), map.keySet());
+        assertEquals("1", map.get("HELP"));
+        assertEquals("1", map.get("/help me", 1, 5));
+        assertNull(map.get("helper"));
+        assertNull(map.get("/help me", 1, 4));
+        assertSame(map, map.with("HELP", "1"));
+        assertTrue(map.without("hElP").isEmpty());
+    }
+
+    @Test
+    void nonAsciiInput_isFoldedLikeEqualsIgnoreCase() {
+        LabelMap<String> map = LabelMap.<String>empty().with("kick", "1").with("\u00e9tat", "2");
+
+        // KELVIN SIGN folds to 'k', as in String#equalsIgnoreCase
+        assertEquals("1", map.get("\u212aick"));
+        assertEquals("2", map.get("\u00c9TAT"));
+        assertSame("kick", LabelMap.fold("kick"));
+    }
+
+    @Test
+    void updates_doNotTouchPreviousVersion() {
+        LabelMap<String> v1 = LabelMap.<String>empty().with("a", "1");
+        LabelMap<String> v2 = v1.with("b", "2").without("a");
+
+        assertEquals("1", v1.get("a"));
+        assertNull(v1.get("b"));
+        assertNull(v2.get("a"));
+        assertEquals("2", v2.get("b"));
+    }
+
+    @Test
+    void unchangedUpdates_returnSameInstance() {
+        LabelMap<String> map = LabelMap.<String>empty().with("a", "1");
+        assertSame(map, map.without("missing"));
+        assertSame(map, map.with("a", map.get("a")));
+    }
+
+    @Test
+    void isReadOnlyThroughMapInterface() {
+        Map<String, String> map = LabelMap.<String>empty().with("a", "1");
+        assertThrows(UnsupportedOperationException.class, () -> map.put("b", "2"));
+    }
+}
@@ -0,0 +1,93 @@
+package fr.traqueur.commands.api.parsing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandLineTest {
+
+    @Test
+    void tokenize_skipsRepeatedSpaces() {
+        CommandLine line = CommandLine.tokenize("  give   steve  64 ");
+
+        assertEquals(3, line.size());
+        assertEquals("give", line.get(0));
+        assertEquals("steve", line.get(1));
+        assertEquals("64", line.get(2));
+        assertEquals(9, line.start(1));
+        assertEquals(14, line.end(1));
+    }
+
+    @Test
+    void tokenize_emptyOrBlankInput_hasNoTokens() {
+        assertTrue(CommandLine.tokenize("").isEmpty());
+        assertTrue(CommandLine.tokenize("    ").isEmpty());
+        assertEquals("", CommandLine.tokenize("").rest(0));
+    }
+
+    @Test
+    void tokenize_quotedTokens() {
+        CommandLine line = CommandLine.tokenize("say \"hello world\" 'it''s' \"\" \"open end");
+
+        assertEquals(7, line.size());
+        assertEquals("say", line.get(0));
+        assertEquals("hello world", line.get(1));
+        assertEquals("it", line.get(2));
+        assertEquals("s", line.get(3));
+        assertEquals("", line.get(4));
+        assertEquals("\"open", line.get(5));
+        assertEquals("end", line.get(6));
+    }
+
+    @Test
+    void tokenize_unclosedQuote_isLiteral() {
+        CommandLine line = CommandLine.tokenize("bob 'tis fine");
+
+        assertEquals(3, line.size());
+        assertEquals("'tis", line.get(1));
+        assertEquals("fine", line.get(2));
+        assertEquals("'tis fine", line.rest(1).toString());
+    }
+
+    @Test
+    void tokenize_quoteInsideWord_isLiteral() {
+        CommandLine line = CommandLine.tokenize("don't \"stop\"");
+
+        assertEquals(2, line.size());
+        assertEquals("don't", line.get(0));
+        assertEquals("stop", line.get(1));
+    }
+
+    @Test
+    void rest_keepsInputAsTyped() {
+        CommandLine line = CommandLine.tokenize("msg bob  \"hi there\"  you ");
+
+        assertEquals("bob  \"hi there\"  you", line.rest(1).toString());
+        assertEquals("\"hi there\"  you", line.rest(2).toString());
+        assertEquals("you", line.rest(3).toString());
+        assertEquals("", line.rest(4).toString());
+    }
+
+    @Test
+    void restLength_matchesRest() {
+        CommandLine line = CommandLine.tokenize("msg bob  \"hi there\"  you ");
+
+        for (int i = 0; i <= line.size(); i++) {
+            assertEquals(line.rest(i).length(), line.restLength(i));
+        }
+    }
+
+    @Test
+    void rest_afterUnclosedQuote_runsToEndOfInput() {
+        CommandLine line = CommandLine.tokenize("a \"b c");
+
+        assertEquals("\"b c", line.rest(1).toString());
+    }
+
+    @Test
+    void toCompletionArray_addsEmptyWordAfterTrailingSpace() {
+        assertArrayEquals(new String[]{""}, CommandLine.tokenize("").toCompletionArray());
+        assertArrayEquals(new String[]{"sub"}, CommandLine.tokenize("sub").toCompletionArray());
+        assertArrayEquals(new String[]{"sub", ""}, CommandLine.tokenize("sub ").toCompletionArray());
+    }
+}
@@ -0,0 +1,75 @@
+package fr.traqueur.commands.api.permissions;
+
+import fr.traqueur.commands.api.models.CommandPlatform;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+class PermissionCacheTest {
+
+    private CommandPlatform<Object, String> platform;
+    private AtomicLong clock;
+    private PermissionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        platform = mock(CommandPlatform.class);
+        when(platform.getPermissionKey(anyString())).thenAnswer(inv -> inv.getArgument(0));
+        when(platform.hasPermission("steve", "kit.vip")).thenReturn(true);
+        clock = new AtomicLong();
+        cache = new PermissionCache(Duration.ofSeconds(5), 2, clock::get);
+    }
+
+    @Test
+    void repeatedChecks_askPlatformOnce() {
+        assertTrue(cache.hasPermission(platform, "steve", "kit.vip"));
+        assertTrue(cache.hasPermission(platform, "steve", "kit.vip"));
+        assertFalse(cache.hasPermission(platform, "steve", "kit.admin"));
+        assertFalse(cache.hasPermission(platform, "steve", "kit.admin"));
+
+        verify(platform, times(1)).hasPermission("steve", "kit.vip");
+        verify(platform, times(1)).hasPermission("steve", "kit.admin");
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertEquals(0.5, cache.hitRate());
+    }
+
+    @Test
+    void decisions_expireAndInvalidate() {
+        cache.hasPermission(platform, "steve", "kit.vip");
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        cache.hasPermission(platform, "steve", "kit.vip");
+        verify(platform, times(2)).hasPermission("steve", "kit.vip");
+
+        when(platform.hasPermission("steve", "kit.vip")).thenReturn(false);
+        assertTrue(cache.hasPermission(platform, "steve", "kit.vip"));
+        cache.invalidate("steve");
+        assertFalse(cache.hasPermission(platform, "steve", "kit.vip"));
+    }
+
+    @Test
+    void senderWithoutKey_isNeverCached() {
+        when(platform.getPermissionKey("console")).thenReturn(null);
+
+        cache.hasPermission(platform, "console", "kit.vip");
+        cache.hasPermission(platform, "console", "kit.vip");
+
+        verify(platform, times(2)).hasPermission("console", "kit.vip");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void maximumSenders_bound() {
+        cache.hasPermission(platform, "a", "p");
+        cache.hasPermission(platform, "b", "p");
+        cache.hasPermission(platform, "c", "p");
+
+        assertTrue(cache.size() <= 2);
+    }
+}
@@ -0,0 +1,101 @@
+package fr.traqueur.commands.api.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private AtomicLong clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(123_456_789L);
+    }
+
+    @Test
+    void cooldown_allowsOneInvocationPerPeriod() {
+        RateLimiter limiter = new RateLimiter(RateLimit.cooldown(Duration.ofSeconds(2)), clock::get);
+
+        assertEquals(0, limiter.tryAcquire("steve"));
+        assertEquals(2 * SECOND, limiter.tryAcquire("steve"));
+
+        clock.addAndGet(SECOND);
+        assertEquals(SECOND, limiter.tryAcquire("steve"));
+
+        clock.addAndGet(SECOND);
+        assertEquals(0, limiter.tryAcquire("steve"));
+    }
+
+    @Test
+    void burst_refillsOnePermitAtATime() {
+        RateLimiter limiter = new RateLimiter(RateLimit.of(3, Duration.ofSeconds(3)), clock::get);
+
+        assertEquals(0, limiter.tryAcquire("steve"));
+        assertEquals(0, limiter.tryAcquire("steve"));
+        assertEquals(0, limiter.tryAcquire("steve"));
+        assertEquals(SECOND, limiter.tryAcquire("steve"));
+
+        clock.addAndGet(SECOND);
+        assertEquals(0, limiter.tryAcquire("steve"));
+        assertTrue(limiter.tryAcquire("steve") > 0);
+    }
+
+    @Test
+    void senders_haveTheirOwnBuckets() {
+        RateLimiter limiter = new RateLimiter(RateLimit.cooldown(Duration.ofSeconds(1)), clock::get);
+
+        assertEquals(0, limiter.tryAcquire("steve"));
+        assertTrue(limiter.tryAcquire("steve") > 0);
+        assertEquals(0, limiter.tryAcquire("alex"));
+
+        limiter.reset("steve");
+        assertEquals(0, limiter.tryAcquire("steve"));
+    }
+
+    @Test
+    void fullBuckets_expire() {
+        RateLimiter limiter = new RateLimiter(RateLimit.of(2, Duration.ofSeconds(2)), clock::get);
+        limiter.tryAcquire("steve");
+        limiter.tryAcquire("alex");
+        assertEquals(2, limiter.size());
+
+        clock.addAndGet(2 * SECOND);
+        limiter.tryAcquire("herobrine");
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void concurrentSenders_neverExceedTheBurst() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(RateLimit.of(100, Duration.ofHours(1)), clock::get);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            pool.execute(() -> {
+                if (limiter.tryAcquire("steve") == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, allowed.get());
+    }
+
+    @Test
+    void invalidLimit_throws() {
+        assertThrows(IllegalArgumentException.class, () -> RateLimit.of(0, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> RateLimit.cooldown(Duration.ZERO));
+    }
+}
@@ -0,0 +1,194 @@
+package fr.traqueur.commands.api.requirements;
+
+import fr.traqueur.commands.api.models.CommandPlatform;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CachedRequirementTest {
+
+    private AtomicInteger calls;
+    private AtomicLong clock;
+    private Set<String> allowed;
+    private Requirement<String> inRegion;
+
+    @BeforeEach
+    void setUp() {
+        calls = new AtomicInteger();
+        clock = new AtomicLong();
+        allowed = new HashSet<>(Set.of("steve"));
+        inRegion = new Requirement<>() {
+            @Override
+            public boolean check(String sender) {
+                calls.incrementAndGet();
+                return allowed.contains(sender);
+            }
+
+            @Override
+            public String errorMessage() {
+                return "not in region";
+            }
+        };
+    }
+
+    @Test
+    void repeatedCheck_callsDelegateOncePerSender() {
+        CachedRequirement<String> cached = CachedRequirement.of(inRegion).ticker(clock::get).build();
+
+        assertTrue(cached.check("steve"));
+        assertTrue(cached.check("steve"));
+        assertFalse(cached.check("alex"));
+        assertFalse(cached.check("alex"));
+
+        assertEquals(2, calls.get());
+        assertEquals(2, cached.hitCount());
+        assertEquals(2, cached.missCount());
+        assertEquals("not in region", cached.errorMessage());
+    }
+
+    @Test
+    void results_expireAfterTtl() {
+        CachedRequirement<String> cached = CachedRequirement.of(inRegion)
+                .expireAfter(Duration.ofSeconds(2))
+                .ticker(clock::get)
+                .build();
+
+        assertTrue(cached.check("steve"));
+        allowed.remove("steve");
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertTrue(cached.check("steve"));
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertFalse(cached.check("steve"));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void stableResults_lastUntilInvalidated() {
+        CachedRequirement<String> cached = CachedRequirement.of(inRegion)
+                .stableUntilInvalidated()
+                .ticker(clock::get)
+                .build();
+
+        assertTrue(cached.check("steve"));
+        allowed.remove("steve");
+        clock.addAndGet(Duration.ofDays(1).toNanos());
+        assertTrue(cached.check("steve"));
+
+        cached.invalidate("steve");
+        assertFalse(cached.check("steve"));
+    }
+
+    @Test
+    void keyedBy_groupsSendersWithSameKey() {
+        CachedRequirement<String> cached = CachedRequirement.of(inRegion)
+                .keyedBy(sender -> sender.toLowerCase())
+                .ticker(clock::get)
+                .build();
+
+        assertTrue(cached.check("steve"));
+        assertTrue(cached.check("STEVE"));
+        assertEquals(1, calls.get());
+
+        cached.invalidateKey("steve");
+        assertFalse(cached.check("STEVE"));
+    }
+
+    @Test
+    void invalidationDuringCheck_isNotOverwritten() {
+        AtomicReference<CachedRequirement<String>> self = new AtomicReference<>();
+        CachedRequirement<String> cached = CachedRequirement.of(new Requirement<String>() {
+            @Override
+            public boolean check(String sender) {
+                calls.incrementAndGet();
+                // the rank of the sender changes while it is being checked
+                self.get().invalidate(sender);
+                return true;
+            }
+
+            @Override
+            public String errorMessage() {
+                return "";
+            }
+        }).stableUntilInvalidated().build();
+        self.set(cached);
+
+        assertTrue(cached.check("steve"));
+        assertEquals(0, cached.size());
+        cached.check("steve");
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bind_keysSendersByPlatformRequirementKey() {
+        CommandPlatform<Object, String> platform = mock(CommandPlatform.class);
+        when(platform.getRequirementKey(anyString())).thenAnswer(invocation -> invocation.<String>getArgument(0).toLowerCase());
+        CachedRequirement<String> cached = CachedRequirement.of(inRegion).ticker(clock::get).build();
+        cached.bind(platform);
+
+        cached.check("steve");
+        cached.check("STEVE");
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bind_nullRequirementKey_isNeverCached() {
+        CommandPlatform<Object, String> platform = mock(CommandPlatform.class);
+        when(platform.getRequirementKey(anyString())).thenReturn(null);
+        CachedRequirement<String> cached = CachedRequirement.of(inRegion).ticker(clock::get).build();
+        cached.bind(platform);
+
+        cached.check("steve");
+        cached.check("steve");
+        cached.invalidate("steve");
+
+        assertEquals(2, calls.get());
+        assertEquals(0, cached.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bind_keepsCustomKey() {
+        CommandPlatform<Object, String> platform = mock(CommandPlatform.class);
+        CachedRequirement<String> cached = CachedRequirement.of(inRegion).keyedBy(String::length).ticker(clock::get).build();
+        cached.bind(platform);
+
+        cached.check("steve");
+        cached.check("alex5");
+
+        assertEquals(1, calls.get());
+        verifyNoInteractions(platform);
+    }
+
+    @Test
+    void maximumSize_evictsLeastRecentlyChecked() {
+        CachedRequirement<String> cached = CachedRequirement.of(inRegion)
+                .maximumSize(2)
+                .ticker(clock::get)
+                .build();
+
+        cached.check("a");
+        cached.check("b");
+        cached.check("a");
+        cached.check("c");
+
+        assertEquals(2, cached.size());
+        cached.check("a");
+        assertEquals(3, calls.get());
+        cached.check("b");
+        assertEquals(4, calls.get());
+    }
+}
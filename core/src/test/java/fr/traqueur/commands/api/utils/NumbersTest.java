@@ -0,0 +1,53 @@
+package fr.traqueur.commands.api.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class NumbersTest {
+
+    private static final String[] INTEGERS = {
+            "0", "7", "-7", "+7", "007", "-", "+", "", "1-", "12a", "1.0", " 1", "1 ",
+            "127", "128", "-128", "-129",
+            "2147483647", "2147483648", "-2147483648", "-2147483649",
+            "9223372036854775807", "9223372036854775808", "-9223372036854775808", "-9223372036854775809",
+            "99999999999999999999999"
+    };
+
+    private static final String[] DECIMALS = {
+            "0", "1.5", "-1.5", "+1.5", ".5", "5.", ".", "-.", "1e10", "1E-3", "1e+3", "1e", "1e+", "e3",
+            "1.5f", "2D", "1.5x", "NaN", "-Infinity", "+Infinity", "Infinity", "Inf", "nan", "1..2", "--1", ""
+    };
+
+    @Test
+    void integerChecks_matchJdkParsers() {
+        for (String s : INTEGERS) {
+            assertEquals(accepts(() -> Integer.parseInt(s)), Numbers.isInt(s), s);
+            assertEquals(accepts(() -> Long.parseLong(s)), Numbers.isLong(s), s);
+            assertEquals(accepts(() -> Byte.parseByte(s)), Numbers.isByte(s), s);
+        }
+    }
+
+    @Test
+    void decimalCheck_matchesJdkParser() {
+        for (String s : DECIMALS) {
+            assertEquals(accepts(() -> Double.parseDouble(s)), Numbers.isDecimal(s), s);
+        }
+    }
+
+    @Test
+    void nullIsNotANumber() {
+        assertFalse(Numbers.isInt(null));
+        assertFalse(Numbers.isDecimal(null));
+    }
+
+    private static boolean accepts(Runnable parse) {
+        try {
+            parse.run();
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
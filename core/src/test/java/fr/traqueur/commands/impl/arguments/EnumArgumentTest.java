@@ -23,10 +23,16 @@ class EnumArgumentTest {
         assertEquals(Sample.TWO, converter.apply("TWO"));
     }
 
+    @Test
+    void testApply_ignoresCase() {
+        assertEquals(Sample.ONE, converter.apply("one"));
+        assertEquals(Sample.THREE, converter.apply("tHrEe"));
+    }
+
     @Test
     void testApply_invalid() {
-        assertNull(converter.apply("one")); // case-sensitive
         assertNull(converter.apply("FOUR"));
+        assertNull(converter.apply("ON"));
         assertNull(converter.apply(""));
         assertNull(converter.apply(null));
     }
@@ -40,5 +46,18 @@ class EnumArgumentTest {
         assertTrue(completions.contains("THREE"));
     }
 
+    @Test
+    void testOnCompletion_filtersByPrefixIgnoringCase() {
+        assertEquals(List.of("THREE", "TWO"), converter.onCompletion(null, List.of("t")));
+        assertEquals(List.of("TWO"), converter.onCompletion(null, List.of("x", "Tw")));
+        assertEquals(List.of(), converter.onCompletion(null, List.of("z")));
+        assertEquals(List.of("ONE", "THREE", "TWO"), converter.onCompletion(null, List.of("")));
+    }
+
+    @Test
+    void testIndex_isSharedAcrossInstances() {
+        assertSame(converter.onCompletion(null, List.of()), EnumArgument.of(Sample.class).onCompletion(null, List.of()));
+    }
+
     private enum Sample {ONE, TWO, THREE}
 }
@@ -87,4 +87,22 @@ class NumberArgumentTest {
         assertNull(converter.apply(""));
         assertNull(converter.apply(null));
     }
+
+    @Test
+    void testValidator_rejectsBeforeParsing() {
+        var converter = new NumberArgument<Byte>(s -> false, s -> {
+            throw new AssertionError("parser must not run on rejected input");
+        });
+        assertNull(converter.apply("12"));
+    }
+
+    @Test
+    void testPrimitiveArguments_rejectInvalidInput() {
+        assertEquals(-42, new IntArgument().apply("-42"));
+        assertNull(new IntArgument().apply("2147483648"));
+        assertEquals(1234567890123L, new LongArgument().apply("1234567890123"));
+        assertNull(new LongArgument().apply("12.3"));
+        assertEquals(2.5, new DoubleArgument().apply("2.5"));
+        assertNull(new DoubleArgument().apply("2,5"));
+    }
 }
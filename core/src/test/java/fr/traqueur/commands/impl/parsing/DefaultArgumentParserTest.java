@@ -2,27 +2,38 @@ package fr.traqueur.commands.impl.parsing;
 
 import fr.traqueur.commands.api.arguments.ArgumentConverter;
 import fr.traqueur.commands.api.arguments.Arguments;
+import fr.traqueur.commands.api.arguments.AsyncArgumentConverter;
+import fr.traqueur.commands.api.arguments.DoubleConverter;
+import fr.traqueur.commands.api.arguments.IntConverter;
+import fr.traqueur.commands.api.arguments.LongConverter;
 import fr.traqueur.commands.api.arguments.Infinite;
 import fr.traqueur.commands.api.logging.Logger;
 import fr.traqueur.commands.api.models.Command;
+import fr.traqueur.commands.api.parsing.CommandLine;
 import fr.traqueur.commands.api.parsing.ParseError;
+import fr.traqueur.commands.api.parsing.ParsePlan;
 import fr.traqueur.commands.api.parsing.ParseResult;
 import fr.traqueur.commands.impl.logging.InternalLogger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class DefaultArgumentParserTest {
 
     private DefaultArgumentParser<Object, Object> parser;
+    private Map<Class<?>, ArgumentConverter.Wrapper<?>> converters;
 
     @BeforeEach
     void setUp() {
-        Map<Class<?>, ArgumentConverter.Wrapper<?>> converters = new HashMap<>();
+        converters = new HashMap<>();
         converters.put(String.class, new ArgumentConverter.Wrapper<>(String.class, s -> s));
         converters.put(Integer.class, new ArgumentConverter.Wrapper<>(Integer.class, s -> {
             try {
@@ -175,6 +186,75 @@ class DefaultArgumentParserTest {
         assertEquals("world !", args.get("rest"));
     }
 
+    // --- Command line ---
+
+    @Test
+    void parse_commandLine_readsTokensFromOffset() {
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("name", String.class);
+        cmd.addArg("count", Integer.class);
+
+        ParseResult result = parser.parse(cmd, CommandLine.tokenize("sub  \"two words\"   42"), 1);
+
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.consumedCount());
+        assertEquals("two words", result.arguments().get("name"));
+        assertEquals(42, (int) result.arguments().get("count"));
+    }
+
+    @Test
+    void parse_commandLine_infiniteArgIsSliceOfInput() {
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("prefix", String.class);
+        cmd.addArg("message", Infinite.class);
+
+        ParseResult result = parser.parse(cmd, CommandLine.tokenize(" hello  this is   \"a message\"  "), 0);
+
+        assertTrue(result.isSuccess());
+        assertEquals(3, result.consumedCount());
+        assertEquals("hello", result.arguments().get("prefix"));
+        assertEquals("this is   \"a message\"", result.arguments().get("message"));
+    }
+
+    @Test
+    void parse_commandLine_infiniteArgIsForwardedWithoutCopy() {
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("message", Infinite.class);
+        StringBuilder input = new StringBuilder("hi  there");
+
+        ParseResult result = parser.parse(cmd, CommandLine.tokenize(input), 0);
+        CharSequence text = result.arguments().getText("message");
+        // still a view of the input, not a copy
+        input.setCharAt(0, 'H');
+
+        assertEquals("Hi  there", text.toString());
+        assertEquals("Hi  there", result.arguments().get("message"));
+    }
+
+    @Test
+    void parse_infiniteArgJustOverLimit_returnsError() {
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("message", Infinite.class);
+
+        // 9_999 chars once joined fit, 10_001 do not
+        assertTrue(parser.parse(cmd, new String[]{"a".repeat(5_000), "b".repeat(4_998)}).isSuccess());
+        ParseResult result = parser.parse(cmd, new String[]{"a".repeat(5_000), "b".repeat(5_000)});
+
+        assertTrue(result.isError());
+        assertEquals(ParseError.Type.ARGUMENT_TOO_LONG, result.error().type());
+    }
+
+    @Test
+    void parse_commandLine_infiniteArgTooLong_returnsError() {
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("message", Infinite.class);
+
+        ParseResult result = parser.parse(cmd, CommandLine.tokenize("word ".repeat(3_000)), 0);
+
+        assertTrue(result.isError());
+        assertEquals(ParseError.Type.ARGUMENT_TOO_LONG, result.error().type());
+    }
+
     // --- Error cases ---
 
     @Test
@@ -213,6 +293,188 @@ class DefaultArgumentParserTest {
         assertTrue(result.arguments().isEmpty());
     }
 
+    // --- Primitive converters ---
+
+    @Test
+    void parse_primitiveConverters_storeUnboxed() {
+        converters.put(int.class, new ArgumentConverter.Wrapper<>(int.class, (IntConverter) Integer::parseInt));
+        converters.put(long.class, new ArgumentConverter.Wrapper<>(long.class, (LongConverter) Long::parseLong));
+        converters.put(double.class, new ArgumentConverter.Wrapper<>(double.class, (DoubleConverter) Double::parseDouble));
+        parser.invalidatePlans();
+
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArgs("x", int.class, "id", long.class, "yaw", double.class);
+
+        ParseResult result = parser.parse(cmd, new String[]{"-5", "9000000000", "1.5"});
+        assertTrue(result.isSuccess());
+        assertEquals(-5, result.arguments().getInt("x"));
+        assertEquals(9_000_000_000L, result.arguments().getLong("id"));
+        assertEquals(1.5, result.arguments().getDouble("yaw"));
+
+        ParseResult failed = parser.parse(cmd, new String[]{"1", "2", "north"});
+        assertEquals(ParseError.Type.CONVERSION_FAILED, failed.error().type());
+        assertEquals("yaw", failed.error().argumentName());
+    }
+
+    // --- Parse plan ---
+
+    @Test
+    void plan_isCompiledOnceAndReused() {
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("name", String.class);
+        cmd.addOptionalArg("rest", Infinite.class);
+
+        ParsePlan<Object> plan = parser.plan(cmd);
+        parser.parse(cmd, new String[]{"a", "b", "c"});
+
+        assertSame(plan, cmd.getParsePlan());
+        assertSame(plan, parser.plan(cmd));
+        assertEquals(1, plan.minArgs());
+        assertEquals(Integer.MAX_VALUE, plan.maxArgs());
+        assertEquals(1, plan.infiniteIndex());
+        assertSame(converters.get(String.class), plan.converter(0));
+    }
+
+    @Test
+    void plan_isRecompiledWhenArgumentAdded() {
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("name", String.class);
+        ParsePlan<Object> plan = parser.plan(cmd);
+
+        cmd.addOptionalArg("count", Integer.class);
+
+        assertNull(cmd.getParsePlan());
+        ParsePlan<Object> updated = parser.plan(cmd);
+        assertNotSame(plan, updated);
+        assertEquals(2, updated.maxArgs());
+        assertEquals(-1, updated.infiniteIndex());
+    }
+
+    @Test
+    void plan_seesConverterRegisteredLater() {
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("unknown", UnknownType.class);
+        assertEquals(ParseError.Type.TYPE_NOT_FOUND, parser.parse(cmd, new String[]{"value"}).error().type());
+
+        converters.put(UnknownType.class, new ArgumentConverter.Wrapper<>(UnknownType.class, s -> new UnknownType()));
+        parser.invalidatePlans();
+
+        ParseResult result = parser.parse(cmd, new String[]{"value"});
+        assertTrue(result.isSuccess());
+        assertInstanceOf(UnknownType.class, result.arguments().get("unknown"));
+    }
+
+    // --- Async converters ---
+
+    @Test
+    void parseAsync_startsEveryConversionBeforeWaiting() {
+        Map<String, CompletableFuture<UnknownType>> lookups = new ConcurrentHashMap<>();
+        converters.put(UnknownType.class, new ArgumentConverter.Wrapper<>(UnknownType.class,
+                (AsyncArgumentConverter<UnknownType>) s -> lookups.computeIfAbsent(s, k -> new CompletableFuture<>())));
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("from", UnknownType.class);
+        cmd.addArg("amount", Integer.class);
+        cmd.addArg("to", UnknownType.class);
+
+        CompletableFuture<ParseResult> future = parser.parseAsync(cmd, new String[]{"alice", "5", "bob"});
+
+        assertFalse(future.isDone());
+        assertEquals(2, lookups.size());
+        UnknownType bob = new UnknownType();
+        lookups.get("bob").complete(bob);
+        assertFalse(future.isDone());
+        lookups.get("alice").complete(new UnknownType());
+
+        ParseResult result = future.join();
+        assertTrue(result.isSuccess());
+        assertSame(bob, result.arguments().get("to"));
+        assertEquals(5, result.arguments().getInt("amount"));
+        assertEquals(List.of("from", "amount", "to"), List.copyOf(result.arguments().getKeys()));
+    }
+
+    @Test
+    void parseAsync_nullValue_isConversionFailure() {
+        converters.put(UnknownType.class, new ArgumentConverter.Wrapper<>(UnknownType.class,
+                (AsyncArgumentConverter<UnknownType>) s -> CompletableFuture.completedFuture(null)));
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("clan", UnknownType.class);
+
+        ParseResult result = parser.parseAsync(cmd, new String[]{"nope"}).join();
+
+        assertTrue(result.isError());
+        assertEquals(ParseError.Type.CONVERSION_FAILED, result.error().type());
+        assertEquals("nope", result.error().input());
+    }
+
+    @Test
+    void parseAsync_slowConversion_timesOutAndIsCancelled() {
+        CompletableFuture<UnknownType> slow = new CompletableFuture<>();
+        converters.put(UnknownType.class, new ArgumentConverter.Wrapper<>(UnknownType.class,
+                (AsyncArgumentConverter<UnknownType>) s -> slow));
+        parser.setAsyncTimeout(Duration.ofMillis(50));
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("clan", UnknownType.class);
+
+        ParseResult result = parser.parseAsync(cmd, new String[]{"slow"}).join();
+
+        assertTrue(result.isError());
+        assertEquals(ParseError.Type.TIMEOUT, result.error().type());
+        assertEquals("clan", result.error().argumentName());
+        assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    void parse_asyncConverters_runConcurrently() {
+        // alice resolves only once bob has been started: waiting for alice first would time out
+        CompletableFuture<UnknownType> alice = new CompletableFuture<>();
+        converters.put(UnknownType.class, new ArgumentConverter.Wrapper<>(UnknownType.class,
+                (AsyncArgumentConverter<UnknownType>) s -> {
+                    if (s.equals("alice")) {
+                        return alice;
+                    }
+                    alice.complete(new UnknownType());
+                    return CompletableFuture.completedFuture(new UnknownType());
+                }));
+        parser.setAsyncTimeout(Duration.ofSeconds(2));
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("from", UnknownType.class);
+        cmd.addArg("amount", Integer.class);
+        cmd.addArg("to", UnknownType.class);
+
+        ParseResult result = parser.parse(cmd, new String[]{"alice", "5", "bob"});
+
+        assertTrue(result.isSuccess());
+        assertSame(alice.join(), result.arguments().get("from"));
+        assertEquals(List.of("from", "amount", "to"), List.copyOf(result.arguments().getKeys()));
+    }
+
+    @Test
+    void parse_asyncConverter_waitsAtMostTheTimeout() {
+        CompletableFuture<UnknownType> slow = new CompletableFuture<>();
+        converters.put(UnknownType.class, new ArgumentConverter.Wrapper<>(UnknownType.class,
+                (AsyncArgumentConverter<UnknownType>) s -> slow));
+        parser.setAsyncTimeout(Duration.ofMillis(50));
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("clan", UnknownType.class);
+
+        ParseResult result = parser.parse(cmd, new String[]{"slow"});
+
+        assertTrue(result.isError());
+        assertEquals(ParseError.Type.TIMEOUT, result.error().type());
+        assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    void parseAsync_withoutAsyncConverters_completesImmediately() {
+        Command<Object, Object> cmd = new DummyCommand();
+        cmd.addArg("x", Integer.class);
+
+        CompletableFuture<ParseResult> future = parser.parseAsync(cmd, new String[]{"1"});
+
+        assertTrue(future.isDone());
+        assertTrue(future.join().isSuccess());
+    }
+
     // --- Helper classes ---
 
     private static class DummyCommand extends Command<Object, Object> {
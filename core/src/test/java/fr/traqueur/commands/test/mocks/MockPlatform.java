@@ -19,6 +19,7 @@ public class MockPlatform implements CommandPlatform<Object, MockSender> {
     private final MockSenderResolver senderResolver = new MockSenderResolver();
     private final Map<String, Command<Object, MockSender>> registeredCommands = new HashMap<>();
     private final List<String> registeredLabels = new ArrayList<>();
+    private int batches;
 
     private CommandManager<Object, MockSender> commandManager;
 
@@ -58,6 +59,12 @@ public class MockPlatform implements CommandPlatform<Object, MockSender> {
         registeredLabels.add(label);
     }
 
+    @Override
+    public void addCommands(Map<String, Command<Object, MockSender>> commands) {
+        batches++;
+        CommandPlatform.super.addCommands(commands);
+    }
+
     @Override
     public void removeCommand(String label, boolean subcommand) {
         registeredCommands.remove(label);
@@ -78,6 +85,10 @@ public class MockPlatform implements CommandPlatform<Object, MockSender> {
         return registeredLabels;
     }
 
+    public int getBatches() {
+        return batches;
+    }
+
     public boolean hasCommand(String label) {
         return registeredCommands.containsKey(label);
     }
@@ -2,7 +2,6 @@ package fr.traqueur.commands.jda;
 
 import fr.traqueur.commands.api.arguments.Argument;
 import fr.traqueur.commands.api.arguments.ArgumentType;
-import fr.traqueur.commands.api.exceptions.ArgumentIncorrectException;
 import fr.traqueur.commands.api.logging.Logger;
 import fr.traqueur.commands.api.models.Command;
 import fr.traqueur.commands.api.parsing.ArgumentParser;
@@ -58,14 +57,12 @@ public record JDAArgumentParser<T>(
             OptionMapping option = options.get(i);
             Argument<JDAInteractionContext> arg = allArgs.get(i);
 
-            try {
-                populateArgument(arguments, option, arg);
-            } catch (ArgumentIncorrectException e) {
+            if (!populateArgument(arguments, option, arg)) {
                 return ParseResult.error(new ParseError(
                         ParseError.Type.CONVERSION_FAILED,
                         option.getName(),
                         null,
-                        e.getMessage()
+                        "Argument incorrect: " + option.getName()
                 ));
             }
         }
@@ -73,8 +70,13 @@ public record JDAArgumentParser<T>(
         return ParseResult.success(arguments, options.size());
     }
 
-    private void populateArgument(JDAArguments arguments, OptionMapping option,
-                                  Argument<JDAInteractionContext> arg) {
+    /**
+     * Store the value of an option.
+     *
+     * @return false if the option type does not match the argument type
+     */
+    private boolean populateArgument(JDAArguments arguments, OptionMapping option,
+                                     Argument<JDAInteractionContext> arg) {
         String name = option.getName();
 
         switch (option.getType()) {
@@ -82,27 +84,27 @@ public record JDAArgumentParser<T>(
 
             case INTEGER -> {
                 if (!(arg.type() instanceof ArgumentType.Simple(Class<?> clazz))) {
-                    throw new ArgumentIncorrectException(name);
+                    return false;
                 }
                 if (clazz == Integer.class || clazz == int.class) {
-                    arguments.add(name, Integer.class, option.getAsInt());
+                    arguments.addInt(name, option.getAsInt());
                 } else if (clazz == Long.class || clazz == long.class) {
-                    arguments.add(name, Long.class, option.getAsLong());
+                    arguments.addLong(name, option.getAsLong());
                 } else {
-                    throw new ArgumentIncorrectException(name);
+                    return false;
                 }
             }
 
             case NUMBER -> {
                 if (!(arg.type() instanceof ArgumentType.Simple(Class<?> clazz))) {
-                    throw new ArgumentIncorrectException(name);
+                    return false;
                 }
                 if (clazz == Double.class || clazz == double.class) {
-                    arguments.add(name, Double.class, option.getAsDouble());
+                    arguments.addDouble(name, option.getAsDouble());
                 } else if (clazz == Float.class || clazz == float.class) {
                     arguments.add(name, Float.class, (float) option.getAsDouble());
                 } else {
-                    throw new ArgumentIncorrectException(name);
+                    return false;
                 }
             }
 
@@ -110,14 +112,14 @@ public record JDAArgumentParser<T>(
 
             case USER -> {
                 if (!(arg.type() instanceof ArgumentType.Simple(Class<?> clazz))) {
-                    throw new ArgumentIncorrectException(name);
+                    return false;
                 }
                 if (clazz == Member.class) {
                     arguments.add(name, Member.class, option.getAsMember());
                 } else if (clazz == User.class) {
                     arguments.add(name, User.class, option.getAsUser());
                 } else {
-                    throw new ArgumentIncorrectException(name);
+                    return false;
                 }
             }
 
@@ -128,5 +130,6 @@ public record JDAArgumentParser<T>(
 
             default -> { /* Unknown type, skip */ }
         }
+        return true;
     }
 }
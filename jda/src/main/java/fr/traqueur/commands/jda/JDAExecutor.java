@@ -4,8 +4,11 @@ import fr.traqueur.commands.api.CommandManager;
 import fr.traqueur.commands.api.arguments.Argument;
 import fr.traqueur.commands.api.arguments.TabCompleter;
 import fr.traqueur.commands.api.models.Command;
+import fr.traqueur.commands.api.models.CommandWatchdog;
+import fr.traqueur.commands.api.models.ExecutionMode;
 import fr.traqueur.commands.api.models.collections.CommandTree;
 import fr.traqueur.commands.api.parsing.ParseResult;
+import fr.traqueur.commands.api.ratelimit.RateLimiter;
 import fr.traqueur.commands.api.requirements.Requirement;
 import fr.traqueur.commands.api.utils.Patterns;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
@@ -16,6 +19,8 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JDA executor that handles slash command and autocomplete events.
@@ -41,6 +46,10 @@ public class JDAExecutor<T> extends ListenerAdapter {
         // Wrap the event
         JDAInteractionContext context = JDAInteractionContext.wrap(event);
 
+        if (!checkRateLimit(context, event, commandManager.getRateLimiter())) {
+            return;
+        }
+
         // Find command
         String[] labelParts = Patterns.DOT.split(label);
         Optional<CommandTree.MatchResult<T, JDAInteractionContext>> found =
@@ -72,16 +81,61 @@ public class JDAExecutor<T> extends ListenerAdapter {
             return;
         }
 
+        if (command.getExecutionMode() == ExecutionMode.ASYNC) {
+            try {
+                commandManager.getAsyncExecutor().execute(() -> execute(command, context, result, event, label));
+            } catch (RejectedExecutionException e) {
+                fail(event, label, e);
+            }
+            return;
+        }
+        // slow handlers hold up the JDA event thread
+        CommandWatchdog watchdog = commandManager.getWatchdog();
+        if (watchdog == null) {
+            execute(command, context, result, event, label);
+            return;
+        }
+        CommandWatchdog.Execution execution = watchdog.enter(label, context);
+        try {
+            watchdog.attach(result.arguments());
+            execute(command, context, result, event, label);
+        } finally {
+            watchdog.exit(execution);
+        }
+    }
+
+    private void execute(Command<T, JDAInteractionContext> command, JDAInteractionContext context,
+                         ParseResult result, SlashCommandInteractionEvent event, String label) {
         try {
             command.execute(context, result.arguments());
         } catch (Exception e) {
-            commandManager.getLogger().error("Error executing command " + label + ": " + e.getMessage());
-            if (!event.isAcknowledged()) {
-                event.reply("An error occurred!").setEphemeral(true).queue();
-            }
+            fail(event, label, e);
         }
     }
 
+    private void fail(SlashCommandInteractionEvent event, String label, Exception e) {
+        commandManager.getLogger().error("Error executing command " + label, e);
+        if (!event.isAcknowledged()) {
+            event.reply(commandManager.getMessageHandler().getCommandFailedMessage()).setEphemeral(true).queue();
+        }
+    }
+
+    private boolean checkRateLimit(JDAInteractionContext context,
+                                   SlashCommandInteractionEvent event,
+                                   RateLimiter limiter) {
+        if (limiter == null) {
+            return true;
+        }
+        long wait = limiter.tryAcquire(commandManager.getPlatform().getSenderKey(context));
+        if (wait > 0) {
+            String seconds = String.valueOf(TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+            event.reply(commandManager.getMessageHandler().getRateLimitedMessage().replace("%time%", seconds))
+                    .setEphemeral(true).queue();
+            return false;
+        }
+        return true;
+    }
+
     private boolean validateCommand(JDAInteractionContext context,
                                     SlashCommandInteractionEvent event,
                                     Command<T, JDAInteractionContext> command) {
@@ -101,12 +155,17 @@ public class JDAExecutor<T> extends ListenerAdapter {
 
         // Permission check
         String perm = command.getPermission();
-        if (!perm.isEmpty() && !commandManager.getPlatform().hasPermission(context, perm)) {
+        if (!perm.isEmpty() && !commandManager.hasPermission(context, perm)) {
             event.reply(commandManager.getMessageHandler().getNoPermissionMessage())
                     .setEphemeral(true).queue();
             return false;
         }
 
+        // Rate limit, after the cheap checks so that rejected users keep their permits
+        if (!checkRateLimit(context, event, command.getRateLimiter())) {
+            return false;
+        }
+
         // Requirements check
         for (Requirement<JDAInteractionContext> req : command.getRequirements()) {
             if (!req.check(context)) {
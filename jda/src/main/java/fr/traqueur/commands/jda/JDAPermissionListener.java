@@ -0,0 +1,70 @@
+package fr.traqueur.commands.jda;
+
+import fr.traqueur.commands.api.CommandManager;
+import fr.traqueur.commands.api.permissions.PermissionCache;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
+import net.dv8tion.jda.api.events.guild.update.GuildUpdateOwnerEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.RoleUpdatePermissionsEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * JDA listener invalidating the permission cache of the command manager when the
+ * permissions of a member may have changed.
+ */
+public class JDAPermissionListener<T> extends ListenerAdapter {
+
+    private final CommandManager<T, JDAInteractionContext> commandManager;
+
+    public JDAPermissionListener(CommandManager<T, JDAInteractionContext> commandManager) {
+        this.commandManager = commandManager;
+    }
+
+    @Override
+    public void onGuildMemberRoleAdd(@NotNull GuildMemberRoleAddEvent event) {
+        invalidate(event.getGuild().getIdLong(), event.getUser().getIdLong());
+    }
+
+    @Override
+    public void onGuildMemberRoleRemove(@NotNull GuildMemberRoleRemoveEvent event) {
+        invalidate(event.getGuild().getIdLong(), event.getUser().getIdLong());
+    }
+
+    @Override
+    public void onGuildMemberRemove(@NotNull GuildMemberRemoveEvent event) {
+        invalidate(event.getGuild().getIdLong(), event.getUser().getIdLong());
+    }
+
+    @Override
+    public void onRoleUpdatePermissions(@NotNull RoleUpdatePermissionsEvent event) {
+        // every member holding the role is affected
+        invalidateAll();
+    }
+
+    @Override
+    public void onRoleDelete(@NotNull RoleDeleteEvent event) {
+        invalidateAll();
+    }
+
+    @Override
+    public void onGuildUpdateOwner(@NotNull GuildUpdateOwnerEvent event) {
+        invalidateAll();
+    }
+
+    private void invalidate(long guildId, long userId) {
+        PermissionCache cache = commandManager.getPermissionCache();
+        if (cache != null) {
+            cache.invalidate(JDAPlatform.permissionKey(guildId, userId));
+        }
+    }
+
+    private void invalidateAll() {
+        PermissionCache cache = commandManager.getPermissionCache();
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+}
@@ -16,7 +16,10 @@ import net.dv8tion.jda.api.interactions.commands.build.*;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -45,6 +48,10 @@ public class JDAPlatform<T> implements CommandPlatform<T, JDAInteractionContext>
      * Map of root command names to their SlashCommandData.
      */
     private final Map<String, SlashCommandData> slashCommands;
+    /**
+     * Permissions by name, parsed once; empty for names that are not a {@link Permission}.
+     */
+    private final Map<String, Optional<Permission>> permissions;
     /**
      * The command manager.
      */
@@ -62,6 +69,18 @@ public class JDAPlatform<T> implements CommandPlatform<T, JDAInteractionContext>
         this.jda = jda;
         this.logger = logger;
         this.slashCommands = new HashMap<>();
+        this.permissions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the key under which the permissions of a member are cached.
+     *
+     * @param guildId The id of the guild of the member.
+     * @param userId  The id of the user.
+     * @return The permission key.
+     */
+    public static Object permissionKey(long guildId, long userId) {
+        return new MemberKey(guildId, userId);
     }
 
     @Override
@@ -72,7 +91,7 @@ public class JDAPlatform<T> implements CommandPlatform<T, JDAInteractionContext>
     @Override
     public void injectManager(CommandManager<T, JDAInteractionContext> commandManager) {
         this.commandManager = commandManager;
-        this.jda.addEventListener(new JDAExecutor<>(commandManager));
+        this.jda.addEventListener(new JDAExecutor<>(commandManager), new JDAPermissionListener<>(commandManager));
     }
 
     @Override
@@ -85,12 +104,16 @@ public class JDAPlatform<T> implements CommandPlatform<T, JDAInteractionContext>
         if (sender.getMember() == null) {
             return false;
         }
+        Optional<Permission> perm = permissions.computeIfAbsent(permission, this::parsePermission);
+        return perm.isPresent() && sender.getMember().hasPermission(perm.get());
+    }
+
+    private Optional<Permission> parsePermission(String permission) {
         try {
-            Permission perm = Permission.valueOf(permission.toUpperCase());
-            return sender.getMember().hasPermission(perm);
+            return Optional.of(Permission.valueOf(permission.toUpperCase(Locale.ROOT)));
         } catch (IllegalArgumentException e) {
             logger.warning("Invalid permission: " + permission);
-            return false;
+            return Optional.empty();
         }
     }
 
@@ -100,6 +123,38 @@ public class JDAPlatform<T> implements CommandPlatform<T, JDAInteractionContext>
         return sender.isFromGuild();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>A new context wraps every interaction, so senders are keyed by their user id.</p>
+     */
+    @Override
+    public Object getSenderKey(JDAInteractionContext sender) {
+        return sender.getUser().getIdLong();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Permissions come from the roles of a member, so they are cached per guild and user.
+     * Outside a guild there is no permission to cache.</p>
+     */
+    @Override
+    public Object getPermissionKey(JDAInteractionContext sender) {
+        if (sender.getGuild() == null) {
+            return null;
+        }
+        return permissionKey(sender.getGuild().getIdLong(), sender.getUser().getIdLong());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Requirements usually depend on the roles of a member or on the channel a command is
+     * used in, so their results are cached per channel and user.</p>
+     */
+    @Override
+    public Object getRequirementKey(JDAInteractionContext sender) {
+        return new ChannelKey(sender.getChannel().getIdLong(), sender.getUser().getIdLong());
+    }
+
     @Override
     public void sendMessage(JDAInteractionContext sender, String message) {
         if (sender.getEvent() instanceof SlashCommandInteractionEvent event) {
@@ -184,6 +239,33 @@ public class JDAPlatform<T> implements CommandPlatform<T, JDAInteractionContext>
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>Discord has no aliases: the alias gets its own slash command entries, built from
+     * the subcommands of the aliased command.</p>
+     */
+    @Override
+    public void addAlias(Command<T, JDAInteractionContext> command, String alias, String target) {
+        this.addCommand(command, alias);
+        this.addSubcommands(alias, command.getSubcommands());
+    }
+
+    /**
+     * Add the slash command entries of subcommands under a parent label.
+     *
+     * @param parentLabel The parent label.
+     * @param subcommands The subcommands to add.
+     */
+    private void addSubcommands(String parentLabel, List<Command<T, JDAInteractionContext>> subcommands) {
+        for (Command<T, JDAInteractionContext> subcommand : subcommands) {
+            for (String label : subcommand.getAllLabels()) {
+                String fullLabel = parentLabel + "." + label;
+                this.addCommand(subcommand, fullLabel);
+                this.addSubcommands(fullLabel, subcommand.getSubcommands());
+            }
+        }
+    }
+
     @Override
     public void removeCommand(String label, boolean subcommand) {
         String[] parts = Patterns.DOT.split(label);
@@ -401,4 +483,10 @@ public class JDAPlatform<T> implements CommandPlatform<T, JDAInteractionContext>
     public CommandManager<T, JDAInteractionContext> getCommandManager() {
         return commandManager;
     }
-}
\ No newline at end of file
+
+    private record MemberKey(long guildId, long userId) {
+    }
+
+    private record ChannelKey(long channelId, long userId) {
+    }
+}
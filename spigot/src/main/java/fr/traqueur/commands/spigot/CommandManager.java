@@ -1,5 +1,6 @@
 package fr.traqueur.commands.spigot;
 
+import fr.traqueur.commands.api.arguments.CachingConverter;
 import fr.traqueur.commands.spigot.arguments.OfflinePlayerArgument;
 import fr.traqueur.commands.spigot.arguments.PlayerArgument;
 import org.bukkit.OfflinePlayer;
@@ -7,6 +8,8 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.time.Duration;
+
 /**
  * This implementation of {@link fr.traqueur.commands.api.CommandManager} is used to provide the command manager in Spigot context.
  *
@@ -22,6 +25,10 @@ public class CommandManager<T extends JavaPlugin> extends fr.traqueur.commands.a
     public CommandManager(T plugin) {
         super(new SpigotPlatform<>(plugin));
         this.registerConverter(Player.class, new PlayerArgument());
-        this.registerConverter(OfflinePlayer.class, new OfflinePlayerArgument());
+        // looking up an offline player by name may block on a profile request
+        this.registerConverter(OfflinePlayer.class, CachingConverter.of(new OfflinePlayerArgument())
+                .maximumSize(512)
+                .expireAfterWrite(Duration.ofSeconds(30))
+                .build());
     }
 }
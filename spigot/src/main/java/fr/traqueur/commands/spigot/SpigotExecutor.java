@@ -43,14 +43,15 @@ public class SpigotExecutor<T extends Plugin> implements CommandExecutor, org.bu
      * @return The parsed label or null if the label is not valid.
      */
     private String parseLabel(String label) {
-        if (label.contains(":")) {
-            String[] split = label.split(":");
-            label = split[1];
-            if (!split[0].equalsIgnoreCase(plugin.getName())) {
-                return null;
-            }
+        int colon = label.indexOf(':');
+        if (colon < 0) {
+            return label;
         }
-        return label.toLowerCase();
+        String namespace = plugin.getName();
+        if (colon != namespace.length() || !label.regionMatches(true, 0, namespace, 0, colon)) {
+            return null;
+        }
+        return label.substring(colon + 1);
     }
 
     /**
@@ -68,9 +69,9 @@ public class SpigotExecutor<T extends Plugin> implements CommandExecutor, org.bu
             return false;
         }
 
-        String labelLower = this.parseLabel(label);
+        String commandLabel = this.parseLabel(label);
 
-        return this.commandManager.getInvoker().invoke(sender, labelLower, args);
+        return this.commandManager.getInvoker().invoke(sender, commandLabel, args);
     }
 
     /**
@@ -84,11 +85,11 @@ public class SpigotExecutor<T extends Plugin> implements CommandExecutor, org.bu
      */
     @Override
     public List<String> onTabComplete(CommandSender commandSender, org.bukkit.command.Command command, String label, String[] args) {
-        String labelLower = this.parseLabel(label);
-        if (labelLower == null) {
+        String commandLabel = this.parseLabel(label);
+        if (commandLabel == null) {
             return Collections.emptyList();
         }
-        return this.commandManager.getInvoker().suggest(commandSender, labelLower, args);
+        return this.commandManager.getInvoker().suggest(commandSender, commandLabel, args);
     }
 
 }
@@ -0,0 +1,51 @@
+package fr.traqueur.commands.spigot;
+
+import fr.traqueur.commands.api.CommandManager;
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Invalidates the cached permission decisions of a player when they may have changed.
+ * <p>Bukkit has no event for a permission recalculation; decisions it does not cover
+ * expire on their own (see {@link fr.traqueur.commands.api.permissions.PermissionCache}).</p>
+ */
+public class SpigotPermissionListener implements Listener {
+
+    /**
+     * The command manager.
+     */
+    private final CommandManager<?, CommandSender> commandManager;
+
+    /**
+     * The constructor of the listener.
+     *
+     * @param commandManager The command manager.
+     */
+    public SpigotPermissionListener(CommandManager<?, CommandSender> commandManager) {
+        this.commandManager = commandManager;
+    }
+
+    /**
+     * Forget the decisions of a player leaving the server.
+     *
+     * @param event The event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        this.commandManager.invalidatePermissions(event.getPlayer());
+    }
+
+    /**
+     * Forget the decisions of a player changing world, as permissions may be per world.
+     *
+     * @param event The event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangeWorld(PlayerChangedWorldEvent event) {
+        this.commandManager.invalidatePermissions(event.getPlayer());
+    }
+}
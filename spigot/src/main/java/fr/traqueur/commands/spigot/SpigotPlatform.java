@@ -16,7 +16,14 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -93,6 +100,7 @@ public class SpigotPlatform<T extends JavaPlugin> implements CommandPlatform<T,
         //noinspection unchecked
         this.commandManager = commandManager;
         this.spigotExecutor = new SpigotExecutor<>(plugin, this.commandManager);
+        Bukkit.getPluginManager().registerEvents(new SpigotPermissionListener(this.commandManager), this.plugin);
     }
 
     /**
@@ -119,9 +127,20 @@ public class SpigotPlatform<T extends JavaPlugin> implements CommandPlatform<T,
         return sender instanceof org.bukkit.entity.Player;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>Players are keyed by their unique id, so that their rate limits survive a reconnection.</p>
+     */
+    @Override
+    public Object getSenderKey(CommandSender sender) {
+        return sender instanceof org.bukkit.entity.Player player ? player.getUniqueId() : sender;
+    }
+
     @Override
     public void sendMessage(CommandSender sender, String message) {
-        sender.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+        String colored = ChatColor.translateAlternateColorCodes('&', message);
+        // asynchronous commands reply from their own thread, Bukkit senders live on the main one
+        this.runSync(() -> sender.sendMessage(colored));
     }
 
     /**
@@ -132,43 +151,153 @@ public class SpigotPlatform<T extends JavaPlugin> implements CommandPlatform<T,
         String[] labelParts = Patterns.DOT.split(label);
         String cmdLabel = labelParts[0].toLowerCase();
 
+        if (!this.isRegistered(cmdLabel)) {
+            if (!commandMap.register(cmdLabel, plugin.getName(), this.createCommand(command, cmdLabel))) {
+                getLogger().severe("Unable to add command " + cmdLabel);
+                return;
+            }
+        }
+        this.applyMeta(command, labelParts);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addCommands(Map<String, Command<T, CommandSender>> commands) {
+        this.addCommands(commands, List.of());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The plugin commands of all new root labels, aliases included, are registered with a
+     * single {@link CommandMap#registerAll(String, List)} call, then the command tree of online
+     * players is resynchronized once. Labels taken by another plugin are logged and left to it.</p>
+     */
+    @Override
+    public void addCommands(Map<String, Command<T, CommandSender>> commands, List<Alias<T, CommandSender>> aliases) {
+        Map<String, PluginCommand> created = new LinkedHashMap<>();
+        commands.forEach((label, command) -> {
+            String cmdLabel = Patterns.DOT.split(label)[0].toLowerCase();
+            if (!created.containsKey(cmdLabel) && !this.isRegistered(cmdLabel)) {
+                created.put(cmdLabel, this.createCommand(command, cmdLabel));
+            }
+        });
+        Set<String> bukkitAliases = new HashSet<>();
+        created.values().forEach(cmd -> cmd.getAliases().forEach(a -> bukkitAliases.add(a.toLowerCase())));
+        for (Alias<T, CommandSender> alias : aliases) {
+            String aliasLabel = alias.alias().toLowerCase();
+            if (aliasLabel.indexOf('.') < 0 && !created.containsKey(aliasLabel)
+                    && !bukkitAliases.contains(aliasLabel) && !this.isRegistered(aliasLabel)) {
+                created.put(aliasLabel, this.createCommand(alias.command(), aliasLabel));
+            }
+        }
+        if (created.isEmpty()) {
+            commands.forEach((label, command) -> this.applyMeta(command, Patterns.DOT.split(label)));
+            return;
+        }
+
+        commandMap.registerAll(plugin.getName(), new ArrayList<>(created.values()));
+        // registerAll falls back to "plugin:label" when a label is taken, without telling
+        Set<String> rejected = new HashSet<>();
+        created.forEach((cmdLabel, cmd) -> {
+            if (commandMap.getCommand(cmdLabel) != cmd) {
+                rejected.add(cmdLabel);
+                getLogger().severe("Unable to add command " + cmdLabel);
+            }
+        });
+        commands.forEach((label, command) -> {
+            String[] labelParts = Patterns.DOT.split(label);
+            if (!rejected.contains(labelParts[0].toLowerCase())) {
+                this.applyMeta(command, labelParts);
+            }
+        });
+        for (Alias<T, CommandSender> alias : aliases) {
+            String aliasLabel = alias.alias().toLowerCase();
+            if (created.containsKey(aliasLabel) && !rejected.contains(aliasLabel)) {
+                this.applyMeta(alias.command(), new String[]{aliasLabel});
+            }
+        }
+        this.syncCommands();
+    }
+
+    /**
+     * Check if a root label is already known by the command tree or the command map.
+     *
+     * @param cmdLabel The root label.
+     * @return true if the label is already registered.
+     */
+    private boolean isRegistered(String cmdLabel) {
         boolean alreadyInTree = commandManager.getCommands()
                 .getRoot()
                 .getChildren()
                 .containsKey(cmdLabel);
-        boolean alreadyInMap = commandMap.getCommand(cmdLabel) != null;
-
-        if (!alreadyInTree && !alreadyInMap) {
-            try {
-                PluginCommand cmd = pluginConstructor.newInstance(cmdLabel, plugin);
-                cmd.setExecutor(spigotExecutor);
-                cmd.setTabCompleter(spigotExecutor);
-                cmd.setAliases(
-                        command.getAliases().stream()
-                                .map(a -> Patterns.DOT.split(a)[0])
-                                .filter(a -> !a.equalsIgnoreCase(cmdLabel))
-                                .distinct()
-                                .collect(Collectors.toList())
-                );
-
-                if (!commandMap.register(cmdLabel, plugin.getName(), cmd)) {
-                    getLogger().severe("Unable to add command " + cmdLabel);
-                    return;
-                }
-            } catch (Exception e) {
-                throw new CommandRegistrationException("Failed to register command '" + cmdLabel + "' in Spigot", e);
-            }
+        return alreadyInTree || commandMap.getCommand(cmdLabel) != null;
+    }
+
+    /**
+     * Create the plugin command of a root label.
+     *
+     * @param command  The command registered at this label.
+     * @param cmdLabel The root label.
+     * @return The plugin command.
+     */
+    private PluginCommand createCommand(Command<T, CommandSender> command, String cmdLabel) {
+        try {
+            PluginCommand cmd = pluginConstructor.newInstance(cmdLabel, plugin);
+            cmd.setExecutor(spigotExecutor);
+            cmd.setTabCompleter(spigotExecutor);
+            cmd.setAliases(
+                    command.getAliases().stream()
+                            .map(a -> Patterns.DOT.split(a)[0])
+                            .filter(a -> !a.equalsIgnoreCase(cmdLabel))
+                            .distinct()
+                            .collect(Collectors.toList())
+            );
+            return cmd;
+        } catch (Exception e) {
+            throw new CommandRegistrationException("Failed to register command '" + cmdLabel + "' in Spigot", e);
         }
+    }
 
-        if (!command.getDescription().equalsIgnoreCase("") && labelParts.length == 1) {
+    /**
+     * Copy the description and usage of a root command to its plugin command.
+     *
+     * @param command    The command.
+     * @param labelParts The parts of its label.
+     */
+    private void applyMeta(Command<T, CommandSender> command, String[] labelParts) {
+        if (labelParts.length != 1) {
+            return;
+        }
+        String cmdLabel = labelParts[0].toLowerCase();
+
+        if (!command.getDescription().equalsIgnoreCase("")) {
             Objects.requireNonNull(commandMap.getCommand(cmdLabel)).setDescription(command.getDescription());
         }
 
-        if (!command.getUsage().equalsIgnoreCase("") && labelParts.length == 1) {
+        if (!command.getUsage().equalsIgnoreCase("")) {
             Objects.requireNonNull(commandMap.getCommand(cmdLabel)).setUsage(command.getUsage());
         }
     }
 
+    /**
+     * Send the updated command tree to online players. Players joining later receive it
+     * anyway, and the server syncs it itself once started.
+     */
+    private void syncCommands() {
+        if (Bukkit.getOnlinePlayers().isEmpty()) {
+            return;
+        }
+        try {
+            Method sync = Bukkit.getServer().getClass().getDeclaredMethod("syncCommands");
+            sync.setAccessible(true);
+            sync.invoke(Bukkit.getServer());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            getLogger().warning("Unable to resync commands: " + e.getMessage());
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -179,6 +308,19 @@ public class SpigotPlatform<T extends JavaPlugin> implements CommandPlatform<T,
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>Tasks are scheduled on the server thread, unless already called from it.</p>
+     */
+    @Override
+    public void runSync(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(this.plugin, task);
+        }
+    }
+
     @Override
     public SenderResolver<CommandSender> getSenderResolver() {
         return new SpigotSenderResolver();
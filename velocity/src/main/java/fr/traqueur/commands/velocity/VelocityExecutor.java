@@ -3,6 +3,7 @@ package fr.traqueur.commands.velocity;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.RawCommand;
 import fr.traqueur.commands.api.CommandManager;
+import fr.traqueur.commands.api.parsing.CommandLine;
 
 import java.util.List;
 
@@ -37,10 +38,9 @@ public class VelocityExecutor<T> implements RawCommand {
     @Override
     public void execute(Invocation invocation) {
         CommandSource source = invocation.source();
-        String[] args = invocation.arguments().split(" ");
+        CommandLine line = CommandLine.tokenize(invocation.arguments());
         String label = invocation.alias();
-        String labelLower = label.toLowerCase();
-        this.manager.getInvoker().invoke(source, labelLower, args);
+        this.manager.getInvoker().invoke(source, label, line);
     }
 
     /**
@@ -53,9 +53,8 @@ public class VelocityExecutor<T> implements RawCommand {
     @Override
     public List<String> suggest(Invocation invocation) {
         CommandSource source = invocation.source();
-        String[] args = invocation.arguments().split(" ");
+        CommandLine line = CommandLine.tokenize(invocation.arguments());
         String label = invocation.alias();
-        String labelLower = label.toLowerCase();
-        return this.manager.getInvoker().suggest(source, labelLower, args);
+        return this.manager.getInvoker().suggest(source, label, line);
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package fr.traqueur.commands.velocity;
+
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.permission.PermissionsSetupEvent;
+import fr.traqueur.commands.api.CommandManager;
+
+/**
+ * Invalidates the cached permission decisions of a player when they may have changed.
+ */
+public class VelocityPermissionListener {
+
+    /**
+     * The command manager.
+     */
+    private final CommandManager<?, CommandSource> commandManager;
+
+    /**
+     * The constructor of the listener.
+     *
+     * @param commandManager The command manager.
+     */
+    public VelocityPermissionListener(CommandManager<?, CommandSource> commandManager) {
+        this.commandManager = commandManager;
+    }
+
+    /**
+     * Forget the decisions of a subject whose permission provider is (re)installed.
+     *
+     * @param event The event.
+     */
+    @Subscribe(order = PostOrder.LAST)
+    public void onPermissionsSetup(PermissionsSetupEvent event) {
+        if (event.getSubject() instanceof CommandSource source) {
+            this.commandManager.invalidatePermissions(source);
+        }
+    }
+
+    /**
+     * Forget the decisions of a player leaving the proxy.
+     *
+     * @param event The event.
+     */
+    @Subscribe(order = PostOrder.LAST)
+    public void onDisconnect(DisconnectEvent event) {
+        this.commandManager.invalidatePermissions(event.getPlayer());
+    }
+}
@@ -83,6 +83,7 @@ public class VelocityPlatform<T> implements CommandPlatform<T, CommandSource> {
     @Override
     public void injectManager(CommandManager<T, CommandSource> commandManager) {
         this.commandManager = commandManager;
+        this.server.getEventManager().register(this.plugin, new VelocityPermissionListener(commandManager));
     }
 
     /**
@@ -106,6 +107,15 @@ public class VelocityPlatform<T> implements CommandPlatform<T, CommandSource> {
         return sender instanceof com.velocitypowered.api.proxy.Player;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>Players are keyed by their unique id, so that their rate limits survive a reconnection.</p>
+     */
+    @Override
+    public Object getSenderKey(CommandSource sender) {
+        return sender instanceof com.velocitypowered.api.proxy.Player player ? player.getUniqueId() : sender;
+    }
+
     @Override
     public void sendMessage(CommandSource sender, String message) {
         sender.sendMessage(this.parse(message));